@@ -8,12 +8,6 @@
  */
 package org.openhab.binding.astro.handler;
 
-import static org.quartz.JobBuilder.newJob;
-import static org.quartz.SimpleScheduleBuilder.simpleSchedule;
-import static org.quartz.TriggerBuilder.newTrigger;
-import static org.quartz.impl.matchers.GroupMatcher.jobGroupEquals;
-
-import java.util.Date;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -32,14 +26,7 @@ import org.openhab.binding.astro.internal.job.DailyJob;
 import org.openhab.binding.astro.internal.job.PositionalJob;
 import org.openhab.binding.astro.internal.model.Planet;
 import org.openhab.binding.astro.internal.util.PropertyUtils;
-import org.quartz.CronScheduleBuilder;
-import org.quartz.JobDataMap;
-import org.quartz.JobDetail;
-import org.quartz.JobKey;
-import org.quartz.Scheduler;
-import org.quartz.SchedulerException;
-import org.quartz.Trigger;
-import org.quartz.impl.StdSchedulerFactory;
+import org.openhab.binding.astro.internal.util.TimerWheel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,7 +37,7 @@ import org.slf4j.LoggerFactory;
  */
 public abstract class AstroThingHandler extends BaseThingHandler {
     private static final Logger logger = LoggerFactory.getLogger(AstroThingHandler.class);
-    private Scheduler quartzScheduler;
+    private TimerWheel timerWheel = TimerWheel.getInstance();
     private ScheduledFuture<?> schedulerFuture;
     private int linkedPositionalChannels = 0;
     protected AstroThingConfig thingConfig;
@@ -111,7 +98,6 @@ public abstract class AstroThingHandler extends BaseThingHandler {
             schedulerFuture = null;
         }
         stopJobs();
-        quartzScheduler = null;
         logger.debug("Thing {} disposed", getThing().getUID());
     }
 
@@ -176,50 +162,27 @@ public abstract class AstroThingHandler extends BaseThingHandler {
             public void run() {
                 stopJobs();
 
-                try {
-                    synchronized (schedulerLock) {
-                        if (quartzScheduler == null) {
-                            quartzScheduler = StdSchedulerFactory.getDefaultScheduler();
-                        }
-
-                        if (getThing().getStatus() == ThingStatus.ONLINE) {
-                            String thingUid = getThing().getUID().toString();
-                            JobDataMap jobDataMap = new JobDataMap();
-                            jobDataMap.put("thingUid", thingUid);
+                synchronized (schedulerLock) {
+                    if (getThing().getStatus() == ThingStatus.ONLINE) {
+                        String thingUid = getThing().getUID().toString();
 
-                            // dailyJob
-                            String jobIdentity = DailyJob.class.getSimpleName();
-                            Trigger trigger = newTrigger().withIdentity("dailyJobTrigger", thingUid)
-                                    .withSchedule(CronScheduleBuilder.cronSchedule("0 0 0 * * ?")).build();
-                            JobDetail jobDetail = newJob(DailyJob.class).withIdentity(jobIdentity, thingUid)
-                                    .usingJobData(jobDataMap).build();
-                            quartzScheduler.scheduleJob(jobDetail, trigger);
-                            logger.info("Scheduled astro {} at midnight for thing {}", jobIdentity, thingUid);
+                        // dailyJob
+                        timerWheel.scheduleAtMidnight(thingUid, new DailyJob(thingUid));
+                        logger.info("Scheduled astro {} at midnight for thing {}", DailyJob.class.getSimpleName(),
+                                thingUid);
 
-                            // startupJob
-                            trigger = newTrigger().withIdentity("dailyJobStartupTrigger", thingUid).startNow().build();
-                            jobDetail = newJob(DailyJob.class).withIdentity("dailyJobStartup", thingUid)
-                                    .usingJobData(jobDataMap).build();
-                            quartzScheduler.scheduleJob(jobDetail, trigger);
+                        // startupJob
+                        timerWheel.schedule(thingUid, new DailyJob(thingUid), 0);
 
-                            if (isPositionalChannelLinked()) {
-                                // positional intervalJob
-                                jobIdentity = PositionalJob.class.getSimpleName();
-                                Date start = new Date(System.currentTimeMillis() + (thingConfig.getInterval()) * 1000);
-                                trigger = newTrigger().withIdentity("positionalJobTrigger", thingUid).startAt(start)
-                                        .withSchedule(simpleSchedule().repeatForever()
-                                                .withIntervalInSeconds(thingConfig.getInterval()))
-                                        .build();
-                                jobDetail = newJob(PositionalJob.class).withIdentity(jobIdentity, thingUid)
-                                        .usingJobData(jobDataMap).build();
-                                quartzScheduler.scheduleJob(jobDetail, trigger);
-                                logger.info("Scheduled astro {} with interval of {} seconds for thing {}", jobIdentity,
-                                        thingConfig.getInterval(), thingUid);
-                            }
+                        if (isPositionalChannelLinked()) {
+                            // positional intervalJob
+                            long interval = thingConfig.getInterval() * 1000L;
+                            timerWheel.scheduleAtFixedRate(thingUid, new PositionalJob(thingUid), interval, interval);
+                            logger.info("Scheduled astro {} with interval of {} seconds for thing {}",
+                                    PositionalJob.class.getSimpleName(), thingConfig.getInterval(), thingUid);
                         }
+                        logger.debug("Astro jobs of all things: {}", timerWheel);
                     }
-                } catch (SchedulerException ex) {
-                    logger.error(ex.getMessage(), ex);
                 }
             }
         }, 2000, TimeUnit.MILLISECONDS);
@@ -231,18 +194,9 @@ public abstract class AstroThingHandler extends BaseThingHandler {
     private void stopJobs() {
         logger.debug("Stopping jobs for thing {}", getThing().getUID());
         synchronized (schedulerLock) {
-            if (quartzScheduler != null) {
-                try {
-                    String thingUid = getThing().getUID().toString();
-                    for (JobKey jobKey : quartzScheduler.getJobKeys(jobGroupEquals(thingUid))) {
-                        logger.info("Deleting astro {} for thing '{}'", jobKey.getName(), thingUid);
-                        quartzScheduler.deleteJob(jobKey);
-                    }
-                } catch (SchedulerException ex) {
-                    logger.error(ex.getMessage(), ex);
-                }
-            }
+            timerWheel.cancel(getThing().getUID().toString());
         }
+        logger.debug("Astro jobs of all things: {}", timerWheel);
     }
 
     /**
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.astro.internal.calc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the julian dates calculated for a day, which are the same for all things at the same location. The results
+ * of adjacent days are reused, e.g. the sun data of yesterday and tomorrow, which is needed for the night ranges.
+ * The least recently used entries are removed, so the cache holds a rolling window of days for each location.
+ *
+ * The cached arrays are shared and must not be modified.
+ *
+ * @author agent - Initial contribution
+ */
+final class EphemerisCache {
+	static final int SUN_DAY = 0;
+	static final int SUN_UP_ALL_DAY = 1;
+	static final int SUN_ECLIPSE = 2;
+	static final int MOON_RISE_SET = 3;
+	static final int MOON_NEXT_PHASE = 4;
+	static final int MOON_PREVIOUS_PHASE = 5;
+	static final int MOON_ECLIPSE = 6;
+
+	private static final int MAX_ENTRIES = 512;
+
+	private static final Map<Key, double[]> entries = new LinkedHashMap<Key, double[]>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, double[]> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private EphemerisCache() {
+	}
+
+	/**
+	 * Returns the cached values or null.
+	 *
+	 * @param type one of the type constants of this class
+	 * @param julianDate the julian date of the day, e.g. midnight
+	 * @param latitude the latitude or 0, if the values do not depend on the location
+	 * @param longitude the longitude or a type specific parameter
+	 */
+	static double[] get(int type, double julianDate, double latitude, double longitude) {
+		synchronized (entries) {
+			return entries.get(new Key(type, julianDate, latitude, longitude));
+		}
+	}
+
+	/**
+	 * Stores the values, see {@link #get(int, double, double, double)}.
+	 */
+	static double[] put(int type, double julianDate, double latitude, double longitude, double[] values) {
+		synchronized (entries) {
+			entries.put(new Key(type, julianDate, latitude, longitude), values);
+		}
+		return values;
+	}
+
+	private static final class Key {
+		private final int type;
+		private final double julianDate;
+		private final double latitude;
+		private final double longitude;
+
+		Key(int type, double julianDate, double latitude, double longitude) {
+			this.type = type;
+			this.julianDate = julianDate;
+			this.latitude = latitude;
+			this.longitude = longitude;
+		}
+
+		@Override
+		public int hashCode() {
+			long bits = Double.doubleToLongBits(julianDate);
+			bits = 31 * bits + Double.doubleToLongBits(latitude);
+			bits = 31 * bits + Double.doubleToLongBits(longitude);
+			return 31 * type + (int) (bits ^ (bits >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return type == other.type
+					&& Double.doubleToLongBits(julianDate) == Double.doubleToLongBits(other.julianDate)
+					&& Double.doubleToLongBits(latitude) == Double.doubleToLongBits(other.latitude)
+					&& Double.doubleToLongBits(longitude) == Double.doubleToLongBits(other.longitude);
+		}
+	}
+}
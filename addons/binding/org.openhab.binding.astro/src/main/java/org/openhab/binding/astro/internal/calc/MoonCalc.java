@@ -155,6 +155,10 @@ public class MoonCalc {
 
 		double moonJd = Math.floor(DateTimeUtils.midnightDateToJulianDate(calendar)) - 2400000.0;
 		moonJd -= ((calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET)) / 60000.0) / 1440.0;
+		double[] cached = EphemerisCache.get(EphemerisCache.MOON_RISE_SET, moonJd, latitude, longitude);
+		if (cached != null) {
+			return cached;
+		}
 
 		double sphi = SN(phi);
 		double cphi = CS(phi);
@@ -192,7 +196,7 @@ public class MoonCalc {
 		double rise = prepareTime(utrise);
 		double set = prepareTime(utset);
 
-		return new double[] { rise, set };
+		return EphemerisCache.put(EphemerisCache.MOON_RISE_SET, moonJd, latitude, longitude, new double[] { rise, set });
 	}
 
 	/**
@@ -360,16 +364,22 @@ public class MoonCalc {
 	}
 
 	/**
-	 * Calculates the next moon phase.
+	 * Calculates the next moon phase. The phases are calculated per lunation, starting at the lunation of the
+	 * calendar day.
 	 */
 	private double getNextPhase(Calendar cal, double midnightJd, double mode) {
-		double tz = 0;
+		double k = Math.floor(var_k(cal, 0));
+		double[] cached = EphemerisCache.get(EphemerisCache.MOON_NEXT_PHASE, midnightJd, k, mode);
+		if (cached != null) {
+			return cached[0];
+		}
+		double lunation = k;
 		double phaseJd = 0;
 		do {
-			double k = var_k(cal, tz);
-			tz += 1;
-			phaseJd = calcMoonPhase(k, mode);
+			phaseJd = calcMoonPhase(lunation, mode);
+			lunation += 1;
 		} while (phaseJd <= midnightJd);
+		EphemerisCache.put(EphemerisCache.MOON_NEXT_PHASE, midnightJd, k, mode, new double[] { phaseJd });
 		return phaseJd;
 	}
 
@@ -377,13 +387,18 @@ public class MoonCalc {
 	 * Calculates the previous moon phase.
 	 */
 	public double getPreviousPhase(Calendar cal, double jd, double mode) {
-		double tz = 0;
+		double k = Math.floor(var_k(cal, 0));
+		double[] cached = EphemerisCache.get(EphemerisCache.MOON_PREVIOUS_PHASE, jd, k, mode);
+		if (cached != null) {
+			return cached[0];
+		}
+		double lunation = k;
 		double phaseJd = 0;
 		do {
-			double k = var_k(cal, tz);
-			tz -= 1;
-			phaseJd = calcMoonPhase(k, mode);
+			phaseJd = calcMoonPhase(lunation, mode);
+			lunation -= 1;
 		} while (phaseJd > jd);
+		EphemerisCache.put(EphemerisCache.MOON_PREVIOUS_PHASE, jd, k, mode, new double[] { phaseJd });
 		return phaseJd;
 	}
 
@@ -391,13 +406,19 @@ public class MoonCalc {
 	 * Calculates the next eclipse.
 	 */
 	protected double getEclipse(Calendar cal, double type, double midnightJd, int mode) {
-		double tz = 0;
+		int cacheType = type == ECLIPSE_TYPE_SUN ? EphemerisCache.SUN_ECLIPSE : EphemerisCache.MOON_ECLIPSE;
+		double k = Math.floor(var_k(cal, 0));
+		double[] cached = EphemerisCache.get(cacheType, midnightJd, k, mode);
+		if (cached != null) {
+			return cached[0];
+		}
+		double lunation = k;
 		double eclipseJd = 0;
 		do {
-			double k = var_k(cal, tz);
-			tz += 1;
-			eclipseJd = getEclipse(k, type, mode);
+			eclipseJd = getEclipse(lunation, type, mode);
+			lunation += 1;
 		} while (eclipseJd <= midnightJd);
+		EphemerisCache.put(cacheType, midnightJd, k, mode, new double[] { eclipseJd });
 		return eclipseJd;
 	}
 
@@ -50,15 +50,38 @@ public class SunCalc {
 	private static final double MINUTES_PER_DAY = 60 * 24;
 	private static final int CURVE_TIME_INTERVAL = 20; // 20 minutes
 	private static final double JD_ONE_MINUTE_FRACTION = 1.0 / 60 / 24;
+	private static final long MILLISECONDS_PER_MINUTE = 60 * 1000;
+
+	// indexes of the julian dates of a day
+	private static final int TRANSIT = 0;
+	private static final int RISE = 1;
+	private static final int RISE_END = 2;
+	private static final int SET_START = 3;
+	private static final int SET = 4;
+	private static final int NAUTIC_DUSK_END = 5;
+	private static final int CIVIL_DAWN_START = 6;
+	private static final int ASTRO_DUSK_START = 7;
+	private static final int ASTRO_DUSK_END = 8;
+	private static final int NAUTIC_DAWN_START = 9;
+	private static final int ASTRO_DAWN_START = 10;
+
+	private MoonCalc moonCalc = new MoonCalc();
 
 	/**
 	 * Calculates the sun position (azimuth and elevation).
 	 */
 	public void setPositionalInfo(Calendar calendar, double latitude, double longitude, Sun sun) {
+		double[] azimuthElevation = getAzimuthElevation(DateTimeUtils.dateToJulianDate(calendar), latitude, longitude);
+
+		Position position = sun.getPosition();
+		position.setAzimuth(azimuthElevation[0] + 180);
+		position.setElevation(azimuthElevation[1]);
+	}
+
+	private double[] getAzimuthElevation(double j, double latitude, double longitude) {
 		double lw = -longitude * DEG2RAD;
 		double phi = latitude * DEG2RAD;
 
-		double j = DateTimeUtils.dateToJulianDate(calendar);
 		double m = getSolarMeanAnomaly(j);
 		double c = getEquationOfCenter(m);
 		double lsun = getEclipticLongitude(m, c);
@@ -66,73 +89,56 @@ public class SunCalc {
 		double a = getRightAscension(lsun);
 		double th = getSiderealTime(j, lw);
 
-		double azimuth = getAzimuth(th, a, phi, d) / DEG2RAD;
-		double elevation = getElevation(th, a, phi, d) / DEG2RAD;
-
-		Position position = sun.getPosition();
-		position.setAzimuth(azimuth + 180);
-		position.setElevation(elevation);
+		return new double[] { getAzimuth(th, a, phi, d) / DEG2RAD, getElevation(th, a, phi, d) / DEG2RAD };
 	}
 
 	/**
 	 * Returns true, if the sun is up all day (no rise and set).
 	 */
-	private boolean isSunUpAllDay(Calendar calendar, double latitude, double longitude) {
-		Calendar cal = DateTimeUtils.truncateToMidnight(calendar);
-		Sun sun = new Sun();
+	private boolean isSunUpAllDay(long midnightMillis, double latitude, double longitude) {
+		double midnightJd = DateTimeUtils.millisToJulianDate(midnightMillis);
+		double[] cached = EphemerisCache.get(EphemerisCache.SUN_UP_ALL_DAY, midnightJd, latitude, longitude);
+		if (cached != null) {
+			return cached[0] != 0;
+		}
+
+		boolean isSunUpAllDay = true;
 		for (int minutes = 0; minutes <= MINUTES_PER_DAY; minutes += CURVE_TIME_INTERVAL) {
-			setPositionalInfo(cal, latitude, longitude, sun);
-			if (sun.getPosition().getElevation() < SUN_ANGLE) {
-				return false;
+			double j = DateTimeUtils.millisToJulianDate(midnightMillis + minutes * MILLISECONDS_PER_MINUTE);
+			if (getAzimuthElevation(j, latitude, longitude)[1] < SUN_ANGLE) {
+				isSunUpAllDay = false;
+				break;
 			}
-			cal.add(Calendar.MINUTE, CURVE_TIME_INTERVAL);
 		}
-		return true;
+		EphemerisCache.put(EphemerisCache.SUN_UP_ALL_DAY, midnightJd, latitude, longitude,
+				new double[] { isSunUpAllDay ? 1 : 0 });
+		return isSunUpAllDay;
 	}
 
 	/**
 	 * Calculates all sun rise and sets at the specified coordinates.
 	 */
 	public Sun getSunInfo(Calendar calendar, double latitude, double longitude) {
-		return getSunInfo(calendar, latitude, longitude, false);
-	}
-
-	private Sun getSunInfo(Calendar calendar, double latitude, double longitude, boolean onlyAstro) {
-		double lw = -longitude * DEG2RAD;
-		double phi = latitude * DEG2RAD;
-		double j = DateTimeUtils.midnightDateToJulianDate(calendar) + 0.5;
-		double n = getJulianCycle(j, lw);
-		double js = getApproxSolarTransit(0, lw, n);
-		double m = getSolarMeanAnomaly(js);
-		double c = getEquationOfCenter(m);
-		double lsun = getEclipticLongitude(m, c);
-		double d = getSunDeclination(lsun);
-		double jtransit = getSolarTransit(js, m, lsun);
-		double w0 = getHourAngle(H0, phi, d);
-		double w1 = getHourAngle(H0 + SUN_DIAMETER, phi, d);
-		double jset = getSunsetJulianDate(w0, m, lsun, lw, n);
-		double jsetstart = getSunsetJulianDate(w1, m, lsun, lw, n);
-		double jrise = getSunriseJulianDate(jtransit, jset);
-		double jriseend = getSunriseJulianDate(jtransit, jsetstart);
-		double w2 = getHourAngle(H1, phi, d);
-		double jnau = getSunsetJulianDate(w2, m, lsun, lw, n);
-		double Jciv2 = getSunriseJulianDate(jtransit, jnau);
-
-		double w3 = getHourAngle(H2, phi, d);
-		double w4 = getHourAngle(H3, phi, d);
-		double jastro = getSunsetJulianDate(w3, m, lsun, lw, n);
-		double jdark = getSunsetJulianDate(w4, m, lsun, lw, n);
-		double jnau2 = getSunriseJulianDate(jtransit, jastro);
-		double jastro2 = getSunriseJulianDate(jtransit, jdark);
+		long midnightMillis = DateTimeUtils.truncateToMidnight(calendar).getTimeInMillis();
+		double midnightJd = DateTimeUtils.millisToJulianDate(midnightMillis);
+		double j = midnightJd + 0.5;
+		double[] day = getSunDay(midnightJd, latitude, longitude);
+		double jtransit = day[TRANSIT];
+		double jrise = day[RISE];
+		double jriseend = day[RISE_END];
+		double jsetstart = day[SET_START];
+		double jset = day[SET];
+		double jnau = day[NAUTIC_DUSK_END];
+		double Jciv2 = day[CIVIL_DAWN_START];
+		double jastro = day[ASTRO_DUSK_START];
+		double jdark = day[ASTRO_DUSK_END];
+		double jnau2 = day[NAUTIC_DAWN_START];
+		double jastro2 = day[ASTRO_DAWN_START];
 
 		Sun sun = new Sun();
 		sun.setAstroDawn(new Range(DateTimeUtils.toCalendar(jastro2), DateTimeUtils.toCalendar(jnau2)));
 		sun.setAstroDusk(new Range(DateTimeUtils.toCalendar(jastro), DateTimeUtils.toCalendar(jdark)));
 
-		if (onlyAstro) {
-			return sun;
-		}
-
 		sun.setNoon(new Range(DateTimeUtils.toCalendar(jtransit), DateTimeUtils.toCalendar(jtransit
 				+ JD_ONE_MINUTE_FRACTION)));
 		sun.setRise(new Range(DateTimeUtils.toCalendar(jrise), DateTimeUtils.toCalendar(jriseend)));
@@ -144,7 +150,7 @@ public class SunCalc {
 		sun.setNauticDawn(new Range(DateTimeUtils.toCalendar(jnau2), DateTimeUtils.toCalendar(Jciv2)));
 		sun.setNauticDusk(new Range(DateTimeUtils.toCalendar(jnau), DateTimeUtils.toCalendar(jastro)));
 
-		boolean isSunUpAllDay = isSunUpAllDay(calendar, latitude, longitude);
+		boolean isSunUpAllDay = isSunUpAllDay(midnightMillis, latitude, longitude);
 
 		// daylight
 		Range daylightRange = new Range();
@@ -158,12 +164,12 @@ public class SunCalc {
 		}
 		sun.setDaylight(daylightRange);
 
-		// morning night
-		Sun sunYesterday = getSunInfo(addDays(calendar, -1), latitude, longitude, true);
+		// morning night, only the astro dusk of yesterday is needed
+		Calendar yesterdayAstroDuskEnd = DateTimeUtils.toCalendar(getSunDay(
+				DateTimeUtils.midnightDateToJulianDate(addDays(calendar, -1)), latitude, longitude)[ASTRO_DUSK_END]);
 		Range morningNightRange = null;
-		if (sunYesterday.getAstroDusk().getEnd() != null
-				&& DateUtils.isSameDay(sunYesterday.getAstroDusk().getEnd(), calendar)) {
-			morningNightRange = new Range(sunYesterday.getAstroDusk().getEnd(), sun.getAstroDawn().getStart());
+		if (yesterdayAstroDuskEnd != null && DateUtils.isSameDay(yesterdayAstroDuskEnd, calendar)) {
+			morningNightRange = new Range(yesterdayAstroDuskEnd, sun.getAstroDawn().getStart());
 		} else if (isSunUpAllDay) {
 			morningNightRange = new Range();
 		} else {
@@ -181,23 +187,23 @@ public class SunCalc {
 		}
 		sun.setEveningNight(eveningNightRange);
 
-		// night
+		// night, only the astro dawn of tomorrow is needed
 		if (isSunUpAllDay) {
 			sun.setNight(new Range());
 		} else {
-			Sun sunTomorrow = getSunInfo(addDays(calendar, 1), latitude, longitude, true);
-			sun.setNight(new Range(sun.getAstroDusk().getEnd(), sunTomorrow.getAstroDawn().getStart()));
+			double tomorrowAstroDawnStart = getSunDay(DateTimeUtils.midnightDateToJulianDate(addDays(calendar, 1)),
+					latitude, longitude)[ASTRO_DAWN_START];
+			sun.setNight(new Range(sun.getAstroDusk().getEnd(), DateTimeUtils.toCalendar(tomorrowAstroDawnStart)));
 		}
 
 		// eclipse
 		SunEclipse eclipse = sun.getEclipse();
-		MoonCalc mc = new MoonCalc();
 
-		double partial = mc.getEclipse(calendar, MoonCalc.ECLIPSE_TYPE_SUN, j, MoonCalc.ECLIPSE_MODE_PARTIAL);
+		double partial = moonCalc.getEclipse(calendar, MoonCalc.ECLIPSE_TYPE_SUN, j, MoonCalc.ECLIPSE_MODE_PARTIAL);
 		eclipse.setPartial(DateTimeUtils.toCalendar(partial));
-		double ring = mc.getEclipse(calendar, MoonCalc.ECLIPSE_TYPE_SUN, j, MoonCalc.ECLIPSE_MODE_RING);
+		double ring = moonCalc.getEclipse(calendar, MoonCalc.ECLIPSE_TYPE_SUN, j, MoonCalc.ECLIPSE_MODE_RING);
 		eclipse.setRing(DateTimeUtils.toCalendar(ring));
-		double total = mc.getEclipse(calendar, MoonCalc.ECLIPSE_TYPE_SUN, j, MoonCalc.ECLIPSE_MODE_TOTAL);
+		double total = moonCalc.getEclipse(calendar, MoonCalc.ECLIPSE_TYPE_SUN, j, MoonCalc.ECLIPSE_MODE_TOTAL);
 		eclipse.setTotal(DateTimeUtils.toCalendar(total));
 		
         SunZodiacCalc zodiacCalc = new SunZodiacCalc();
@@ -209,6 +215,47 @@ public class SunCalc {
 		return sun;
 	}
 
+	/**
+	 * Returns the julian dates of the day at the specified coordinates, indexed by the TRANSIT, RISE, ... constants.
+	 * The values are cached, so the days before and after are calculated only once.
+	 */
+	private double[] getSunDay(double midnightJd, double latitude, double longitude) {
+		double[] day = EphemerisCache.get(EphemerisCache.SUN_DAY, midnightJd, latitude, longitude);
+		if (day != null) {
+			return day;
+		}
+
+		double lw = -longitude * DEG2RAD;
+		double phi = latitude * DEG2RAD;
+		double j = midnightJd + 0.5;
+		double n = getJulianCycle(j, lw);
+		double js = getApproxSolarTransit(0, lw, n);
+		double m = getSolarMeanAnomaly(js);
+		double c = getEquationOfCenter(m);
+		double lsun = getEclipticLongitude(m, c);
+		double d = getSunDeclination(lsun);
+		double jtransit = getSolarTransit(js, m, lsun);
+		double w0 = getHourAngle(H0, phi, d);
+		double w1 = getHourAngle(H0 + SUN_DIAMETER, phi, d);
+		double jset = getSunsetJulianDate(w0, m, lsun, lw, n);
+		double jsetstart = getSunsetJulianDate(w1, m, lsun, lw, n);
+		double jrise = getSunriseJulianDate(jtransit, jset);
+		double jriseend = getSunriseJulianDate(jtransit, jsetstart);
+		double w2 = getHourAngle(H1, phi, d);
+		double jnau = getSunsetJulianDate(w2, m, lsun, lw, n);
+		double Jciv2 = getSunriseJulianDate(jtransit, jnau);
+
+		double w3 = getHourAngle(H2, phi, d);
+		double w4 = getHourAngle(H3, phi, d);
+		double jastro = getSunsetJulianDate(w3, m, lsun, lw, n);
+		double jdark = getSunsetJulianDate(w4, m, lsun, lw, n);
+		double jnau2 = getSunriseJulianDate(jtransit, jastro);
+		double jastro2 = getSunriseJulianDate(jtransit, jdark);
+
+		day = new double[] { jtransit, jrise, jriseend, jsetstart, jset, jnau, Jciv2, jastro, jdark, jnau2, jastro2 };
+		return EphemerisCache.put(EphemerisCache.SUN_DAY, midnightJd, latitude, longitude, day);
+	}
+
 	/**
 	 * Adds the specified days to the calendar.
 	 */
@@ -8,10 +8,6 @@
  */
 package org.openhab.binding.astro.internal.job;
 
-import org.quartz.Job;
-import org.quartz.JobDataMap;
-import org.quartz.JobExecutionContext;
-import org.quartz.JobExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,14 +16,16 @@ import org.slf4j.LoggerFactory;
  * 
  * @author Gerhard Riegler - Initial contribution
  */
-public abstract class AbstractBaseJob implements Job {
+public abstract class AbstractBaseJob implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(AbstractBaseJob.class);
+    private final String thingUid;
 
-    @Override
-    public void execute(JobExecutionContext jobContext) throws JobExecutionException {
-        JobDataMap jobDataMap = jobContext.getJobDetail().getJobDataMap();
+    public AbstractBaseJob(String thingUid) {
+        this.thingUid = thingUid;
+    }
 
-        String thingUid = jobDataMap.getString("thingUid");
+    @Override
+    public void run() {
         if (logger.isDebugEnabled()) {
             logger.debug("Starting astro {} for thing {}", this.getClass().getSimpleName(), thingUid);
         }
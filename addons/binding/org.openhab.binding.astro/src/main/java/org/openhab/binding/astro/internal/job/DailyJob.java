@@ -18,6 +18,10 @@ import org.openhab.binding.astro.internal.AstroHandlerFactory;
  */
 public class DailyJob extends AbstractBaseJob {
 
+	public DailyJob(String thingUid) {
+		super(thingUid);
+	}
+
 	@Override
 	protected void executeJob(String thingUid) {
 	    AstroThingHandler astroHandler = AstroHandlerFactory.getHandler(thingUid);
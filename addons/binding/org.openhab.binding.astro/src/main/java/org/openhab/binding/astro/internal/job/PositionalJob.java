@@ -18,6 +18,10 @@ import org.openhab.binding.astro.internal.AstroHandlerFactory;
  */
 public class PositionalJob extends AbstractBaseJob {
 
+    public PositionalJob(String thingUid) {
+        super(thingUid);
+    }
+
     @Override
     protected void executeJob(String thingUid) {
         AstroThingHandler astroHandler = AstroHandlerFactory.getHandler(thingUid);
@@ -70,7 +70,14 @@ public class DateTimeUtils {
 	 * Returns the julian date from the calendar object.
 	 */
 	public static double dateToJulianDate(Calendar calendar) {
-		return calendar.getTimeInMillis() / MILLISECONDS_PER_DAY - 0.5 + J1970;
+		return millisToJulianDate(calendar.getTimeInMillis());
+	}
+
+	/**
+	 * Returns the julian date from the milliseconds since 1970-01-01 UTC.
+	 */
+	public static double millisToJulianDate(long millis) {
+		return millis / MILLISECONDS_PER_DAY - 0.5 + J1970;
 	}
 
 	/**
@@ -0,0 +1,292 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.astro.internal.util;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A hashed timer wheel, which executes the scheduled tasks of all astro things on one thread. The tasks are grouped,
+ * usually by thing, so all tasks of a thing can be cancelled at once. The thread is started with the first task and
+ * ends if no tasks are left.
+ *
+ * A task is executed at the first tick at or after its time, never before. The wheel has one bucket per tick, tasks
+ * which are due after more than one rotation stay in their bucket until their tick is reached.
+ *
+ * @author agent - Initial contribution
+ */
+public class TimerWheel {
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+    private static final TimerWheel instance = new TimerWheel();
+
+    private final Object lock = new Object();
+    private final long startNanos = System.nanoTime();
+    private final List<Set<Timeout>> buckets = new ArrayList<Set<Timeout>>(WHEEL_SIZE);
+    private final Map<String, Set<Timeout>> groups = new HashMap<String, Set<Timeout>>();
+    private Thread thread;
+    private long tick;
+    private int pending;
+
+    private long scheduledCount;
+    private long firedCount;
+    private long cancelledCount;
+
+    private TimerWheel() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            buckets.add(new HashSet<Timeout>());
+        }
+    }
+
+    /**
+     * Returns the timer wheel shared by all astro things.
+     */
+    public static TimerWheel getInstance() {
+        return instance;
+    }
+
+    /**
+     * Executes the task once after the delay in milliseconds.
+     */
+    public void schedule(String group, Runnable task, long delay) {
+        add(new Timeout(group, task, 0, false), delay);
+    }
+
+    /**
+     * Executes the task after the delay and then repeatedly with the period in milliseconds.
+     */
+    public void scheduleAtFixedRate(String group, Runnable task, long delay, long period) {
+        add(new Timeout(group, task, period, false), delay);
+    }
+
+    /**
+     * Executes the task at every midnight.
+     */
+    public void scheduleAtMidnight(String group, Runnable task) {
+        add(new Timeout(group, task, 0, true), Timeout.getMillisUntilMidnight());
+    }
+
+    /**
+     * Cancels all tasks of the group. A task which is currently executed is not interrupted, but it is not executed
+     * again.
+     */
+    public void cancel(String group) {
+        synchronized (lock) {
+            Set<Timeout> timeouts = groups.remove(group);
+            if (timeouts != null) {
+                for (Timeout timeout : timeouts) {
+                    timeout.cancelled = true;
+                    if (buckets.get(bucketIndex(timeout.deadlineTick)).remove(timeout)) {
+                        cancelledCount++;
+                    }
+                }
+                pending -= timeouts.size();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of scheduled tasks, each repetition of a repeating task is counted.
+     */
+    public long getScheduledCount() {
+        synchronized (lock) {
+            return scheduledCount;
+        }
+    }
+
+    /**
+     * Returns the number of executed tasks.
+     */
+    public long getFiredCount() {
+        synchronized (lock) {
+            return firedCount;
+        }
+    }
+
+    /**
+     * Returns the number of tasks which were cancelled before they were executed.
+     */
+    public long getCancelledCount() {
+        synchronized (lock) {
+            return cancelledCount;
+        }
+    }
+
+    /**
+     * Returns the number of tasks which are waiting for their execution.
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return "TimerWheel [scheduled=" + scheduledCount + ", fired=" + firedCount + ", cancelled="
+                    + cancelledCount + ", pending=" + pending + "]";
+        }
+    }
+
+    private void add(Timeout timeout, long delay) {
+        synchronized (lock) {
+            Set<Timeout> timeouts = groups.get(timeout.group);
+            if (timeouts == null) {
+                timeouts = new HashSet<Timeout>();
+                groups.put(timeout.group, timeouts);
+            }
+            timeouts.add(timeout);
+            pending++;
+            if (thread == null) {
+                tick = Math.max(tick, currentTick());
+                thread = new Thread("Astro timer wheel") {
+                    @Override
+                    public void run() {
+                        runWheel();
+                    }
+                };
+                thread.setDaemon(true);
+                thread.start();
+            }
+            arm(timeout, elapsedMillis() + Math.max(0, delay));
+        }
+    }
+
+    /**
+     * Puts the timeout into the bucket of its deadline, but not before the next tick.
+     */
+    private void arm(Timeout timeout, long deadlineMillis) {
+        timeout.deadlineMillis = deadlineMillis;
+        timeout.deadlineTick = Math.max(tick, (deadlineMillis + TICK_MILLIS - 1) / TICK_MILLIS);
+        buckets.get(bucketIndex(timeout.deadlineTick)).add(timeout);
+        scheduledCount++;
+    }
+
+    private void runWheel() {
+        logger.debug("Astro timer wheel started");
+        List<Timeout> expired = new ArrayList<Timeout>();
+        while (true) {
+            synchronized (lock) {
+                if (pending == 0) {
+                    thread = null;
+                    logger.debug("Astro timer wheel stopped, {}", this);
+                    return;
+                }
+                long wait = tick * TICK_MILLIS - elapsedMillis();
+                if (wait > 0) {
+                    try {
+                        lock.wait(wait);
+                    } catch (InterruptedException e) {
+                    }
+                    continue;
+                }
+                for (Iterator<Timeout> it = buckets.get(bucketIndex(tick)).iterator(); it.hasNext();) {
+                    Timeout timeout = it.next();
+                    if (timeout.deadlineTick <= tick) {
+                        it.remove();
+                        expired.add(timeout);
+                    }
+                }
+                tick++;
+            }
+
+            for (Timeout timeout : expired) {
+                execute(timeout);
+            }
+            expired.clear();
+        }
+    }
+
+    private void execute(Timeout timeout) {
+        synchronized (lock) {
+            if (timeout.cancelled) {
+                cancelledCount++;
+                return;
+            }
+        }
+        try {
+            timeout.task.run();
+        } catch (RuntimeException ex) {
+            logger.error("Astro task for " + timeout.group + " failed: " + ex.getMessage(), ex);
+        }
+
+        synchronized (lock) {
+            firedCount++;
+            if (timeout.cancelled) {
+                return;
+            }
+            if (timeout.period > 0) {
+                // keep the rate, unless the wheel has fallen behind
+                arm(timeout, Math.max(timeout.deadlineMillis + timeout.period, elapsedMillis()));
+            } else if (timeout.midnight) {
+                arm(timeout, elapsedMillis() + Timeout.getMillisUntilMidnight());
+            } else {
+                Set<Timeout> timeouts = groups.get(timeout.group);
+                timeouts.remove(timeout);
+                if (timeouts.isEmpty()) {
+                    groups.remove(timeout.group);
+                }
+                pending--;
+            }
+        }
+    }
+
+    private long currentTick() {
+        return elapsedMillis() / TICK_MILLIS;
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1000000;
+    }
+
+    private static int bucketIndex(long tick) {
+        return (int) (tick % WHEEL_SIZE);
+    }
+
+    private static class Timeout {
+        final String group;
+        final Runnable task;
+        final long period;
+        final boolean midnight;
+        long deadlineMillis;
+        long deadlineTick;
+        boolean cancelled;
+
+        Timeout(String group, Runnable task, long period, boolean midnight) {
+            this.group = group;
+            this.task = task;
+            this.period = period;
+            this.midnight = midnight;
+        }
+
+        /**
+         * Returns the milliseconds until the next midnight, which is calculated for each day, because not every day
+         * has 24 hours.
+         */
+        static long getMillisUntilMidnight() {
+            Calendar nextMidnight = DateTimeUtils.truncateToMidnight(Calendar.getInstance());
+            nextMidnight.add(Calendar.DAY_OF_MONTH, 1);
+            return nextMidnight.getTimeInMillis() - System.currentTimeMillis();
+        }
+    }
+}
@@ -9,7 +9,9 @@
 package org.openhab.binding.homematic.handler;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.config.discovery.DiscoveryService;
@@ -28,6 +30,7 @@ import org.openhab.binding.homematic.internal.communicator.HomematicGateway;
 import org.openhab.binding.homematic.internal.communicator.HomematicGatewayFactory;
 import org.openhab.binding.homematic.internal.communicator.HomematicGatewayListener;
 import org.openhab.binding.homematic.internal.misc.HomematicClientException;
+import org.openhab.binding.homematic.internal.model.HmChannel;
 import org.openhab.binding.homematic.internal.model.HmDatapoint;
 import org.openhab.binding.homematic.internal.model.HmDevice;
 import org.openhab.binding.homematic.type.HomematicTypeGenerator;
@@ -78,6 +81,8 @@ public class HomematicBridgeHandler extends BaseBridgeHandler implements Homemat
                     discoveryService.startScan(null);
                     discoveryService.waitForScanFinishing();
                     updateStatus(ThingStatus.ONLINE);
+                    // load the values of all things at once instead of channel by channel in the thing handlers
+                    gateway.loadDeviceValues(getThingDevices());
                     for (Thing hmThing : getThing().getThings()) {
                         hmThing.getHandler().thingUpdated(hmThing);
                     }
@@ -304,14 +309,32 @@ public class HomematicBridgeHandler extends BaseBridgeHandler implements Homemat
      */
     @Override
     public void reloadAllDeviceValues() {
+        List<HmDevice> devices = getThingDevices();
+        for (HmDevice device : devices) {
+            logger.debug("Triggering values reload for device '{}'", device.getAddress());
+            for (HmChannel channel : device.getChannels()) {
+                channel.setInitialized(false);
+            }
+        }
+        gateway.loadDeviceValues(devices);
+        for (HmDevice device : devices) {
+            reloadDeviceValues(device);
+        }
+    }
+
+    /**
+     * Returns the Homematic devices of all things of this bridge.
+     */
+    private List<HmDevice> getThingDevices() {
+        List<HmDevice> devices = new ArrayList<HmDevice>();
         for (Thing hmThing : getThing().getThings()) {
             try {
-                HmDevice device = gateway.getDevice(UidUtils.getHomematicAddress(hmThing));
-                gateway.triggerDeviceValuesReload(device);
+                devices.add(gateway.getDevice(UidUtils.getHomematicAddress(hmThing)));
             } catch (HomematicClientException ex) {
                 logger.warn(ex.getMessage());
             }
         }
+        return devices;
     }
 
 }
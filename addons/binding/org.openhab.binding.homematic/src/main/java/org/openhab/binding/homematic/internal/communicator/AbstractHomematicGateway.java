@@ -13,14 +13,19 @@ import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -31,6 +36,7 @@ import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
 import org.openhab.binding.homematic.internal.communicator.client.BinRpcClient;
 import org.openhab.binding.homematic.internal.communicator.client.RpcClient;
+import org.openhab.binding.homematic.internal.communicator.client.SocketHandler;
 import org.openhab.binding.homematic.internal.communicator.client.TransferMode;
 import org.openhab.binding.homematic.internal.communicator.client.XmlRpcClient;
 import org.openhab.binding.homematic.internal.communicator.server.BinRpcServer;
@@ -75,6 +81,10 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     public static final double DEFAULT_DISABLE_DELAY = 2.0;
     private static final long CONNECTION_TRACKER_INTERVAL_SECONDS = 15;
     private static final String GATEWAY_POOL_NAME = "homematicGateway";
+    private static final String VALUES_POOL_NAME = "homematicValues";
+    private static final int MAX_CONCURRENT_VALUE_LOADS = SocketHandler.MAX_SOCKETS_PER_PORT;
+    private static final long ECHO_EVENT_TIMEOUT = 10000;
+    private static final int ECHO_EVENTS_PURGE_SIZE = 32;
 
     private Map<TransferMode, RpcClient> rpcClients = new HashMap<TransferMode, RpcClient>();
     private Map<TransferMode, RpcServer> rpcServers = new HashMap<TransferMode, RpcServer>();
@@ -84,13 +94,14 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
     private HomematicGatewayListener eventListener;
     private long lastEventTime = System.currentTimeMillis();
     private DelayedExecuter delayedExecutor = new DelayedExecuter();
-    private Set<HmDatapointInfo> echoEvents = Collections.synchronizedSet(new HashSet<HmDatapointInfo>());
+    private Map<HmDatapointInfo, Long> echoEvents = new ConcurrentHashMap<HmDatapointInfo, Long>();
     private ScheduledFuture<?> eventTrackerThread;
     private ScheduledFuture<?> connectionTrackerThread;
     private ScheduledFuture<?> reconnectThread;
-    private Map<String, HmDevice> devices = Collections.synchronizedMap(new HashMap<String, HmDevice>());
+    private Map<String, HmDevice> devices = new ConcurrentHashMap<String, HmDevice>();
     private Map<HmInterface, TransferMode> availableInterfaces = new TreeMap<HmInterface, TransferMode>();
     private static List<VirtualDatapointHandler> virtualDatapointHandlers = new ArrayList<VirtualDatapointHandler>();
+    private static Map<String, List<VirtualDatapointHandler>> virtualDatapointHandlersByName = new HashMap<String, List<VirtualDatapointHandler>>();
     private boolean cancelLoadAllMetadata;
 
     static {
@@ -105,6 +116,18 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         virtualDatapointHandlers.add(new InstallModeDurationVirtualDatapoint());
         virtualDatapointHandlers.add(new DeleteDeviceModeVirtualDatapointHandler());
         virtualDatapointHandlers.add(new DeleteDeviceVirtualDatapointHandler());
+
+        // dispatch table for sending datapoints
+        for (VirtualDatapointHandler vdph : virtualDatapointHandlers) {
+            for (String datapointName : vdph.getDatapointNames()) {
+                List<VirtualDatapointHandler> handlers = virtualDatapointHandlersByName.get(datapointName);
+                if (handlers == null) {
+                    handlers = new ArrayList<VirtualDatapointHandler>();
+                    virtualDatapointHandlersByName.put(datapointName, handlers);
+                }
+                handlers.add(vdph);
+            }
+        }
     }
 
     public AbstractHomematicGateway(String id, HomematicConfig config, HomematicGatewayListener eventListener) {
@@ -463,6 +486,60 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
         channel.setInitialized(true);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void loadDeviceValues(Collection<HmDevice> devices) {
+        final ConcurrentLinkedQueue<HmChannel> channels = new ConcurrentLinkedQueue<HmChannel>();
+        for (HmDevice device : devices) {
+            for (HmChannel channel : device.getChannels()) {
+                if (!channel.isInitialized()) {
+                    channels.add(channel);
+                }
+            }
+        }
+        if (channels.isEmpty()) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        int channelCount = channels.size();
+        ExecutorService executor = ThreadPoolManager.getPool(VALUES_POOL_NAME);
+        List<Future<?>> workers = new ArrayList<Future<?>>();
+        for (int i = 0; i < Math.min(MAX_CONCURRENT_VALUE_LOADS, channelCount); i++) {
+            workers.add(executor.submit(new Runnable() {
+
+                @Override
+                public void run() {
+                    HmChannel channel;
+                    while ((channel = channels.poll()) != null) {
+                        try {
+                            loadChannelValues(channel);
+                        } catch (IOException ex) {
+                            // the channel stays uninitialized and is loaded again by the thing handler
+                            logger.debug("Can't load values for channel {} of device '{}': {}", channel.getNumber(),
+                                    channel.getDevice().getAddress(), ex.getMessage());
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException ex) {
+                channels.clear();
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ex) {
+                logger.warn("Error loading channel values from gateway '{}': {}", id, ex.getMessage(), ex);
+            }
+        }
+        logger.debug("Loaded values of {} channels from gateway '{}' in {} ms", channelCount, id,
+                System.currentTimeMillis() - startTime);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -501,7 +578,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
             final boolean ignoreVirtualDatapoints) throws IOException, HomematicClientException {
         final HmDatapointInfo dpInfo = new HmDatapointInfo(dp);
         if (dp.isPressDatapoint() || (config.getGatewayInfo().isHomegear() && dp.isVariable())) {
-            echoEvents.add(dpInfo);
+            addEchoEvent(dpInfo, dpConfig.getDelay());
         }
         if (dp.isReadOnly()) {
             logger.warn("Datapoint is readOnly, it is not published to the gateway with id '{}': '{}'", id, dpInfo);
@@ -553,14 +630,42 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
      * Returns a VirtualDatapointHandler for the given datapoint if available.
      */
     private VirtualDatapointHandler getVirtualDatapointHandler(HmDatapoint dp, Object value) {
-        for (VirtualDatapointHandler vdph : virtualDatapointHandlers) {
-            if (vdph.canHandle(dp, value)) {
-                return vdph;
+        List<VirtualDatapointHandler> handlers = virtualDatapointHandlersByName.get(dp.getName());
+        if (handlers != null) {
+            for (VirtualDatapointHandler vdph : handlers) {
+                if (vdph.canHandle(dp, value)) {
+                    return vdph;
+                }
             }
         }
         return null;
     }
 
+    /**
+     * Remembers a datapoint whose event from the gateway has to be ignored. The entry expires if the event is not
+     * received within the delay of the datapoint plus the ECHO_EVENT_TIMEOUT.
+     */
+    private void addEchoEvent(HmDatapointInfo dpInfo, double delay) {
+        long now = System.currentTimeMillis();
+        if (echoEvents.size() >= ECHO_EVENTS_PURGE_SIZE) {
+            Iterator<Long> it = echoEvents.values().iterator();
+            while (it.hasNext()) {
+                if (it.next() < now) {
+                    it.remove();
+                }
+            }
+        }
+        echoEvents.put(dpInfo, now + (long) (delay * 1000) + ECHO_EVENT_TIMEOUT);
+    }
+
+    /**
+     * Returns true, if the event is the echo of a sent datapoint.
+     */
+    private boolean isEchoEvent(HmDatapointInfo dpInfo) {
+        Long expires = echoEvents.remove(dpInfo);
+        return expires != null && expires >= System.currentTimeMillis();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -571,7 +676,7 @@ public abstract class AbstractHomematicGateway implements RpcEventListener, Home
                 id);
         lastEventTime = System.currentTimeMillis();
 
-        if (echoEvents.remove(dpInfo)) {
+        if (isEchoEvent(dpInfo)) {
             logger.debug("Echo event detected, ignoring '{}'", dpInfo);
         } else {
             try {
@@ -9,6 +9,7 @@
 package org.openhab.binding.homematic.internal.communicator;
 
 import java.io.IOException;
+import java.util.Collection;
 
 import org.openhab.binding.homematic.internal.misc.HomematicClientException;
 import org.openhab.binding.homematic.internal.model.HmChannel;
@@ -59,6 +60,12 @@ public interface HomematicGateway {
      */
     public void loadChannelValues(HmChannel channel) throws IOException;
 
+    /**
+     * Loads all values into the uninitialized channels of the given devices, several channels are loaded
+     * concurrently.
+     */
+    public void loadDeviceValues(Collection<HmDevice> devices);
+
     /**
      * Prepares the device for reloading all values from the gateway.
      */
@@ -69,10 +69,11 @@ public class BinRpcClient extends RpcClient {
     }
 
     /**
-     * Sends a BIN-RPC message and parses the response to see if there was an error.
+     * Sends a BIN-RPC message and parses the response to see if there was an error. Messages are sent concurrently
+     * over the pooled sockets of the port.
      */
     @Override
-    protected synchronized Object[] sendMessage(int port, RpcRequest request) throws IOException {
+    protected Object[] sendMessage(int port, RpcRequest request) throws IOException {
         if (TRACE_ENABLED) {
             logger.trace("Client BinRpcRequest:\n{}", request);
         }
@@ -84,25 +85,39 @@ public class BinRpcClient extends RpcClient {
      */
     private Object[] sendMessage(int port, BinRpcMessage request, int socketRetryCounter) throws IOException {
         BinRpcMessage resp = null;
+        SocketInfo socketInfo = socketHandler.getSocket(port);
+        boolean released = false;
         try {
-            Socket socket = socketHandler.getSocket(port);
+            Socket socket = socketInfo.getSocket();
             socket.getOutputStream().write(request.createMessage());
             resp = new BinRpcMessage(socket.getInputStream(), false, config.getEncoding());
-            return new RpcResponseParser(request).parse(resp.getResponseData());
+            Object[] responseData = resp.getResponseData();
+            // the response has been read and decoded completely, the socket can be used by other requests
+            socketHandler.releaseSocket(port, socketInfo);
+            released = true;
+            return new RpcResponseParser(request).parse(responseData);
         } catch (UnknownRpcFailureException rpcEx) {
             // throw immediately, don't retry the message
             throw rpcEx;
         } catch (IOException ioEx) {
+            if (!released) {
+                socketHandler.closeSocket(port, socketInfo);
+                released = true;
+            }
             if ("init".equals(request.getMethodName()) || socketRetryCounter >= MAX_SOCKET_RETRY) {
                 throw ioEx;
             } else {
                 socketRetryCounter++;
                 logger.debug("BinRpcMessage socket failure, sending message again {}/{}", socketRetryCounter,
                         MAX_SOCKET_RETRY);
+                // the other pooled sockets are probably stale as well, e.g. after a restart of the CCU
                 socketHandler.removeSocket(port);
                 return sendMessage(port, request, socketRetryCounter);
             }
         } finally {
+            if (!released) {
+                socketHandler.closeSocket(port, socketInfo);
+            }
             if (TRACE_ENABLED) {
                 logger.trace("Client BinRpcResponse:\n{}", resp == null ? "null" : resp.toString());
             }
@@ -11,6 +11,8 @@ package org.openhab.binding.homematic.internal.communicator.client;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,14 +21,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Simple socket cache class.
+ * Simple socket pool class, holds up to {@link #MAX_SOCKETS_PER_PORT} sockets per port. A socket is used by one
+ * request at a time, requests on the same port are executed concurrently on different sockets.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class SocketHandler {
     private static final Logger logger = LoggerFactory.getLogger(SocketHandler.class);
+    public static final int MAX_SOCKETS_PER_PORT = 4;
 
-    private Map<Integer, SocketInfo> socketsPerPort = new HashMap<Integer, SocketInfo>();
+    private Map<Integer, PortSockets> socketsPerPort = new HashMap<Integer, PortSockets>();
     private HomematicConfig config;
 
     public SocketHandler(HomematicConfig config) {
@@ -34,40 +38,99 @@ public class SocketHandler {
     }
 
     /**
-     * Returns a socket for the given port, (re)creates it if required.
+     * Returns an idle socket for the given port, creates one if the pool is not exhausted or waits until one is
+     * released. The socket must be returned with {@link #releaseSocket(int, SocketInfo)} or
+     * {@link #closeSocket(int, SocketInfo)}.
      */
-    public Socket getSocket(int port) throws IOException {
-        SocketInfo socketInfo = socketsPerPort.get(port);
-        if (socketInfo == null) {
-            logger.trace("Creating new socket for port {}", port);
-            Socket socket = new Socket();
+    public SocketInfo getSocket(int port) throws IOException {
+        PortSockets portSockets = getPortSockets(port);
+        long timeout = config.getTimeout() * 1000L;
+        long deadline = System.currentTimeMillis() + timeout;
+        synchronized (portSockets) {
+            while (true) {
+                SocketInfo socketInfo = portSockets.idle.pollFirst();
+                if (socketInfo != null) {
+                    boolean isMaxAliveReached = System.currentTimeMillis()
+                            - socketInfo.getCreated() > (config.getSocketMaxAlive() * 1000);
+                    if (isMaxAliveReached || socketInfo.getGeneration() != portSockets.generation) {
+                        logger.debug("Max alive time reached for socket on port {}", port);
+                        portSockets.count--;
+                        closeSilent(socketInfo.getSocket());
+                        continue;
+                    }
+                    logger.trace("Returning socket for port {}", port);
+                    return socketInfo;
+                }
+                if (portSockets.count < MAX_SOCKETS_PER_PORT) {
+                    portSockets.count++;
+                    break;
+                }
+                long wait = deadline - System.currentTimeMillis();
+                if (wait <= 0) {
+                    throw new IOException("No free socket available for port " + port);
+                }
+                try {
+                    portSockets.wait(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for a socket for port " + port);
+                }
+            }
+        }
+
+        // connect outside of the lock, the slot is already reserved
+        logger.trace("Creating new socket for port {}", port);
+        Socket socket = new Socket();
+        try {
             socket.setSoTimeout(config.getTimeout() * 1000);
             socket.connect(new InetSocketAddress(config.getGatewayAddress(), port), socket.getSoTimeout());
-            socketInfo = new SocketInfo(socket);
-            socketsPerPort.put(port, socketInfo);
-        } else {
-            boolean isMaxAliveReached = System.currentTimeMillis()
-                    - socketInfo.getCreated() > (config.getSocketMaxAlive() * 1000);
-
-            if (isMaxAliveReached) {
-                logger.debug("Max alive time reached for socket on port {}", port);
-                removeSocket(port);
-                return getSocket(port);
+        } catch (IOException ex) {
+            closeSilent(socket);
+            freeSlot(portSockets);
+            throw ex;
+        }
+        synchronized (portSockets) {
+            return new SocketInfo(socket, portSockets.generation);
+        }
+    }
+
+    /**
+     * Returns a socket to the pool after a successful request.
+     */
+    public void releaseSocket(int port, SocketInfo socketInfo) {
+        PortSockets portSockets = getPortSockets(port);
+        synchronized (portSockets) {
+            if (socketInfo.getGeneration() == portSockets.generation) {
+                portSockets.idle.addFirst(socketInfo);
+                portSockets.notify();
+                return;
             }
-            logger.trace("Returning socket for port {}", port);
         }
-        return socketInfo.getSocket();
+        logger.trace("Closing Socket on port {}", port);
+        closeSilent(socketInfo.getSocket());
+        freeSlot(portSockets);
     }
 
     /**
-     * Removes the socket for the given port from the cache.
+     * Closes a socket which failed, instead of returning it to the pool.
+     */
+    public void closeSocket(int port, SocketInfo socketInfo) {
+        logger.trace("Closing Socket on port {}", port);
+        closeSilent(socketInfo.getSocket());
+        freeSlot(getPortSockets(port));
+    }
+
+    /**
+     * Removes all sockets for the given port from the pool, sockets currently in use are closed when they are
+     * released.
      */
     public void removeSocket(int port) {
-        SocketInfo socketInfo = socketsPerPort.get(port);
-        if (socketInfo != null) {
-            logger.trace("Closing Socket on port {}", port);
-            socketsPerPort.remove(port);
-            closeSilent(socketInfo.getSocket());
+        PortSockets portSockets;
+        synchronized (this) {
+            portSockets = socketsPerPort.get(port);
+        }
+        if (portSockets != null) {
+            closeIdle(port, portSockets);
         }
     }
 
@@ -75,11 +138,41 @@ public class SocketHandler {
      * Removes all cached sockets.
      */
     public void flush() {
-        synchronized (SocketHandler.class) {
-            Integer[] portsToRemove = socketsPerPort.keySet().toArray(new Integer[0]);
-            for (Integer key : portsToRemove) {
-                removeSocket(key);
+        Map<Integer, PortSockets> ports;
+        synchronized (this) {
+            ports = new HashMap<Integer, PortSockets>(socketsPerPort);
+        }
+        for (Map.Entry<Integer, PortSockets> entry : ports.entrySet()) {
+            closeIdle(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void closeIdle(int port, PortSockets portSockets) {
+        synchronized (portSockets) {
+            portSockets.generation++;
+            SocketInfo socketInfo;
+            while ((socketInfo = portSockets.idle.pollFirst()) != null) {
+                logger.trace("Closing Socket on port {}", port);
+                portSockets.count--;
+                closeSilent(socketInfo.getSocket());
             }
+            portSockets.notifyAll();
+        }
+    }
+
+    private synchronized PortSockets getPortSockets(int port) {
+        PortSockets portSockets = socketsPerPort.get(port);
+        if (portSockets == null) {
+            portSockets = new PortSockets();
+            socketsPerPort.put(port, portSockets);
+        }
+        return portSockets;
+    }
+
+    private void freeSlot(PortSockets portSockets) {
+        synchronized (portSockets) {
+            portSockets.count--;
+            portSockets.notify();
         }
     }
 
@@ -93,4 +186,13 @@ public class SocketHandler {
             // ignore
         }
     }
+
+    /**
+     * The sockets of one port.
+     */
+    private static class PortSockets {
+        private final Deque<SocketInfo> idle = new ArrayDeque<SocketInfo>();
+        private int count;
+        private int generation;
+    }
 }
@@ -18,10 +18,12 @@ import java.net.Socket;
 public class SocketInfo {
     private Socket socket;
     private long created;
+    private int generation;
 
-    public SocketInfo(Socket socket) {
+    public SocketInfo(Socket socket, int generation) {
         this.socket = socket;
         this.created = System.currentTimeMillis();
+        this.generation = generation;
     }
 
     /**
@@ -37,4 +39,12 @@ public class SocketInfo {
     public long getCreated() {
         return created;
     }
+
+    /**
+     * Returns the generation of the pool the socket has been created in, sockets of older generations are closed
+     * instead of being reused.
+     */
+    public int getGeneration() {
+        return generation;
+    }
 }
@@ -15,42 +15,61 @@ import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.text.ParseException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Handles BIN-RPC request and response messages to communicate with a Homematic gateway.
+ * <p>
+ * Messages are encoded into and decoded from a {@link ByteBuffer} with primitive reads and writes. The data of a
+ * received message is decoded on the first access, a system.multicall can also be decoded call by call with
+ * {@link #decodeMulticall(MulticallHandler)} without building the whole call list.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcMessage implements RpcRequest, RpcResponse {
     private final static Logger logger = LoggerFactory.getLogger(BinRpcMessage.class);
+    private static final int HEADER_LENGTH = 8;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int TYPE_INTEGER = 1;
+    private static final int TYPE_BOOLEAN = 2;
+    private static final int TYPE_STRING = 3;
+    private static final int TYPE_DOUBLE = 4;
+    private static final int TYPE_DATE = 5;
+    private static final int TYPE_ARRAY = 0x100;
+    private static final int TYPE_STRUCT = 0x101;
+    private static final double DOUBLE_SCALE = 1000000.0;
 
     public enum TYPE {
         REQUEST,
         RESPONSE;
     }
 
+    /**
+     * Handles the calls of a system.multicall while it is decoded.
+     */
+    public interface MulticallHandler {
+        public void handleCall(String methodName, Object[] params) throws IOException;
+    }
+
     private Object[] messageData;
-    private byte binRpcData[];
-    private int offset;
+    private ByteBuffer buffer;
+    private int dataOffset;
 
     private String methodName;
     private TYPE type;
     private int args;
-    private String encoding;
+    private Charset charset;
 
     public BinRpcMessage(String methodName, String encoding) {
         this(methodName, TYPE.REQUEST, encoding);
@@ -62,7 +81,7 @@ public class BinRpcMessage implements RpcRequest, RpcResponse {
     public BinRpcMessage(String methodName, TYPE type, String encoding) {
         this.methodName = methodName;
         this.type = type;
-        this.encoding = encoding;
+        this.charset = toCharset(encoding);
         createHeader();
     }
 
@@ -70,19 +89,27 @@ public class BinRpcMessage implements RpcRequest, RpcResponse {
      * Decodes a BIN-RPC message from the given InputStream.
      */
     public BinRpcMessage(InputStream is, boolean methodHeader, String encoding) throws IOException {
-        this.encoding = encoding;
-        byte sig[] = new byte[8];
-        int length = is.read(sig, 0, 4);
+        this.charset = toCharset(encoding);
+        byte sig[] = new byte[HEADER_LENGTH];
+        int length = readFully(is, sig, 0, 4);
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading signature");
         }
         validateBinXSignature(sig);
-        length = is.read(sig, 4, 4);
+        length = readFully(is, sig, 4, 4);
         if (length != 4) {
             throw new EOFException("Only " + length + " bytes received reading message length");
         }
-        int datasize = (new BigInteger(ArrayUtils.subarray(sig, 4, 8))).intValue();
-        byte[] message = ArrayUtils.addAll(sig, IOUtils.toByteArray(is, datasize));
+        int datasize = ((sig[4] & 0xFF) << 24) | ((sig[5] & 0xFF) << 16) | ((sig[6] & 0xFF) << 8) | (sig[7] & 0xFF);
+        if (datasize < 0) {
+            throw new IOException("Invalid message length " + datasize);
+        }
+        byte[] message = new byte[HEADER_LENGTH + datasize];
+        System.arraycopy(sig, 0, message, 0, HEADER_LENGTH);
+        length = readFully(is, message, HEADER_LENGTH, datasize);
+        if (length != datasize) {
+            throw new EOFException("Only " + length + " of " + datasize + " bytes received reading message");
+        }
         decodeMessage(message, methodHeader);
     }
 
@@ -96,51 +123,84 @@ public class BinRpcMessage implements RpcRequest, RpcResponse {
      * Decodes a BIN-RPC message from the given byte array.
      */
     public BinRpcMessage(byte[] message, boolean methodHeader, String encoding) throws IOException, ParseException {
-        this.encoding = encoding;
-        if (message.length < 8) {
+        this.charset = toCharset(encoding);
+        if (message.length < HEADER_LENGTH) {
             throw new EOFException("Only " + message.length + " bytes received");
         }
         validateBinXSignature(message);
         decodeMessage(message, methodHeader);
     }
 
-    private void decodeMessage(byte[] message, boolean methodHeader) throws IOException {
-        binRpcData = message;
+    private static Charset toCharset(String encoding) {
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalArgumentException ex) {
+            return Charset.defaultCharset();
+        }
+    }
 
-        offset = 8;
+    private static int readFully(InputStream is, byte[] data, int offset, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int count = is.read(data, offset + read, length - read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
+        }
+        return read;
+    }
 
-        if (methodHeader) {
-            methodName = readString();
-            readInt();
+    private void decodeMessage(byte[] message, boolean methodHeader) throws IOException {
+        buffer = ByteBuffer.wrap(message);
+        buffer.position(HEADER_LENGTH);
+        try {
+            if (methodHeader) {
+                methodName = readString();
+                // number of arguments
+                buffer.getInt();
+            }
+        } catch (RuntimeException ex) {
+            throw new IOException("Invalid BIN-RPC message header: " + ex.getMessage(), ex);
         }
-        generateResponseData();
+        dataOffset = buffer.position();
+        buffer.position(buffer.limit());
     }
 
     public void setType(TYPE type) {
-        binRpcData[3] = type == TYPE.RESPONSE ? (byte) 1 : (byte) 0;
+        buffer.put(3, type == TYPE.RESPONSE ? (byte) 1 : (byte) 0);
     }
 
     private void generateResponseData() throws IOException {
-        offset = 8 + (methodName != null ? methodName.length() + 8 : 0);
-        List<Object> values = new ArrayList<Object>();
-        while (offset < binRpcData.length) {
-            values.add(readRpcValue());
+        ByteBuffer data = buffer.duplicate();
+        data.position(dataOffset);
+        data.limit(buffer.limit());
+        Object[] values = new Object[4];
+        int count = 0;
+        try {
+            while (data.hasRemaining()) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count++] = readRpcValue(data);
+            }
+        } catch (RuntimeException ex) {
+            throw new IOException("Invalid BIN-RPC message: " + ex.getMessage(), ex);
         }
-        messageData = values.toArray();
-        values.clear();
+        messageData = Arrays.copyOf(values, count);
     }
 
     private void createHeader() {
-        binRpcData = new byte[256];
-        addString("Bin ");
+        buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+        buffer.put((byte) 'B').put((byte) 'i').put((byte) 'n').put((byte) 0);
         setType(type);
-        addInt(0); // placeholder content length
+        buffer.putInt(0); // placeholder content length
         if (methodName != null) {
-            addInt(methodName.length());
             addString(methodName);
-            addInt(0); // placeholder arguments
+            buffer.putInt(0); // placeholder arguments
         }
-        setInt(4, offset - 8);
+        dataOffset = buffer.position();
+        buffer.putInt(4, buffer.position() - HEADER_LENGTH);
     }
 
     /**
@@ -149,11 +209,12 @@ public class BinRpcMessage implements RpcRequest, RpcResponse {
     @Override
     public void addArg(Object argument) {
         addObject(argument);
-        setInt(4, offset - 8);
+        buffer.putInt(4, buffer.position() - HEADER_LENGTH);
 
         if (methodName != null) {
-            setInt(12 + methodName.length(), ++args);
+            buffer.putInt(dataOffset - 4, ++args);
         }
+        messageData = null;
     }
 
     public int getArgCount() {
@@ -171,100 +232,157 @@ public class BinRpcMessage implements RpcRequest, RpcResponse {
     @Override
     public byte[] createMessage() {
         trimBinRpcData();
-        return binRpcData;
+        return buffer.array();
     }
 
     private void trimBinRpcData() {
-        byte[] trimmed = new byte[offset];
-        System.arraycopy(binRpcData, 0, trimmed, 0, offset);
-        binRpcData = trimmed;
+        int length = buffer.position() > 0 ? buffer.position() : buffer.limit();
+        if (buffer.array().length != length) {
+            buffer = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), length));
+            buffer.position(length);
+        }
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Object[] getResponseData() {
+    public Object[] getResponseData() throws IOException {
+        if (messageData == null) {
+            generateResponseData();
+        }
         return messageData;
     }
 
+    /**
+     * Decodes the calls of a received system.multicall one after the other and hands them over to the handler,
+     * without decoding the complete call list first.
+     */
+    public void decodeMulticall(MulticallHandler handler) throws IOException {
+        ByteBuffer data = buffer.duplicate();
+        data.position(dataOffset);
+        data.limit(buffer.limit());
+        try {
+            if (!data.hasRemaining()) {
+                return;
+            }
+            int type = data.getInt();
+            if (type != TYPE_ARRAY) {
+                throw new IOException("Multicall data is not an array but type " + type);
+            }
+            int calls = data.getInt();
+            while (calls-- > 0) {
+                type = data.getInt();
+                if (type != TYPE_STRUCT) {
+                    throw new IOException("Multicall entry is not a struct but type " + type);
+                }
+                int fields = data.getInt();
+                String callMethodName = null;
+                Object[] params = null;
+                while (fields-- > 0) {
+                    String name = readString(data);
+                    Object value = readRpcValue(data);
+                    if ("methodName".equals(name)) {
+                        callMethodName = String.valueOf(value);
+                    } else if ("params".equals(name) && value instanceof Object[]) {
+                        params = (Object[]) value;
+                    }
+                }
+                handler.handleCall(callMethodName, params);
+            }
+        } catch (RuntimeException ex) {
+            throw new IOException("Invalid BIN-RPC multicall: " + ex.getMessage(), ex);
+        }
+    }
+
     // read rpc values
-    private int readInt() {
-        byte bi[] = new byte[4];
-        System.arraycopy(binRpcData, offset, bi, 0, 4);
-        offset += 4;
-        return (new BigInteger(bi)).intValue();
+    private String readString() {
+        return readString(buffer);
     }
 
-    private String readString() throws UnsupportedEncodingException {
-        int len = readInt();
-        offset += len;
-        return new String(binRpcData, offset - len, len, encoding);
+    private String readString(ByteBuffer data) {
+        int len = data.getInt();
+        int position = data.position();
+        data.position(position + len);
+        return new String(data.array(), data.arrayOffset() + position, len, charset);
     }
 
-    private Object readRpcValue() throws IOException {
-        int type = readInt();
+    private Object readRpcValue(ByteBuffer data) throws IOException {
+        int type = data.getInt();
         switch (type) {
-            case 1:
-                return new Integer(readInt());
-            case 2:
-                return binRpcData[offset++] != 0 ? Boolean.TRUE : Boolean.FALSE;
-            case 3:
-                return readString();
-            case 4:
-                int mantissa = readInt();
-                int exponent = readInt();
-                BigDecimal bd = new BigDecimal((double) mantissa / (double) (1 << 30) * Math.pow(2, exponent));
-                return bd.setScale(6, RoundingMode.HALF_DOWN).doubleValue();
-            case 5:
-                return new Date(readInt() * 1000);
-            case 0x100:
-                // Array
-                int numElements = readInt();
-                Collection<Object> array = new ArrayList<Object>();
-                while (numElements-- > 0) {
-                    array.add(readRpcValue());
+            case TYPE_INTEGER:
+                return Integer.valueOf(data.getInt());
+            case TYPE_BOOLEAN:
+                return data.get() != 0 ? Boolean.TRUE : Boolean.FALSE;
+            case TYPE_STRING:
+                return readString(data);
+            case TYPE_DOUBLE:
+                int mantissa = data.getInt();
+                int exponent = data.getInt();
+                return decodeDouble(mantissa, exponent);
+            case TYPE_DATE:
+                return new Date(data.getInt() * 1000L);
+            case TYPE_ARRAY:
+                int numElements = data.getInt();
+                Object[] array = new Object[numElements];
+                for (int i = 0; i < numElements; i++) {
+                    array[i] = readRpcValue(data);
                 }
-                return array.toArray();
-            case 0x101:
-                // Struct
-                numElements = readInt();
-                Map<String, Object> struct = new TreeMap<String, Object>();
+                return array;
+            case TYPE_STRUCT:
+                numElements = data.getInt();
+                Map<String, Object> struct = new HashMap<String, Object>(numElements * 4 / 3 + 1);
                 while (numElements-- > 0) {
-                    String name = readString();
-                    struct.put(name, readRpcValue());
+                    String name = readString(data);
+                    struct.put(name, readRpcValue(data));
                 }
                 return struct;
 
             default:
-                for (int i = 0; i < binRpcData.length; i++) {
-                    logger.info(Integer.toHexString(binRpcData[i]) + " " + (char) binRpcData[i]);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Unknown data type {} at offset {} in message {}", type, data.position() - 4,
+                            Arrays.toString(Arrays.copyOf(data.array(), data.limit())));
                 }
                 throw new IOException("Unknown data type " + type);
         }
     }
 
-    private void setInt(int position, int value) {
-        int temp = offset;
-        offset = position;
-        addInt(value);
-        offset = temp;
+    /**
+     * Decodes a BIN-RPC double and rounds it to six decimal places (half down). The mantissa has at most 31
+     * significant bits, so the value multiplied by 10^6 is exact and can be rounded without BigDecimal.
+     */
+    private static double decodeDouble(int mantissa, int exponent) {
+        double value = Math.scalb((double) mantissa, exponent - 30);
+        double scaled = Math.abs(value) * DOUBLE_SCALE;
+        if (Double.isInfinite(scaled) || scaled >= 0x1p52) {
+            return value;
+        }
+        double rounded = Math.floor(scaled);
+        if (scaled - rounded > 0.5) {
+            rounded++;
+        }
+        rounded /= DOUBLE_SCALE;
+        return value < 0 && rounded != 0 ? -rounded : rounded;
     }
 
-    private void addByte(byte b) {
-        if (offset == binRpcData.length) {
-            byte newdata[] = new byte[binRpcData.length * 2];
-            System.arraycopy(binRpcData, 0, newdata, 0, binRpcData.length);
-            binRpcData = newdata;
+    private void ensureCapacity(int length) {
+        if (buffer.remaining() < length) {
+            int capacity = Math.max(buffer.capacity() * 2, buffer.position() + length);
+            ByteBuffer newBuffer = ByteBuffer.allocate(capacity);
+            buffer.flip();
+            newBuffer.put(buffer);
+            buffer = newBuffer;
         }
-        binRpcData[offset++] = b;
+    }
+
+    private void addByte(byte b) {
+        ensureCapacity(1);
+        buffer.put(b);
     }
 
     private void addInt(int value) {
-        addByte((byte) (value >> 24));
-        addByte((byte) (value >> 16));
-        addByte((byte) (value >> 8));
-        addByte((byte) (value));
+        ensureCapacity(4);
+        buffer.putInt(value);
     }
 
     private void addDouble(double value) {
@@ -289,16 +407,14 @@ public class BinRpcMessage implements RpcRequest, RpcResponse {
         addInt(exp);
     }
 
+    /**
+     * Adds the length of the encoded string followed by its bytes.
+     */
     private void addString(String string) {
-        byte sd[];
-        try {
-            sd = string.getBytes(encoding);
-        } catch (UnsupportedEncodingException use) {
-            sd = string.getBytes();
-        }
-        for (byte ch : sd) {
-            addByte(ch);
-        }
+        byte sd[] = string.getBytes(charset);
+        ensureCapacity(4 + sd.length);
+        buffer.putInt(sd.length);
+        buffer.put(sd);
     }
 
     private void addList(Collection<?> collection) {
@@ -309,46 +425,42 @@ public class BinRpcMessage implements RpcRequest, RpcResponse {
 
     private void addObject(Object object) {
         if (object.getClass() == String.class) {
-            addInt(3);
-            String string = (String) object;
-            addInt(string.length());
-            addString(string);
+            addInt(TYPE_STRING);
+            addString((String) object);
         } else if (object.getClass() == Boolean.class) {
-            addInt(2);
+            addInt(TYPE_BOOLEAN);
             addByte(((Boolean) object).booleanValue() ? (byte) 1 : (byte) 0);
         } else if (object.getClass() == Integer.class) {
-            addInt(1);
+            addInt(TYPE_INTEGER);
             addInt(((Integer) object).intValue());
         } else if (object.getClass() == Double.class) {
-            addInt(4);
+            addInt(TYPE_DOUBLE);
             addDouble(((Double) object).doubleValue());
         } else if (object.getClass() == Float.class) {
-            addInt(4);
+            addInt(TYPE_DOUBLE);
             BigDecimal bd = new BigDecimal((Float) object);
             addDouble(bd.setScale(6, RoundingMode.HALF_DOWN).doubleValue());
         } else if (object.getClass() == BigDecimal.class) {
-            addInt(4);
+            addInt(TYPE_DOUBLE);
             addDouble(((BigDecimal) object).setScale(6, RoundingMode.HALF_DOWN).doubleValue());
         } else if (object.getClass() == BigInteger.class) {
-            addInt(4);
+            addInt(TYPE_DOUBLE);
             addDouble(((BigInteger) object).doubleValue());
         } else if (object.getClass() == Date.class) {
-            addInt(5);
-            addInt((int) ((Date) object).getTime() / 1000);
+            addInt(TYPE_DATE);
+            addInt((int) (((Date) object).getTime() / 1000));
         } else if (object instanceof List<?>) {
             Collection<?> list = (Collection<?>) object;
-            addInt(0x100);
+            addInt(TYPE_ARRAY);
             addInt(list.size());
             addList(list);
         } else if (object instanceof Map<?, ?>) {
             Map<?, ?> map = (Map<?, ?>) object;
-            addInt(0x101);
+            addInt(TYPE_STRUCT);
             addInt(map.size());
             for (Map.Entry<?, ?> entry : map.entrySet()) {
-                String key = (String) entry.getKey();
-                addInt(key.length());
-                addString(key);
-                addList(Collections.singleton(entry.getValue()));
+                addString((String) entry.getKey());
+                addObject(entry.getValue());
             }
         }
     }
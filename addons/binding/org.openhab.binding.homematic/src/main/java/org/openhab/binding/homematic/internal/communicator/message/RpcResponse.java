@@ -8,6 +8,8 @@
  */
 package org.openhab.binding.homematic.internal.communicator.message;
 
+import java.io.IOException;
+
 /**
  * A RPC response definition for reveiving data from the Homematic server.
  *
@@ -22,7 +24,9 @@ public interface RpcResponse {
 
     /**
      * Returns the decoded data.
+     *
+     * @throws IOException if the data of the message is malformed
      */
-    public Object[] getResponseData();
+    public Object[] getResponseData() throws IOException;
 
 }
@@ -10,12 +10,10 @@ package org.openhab.binding.homematic.internal.communicator.server;
 
 import static org.openhab.binding.homematic.internal.misc.HomematicConstants.*;
 
-import java.io.EOFException;
 import java.io.IOException;
-import java.net.Socket;
+import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.openhab.binding.homematic.internal.communicator.message.BinRpcMessage;
 import org.openhab.binding.homematic.internal.communicator.parser.DeleteDevicesParser;
@@ -26,11 +24,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Reads a BIN-RPC message from the socket and handles the method call.
+ * Decodes a BIN-RPC message received from the Homematic gateway and handles the method call.
  *
  * @author Gerhard Riegler - Initial contribution
  */
-public class BinRpcCallbackHandler implements Runnable {
+public class BinRpcCallbackHandler {
     private static final Logger logger = LoggerFactory.getLogger(BinRpcCallbackHandler.class);
     private static final boolean TRACE_ENABLED = logger.isTraceEnabled();
 
@@ -39,41 +37,44 @@ public class BinRpcCallbackHandler implements Runnable {
     private static final byte BIN_EMPTY_EVENT_LIST[] = { 'B', 'i', 'n', 1, 0, 0, 0, 21, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0,
             3, 0, 0, 0, 5, 'e', 'v', 'e', 'n', 't' };
 
-    private Socket socket;
     private RpcEventListener listener;
     private String encoding;
 
-    public BinRpcCallbackHandler(Socket socket, RpcEventListener listener, String encoding) {
-        this.socket = socket;
+    public BinRpcCallbackHandler(RpcEventListener listener, String encoding) {
         this.listener = listener;
         this.encoding = encoding;
     }
 
     /**
-     * Reads the event from the Homematic gateway and handles the method call.
+     * Decodes the complete message from the Homematic gateway, handles the method call and returns the response.
      */
-    @Override
-    public void run() {
+    public byte[] handleMessage(byte[] data) throws IOException {
+        BinRpcMessage message;
         try {
-            BinRpcMessage message = new BinRpcMessage(socket.getInputStream(), true, encoding);
-            if (TRACE_ENABLED) {
-                logger.trace("Event BinRpcMessage: {}", message.toString());
-            }
-            byte[] returnValue = handleMethodCall(message.getMethodName(), message.getResponseData());
-            if (returnValue != null) {
-                socket.getOutputStream().write(returnValue);
-            }
-        } catch (EOFException eof) {
-            // ignore
-        } catch (Exception e) {
-            logger.error(e.getMessage(), e);
-        } finally {
-            try {
-                socket.close();
-            } catch (IOException ex) {
-                // ignore
-            }
+            message = new BinRpcMessage(data, true, encoding);
+        } catch (ParseException ex) {
+            throw new IOException(ex.getMessage(), ex);
         }
+        if (TRACE_ENABLED) {
+            logger.trace("Event BinRpcMessage: {}", message.toString());
+        }
+        if (RPC_METHODNAME_SYSTEM_MULTICALL.equals(message.getMethodName())) {
+            return handleMulticall(message);
+        }
+        return handleMethodCall(message.getMethodName(), message.getResponseData());
+    }
+
+    /**
+     * Handles the calls of a system.multicall while they are decoded from the message.
+     */
+    private byte[] handleMulticall(BinRpcMessage message) throws IOException {
+        message.decodeMulticall(new BinRpcMessage.MulticallHandler() {
+            @Override
+            public void handleCall(String methodName, Object[] params) throws IOException {
+                handleMethodCall(methodName, params);
+            }
+        });
+        return BIN_EMPTY_EVENT_LIST;
     }
 
     /**
@@ -90,14 +91,6 @@ public class BinRpcCallbackHandler implements Runnable {
             return handleNewDevice(responseData);
         } else if (RPC_METHODNAME_SYSTEM_LISTMETHODS.equals(methodName)) {
             return handleListMethods();
-        } else if (RPC_METHODNAME_SYSTEM_MULTICALL.equals(methodName)) {
-            for (Object o : (Object[]) responseData[0]) {
-                Map<?, ?> call = (Map<?, ?>) o;
-                String method = call.get("methodName").toString();
-                Object[] data = (Object[]) call.get("params");
-                handleMethodCall(method, data);
-            }
-            return BIN_EMPTY_EVENT_LIST;
         } else {
             logger.warn("Unknown method called by Homematic gateway: " + methodName);
             return BIN_EMPTY_EVENT_LIST;
@@ -8,64 +8,280 @@
  */
 package org.openhab.binding.homematic.internal.communicator.server;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.binding.homematic.internal.common.HomematicConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Waits for a message from the Homematic gateway and starts the RpcCallbackHandler to handle the message.
+ * Receives the messages from the Homematic gateway on non-blocking channels. A message is framed with the length from
+ * its header and handed over to the BinRpcCallbackHandler on a thread pool. The next message of a connection is read
+ * after the response to the previous one has been sent. Connections which are idle for five minutes are closed, the
+ * gateway opens a new one for its next message.
  *
  * @author Gerhard Riegler - Initial contribution
  */
 public class BinRpcNetworkService implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(BinRpcNetworkService.class);
     private static final String RPC_POOL_NAME = "homematicRpc";
-    private ServerSocket serverSocket;
-    private boolean accept = true;
-    private RpcEventListener listener;
-    private HomematicConfig config;
+    private static final int HEADER_LENGTH = 8;
+    private static final int MAX_MESSAGE_LENGTH = 16 * 1024 * 1024;
+    private static final long CONNECTION_IDLE_TIMEOUT = 5 * 60 * 1000;
+    private static final long IDLE_CHECK_INTERVAL = 10 * 1000;
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private volatile boolean accept = true;
+    private BinRpcCallbackHandler callbackHandler;
+    private Queue<Connection> pendingConnections = new ConcurrentLinkedQueue<Connection>();
 
     /**
-     * Creates the socket for listening to events from the Homematic gateway.
+     * Creates the channel for listening to events from the Homematic gateway.
      */
     public BinRpcNetworkService(RpcEventListener listener, HomematicConfig config) throws IOException {
-        this.listener = listener;
-        this.config = config;
+        callbackHandler = new BinRpcCallbackHandler(listener, config.getEncoding());
 
-        serverSocket = new ServerSocket();
-        serverSocket.setReuseAddress(true);
-        serverSocket.bind(new InetSocketAddress(config.getBinCallbackPort()));
+        selector = Selector.open();
+        try {
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.socket().setReuseAddress(true);
+            serverChannel.bind(new InetSocketAddress(config.getBinCallbackPort()));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException ex) {
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+            throw ex;
+        }
     }
 
     /**
-     * Listening for events and starts the callbackHandler if a event received.
+     * Listening for events and hands over every received message to the callbackHandler.
      */
     @Override
     public void run() {
-        while (accept) {
+        long nextIdleCheck = System.currentTimeMillis() + IDLE_CHECK_INTERVAL;
+        try {
+            while (accept) {
+                try {
+                    long now = System.currentTimeMillis();
+                    if (now >= nextIdleCheck) {
+                        closeIdleConnections(now);
+                        nextIdleCheck = now + IDLE_CHECK_INTERVAL;
+                    }
+                    selector.select(Math.max(1, nextIdleCheck - now));
+                    processSelectedKeys();
+                } catch (IOException ex) {
+                    logger.debug("Error in BIN-RPC server: {}", ex.getMessage());
+                }
+            }
+        } finally {
+            // the selector is closed by this thread only, after all connections are closed
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    private void processSelectedKeys() throws IOException {
+        Connection connection;
+        while ((connection = pendingConnections.poll()) != null) {
+            connection.resume();
+        }
+        Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+            SelectionKey key = it.next();
+            it.remove();
             try {
-                Socket cs = serverSocket.accept();
-                BinRpcCallbackHandler rpcHandler = new BinRpcCallbackHandler(cs, listener, config.getEncoding());
-                ThreadPoolManager.getPool(RPC_POOL_NAME).execute(rpcHandler);
-            } catch (IOException ex) {
-                // ignore
+                if (key.isAcceptable()) {
+                    acceptConnection();
+                } else {
+                    connection = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        connection.read();
+                    } else if (key.isWritable()) {
+                        connection.write();
+                    }
+                }
+            } catch (CancelledKeyException ex) {
+                // connection closed in the meantime
+            }
+        }
+    }
+
+    /**
+     * Closes the connections which neither transferred data nor had a message handled within the idle timeout.
+     */
+    private void closeIdleConnections(long now) {
+        for (SelectionKey key : selector.keys()) {
+            Connection connection = (Connection) key.attachment();
+            if (connection != null && !connection.handling
+                    && now - connection.lastActivity > CONNECTION_IDLE_TIMEOUT) {
+                logger.debug("Closing idle BIN-RPC connection from {}",
+                        connection.channel.socket().getRemoteSocketAddress());
+                closeQuietly(key);
             }
         }
     }
 
+    private void acceptConnection() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
     /**
-     * Stops the listening.
+     * Stops the listening, the connections are closed by the listening thread.
      */
     public void shutdown() {
         accept = false;
+        closeQuietly(serverChannel);
+        selector.wakeup();
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        closeQuietly(key.channel());
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
         try {
-            serverSocket.close();
+            closeable.close();
         } catch (IOException ioe) {
             // ignore
         }
     }
 
+    /**
+     * A connection from the Homematic gateway with the message currently read and the response currently written.
+     */
+    private class Connection implements Runnable {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        private ByteBuffer message;
+        private volatile ByteBuffer response;
+        private volatile boolean failed;
+        // only accessed by the listening thread
+        private boolean handling;
+        private long lastActivity = System.currentTimeMillis();
+
+        public Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads the available data, the header first and then the body with the length from the header.
+         */
+        private void read() {
+            try {
+                lastActivity = System.currentTimeMillis();
+                if (message == null) {
+                    if (channel.read(header) < 0) {
+                        closeQuietly(key);
+                        return;
+                    }
+                    if (header.hasRemaining()) {
+                        return;
+                    }
+                    int length = header.getInt(4);
+                    if (header.get(0) != 'B' || header.get(1) != 'i' || header.get(2) != 'n' || length < 0
+                            || length > MAX_MESSAGE_LENGTH) {
+                        logger.warn("Invalid BIN-RPC message header received from {}, closing connection",
+                                channel.socket().getRemoteSocketAddress());
+                        closeQuietly(key);
+                        return;
+                    }
+                    message = ByteBuffer.allocate(HEADER_LENGTH + length);
+                    header.flip();
+                    message.put(header);
+                    header.clear();
+                }
+                if (message.hasRemaining() && channel.read(message) < 0) {
+                    closeQuietly(key);
+                    return;
+                }
+                if (!message.hasRemaining()) {
+                    // no reads until the response is sent
+                    key.interestOps(0);
+                    handling = true;
+                    ThreadPoolManager.getPool(RPC_POOL_NAME).execute(this);
+                }
+            } catch (IOException ex) {
+                logger.debug("Error reading BIN-RPC message: {}", ex.getMessage());
+                closeQuietly(key);
+            }
+        }
+
+        /**
+         * Handles the complete message on the thread pool.
+         */
+        @Override
+        public void run() {
+            byte[] data = message.array();
+            message = null;
+            try {
+                byte[] result = callbackHandler.handleMessage(data);
+                if (result != null) {
+                    response = ByteBuffer.wrap(result);
+                }
+            } catch (Exception ex) {
+                logger.error(ex.getMessage(), ex);
+                failed = true;
+            }
+            pendingConnections.add(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Continues with the response or the next message after the message has been handled.
+         */
+        private void resume() {
+            handling = false;
+            lastActivity = System.currentTimeMillis();
+            if (failed || !key.isValid()) {
+                closeQuietly(key);
+            } else if (response != null) {
+                key.interestOps(SelectionKey.OP_WRITE);
+                write();
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void write() {
+            try {
+                lastActivity = System.currentTimeMillis();
+                channel.write(response);
+                if (!response.hasRemaining()) {
+                    response = null;
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            } catch (IOException ex) {
+                logger.debug("Error writing BIN-RPC response: {}", ex.getMessage());
+                closeQuietly(key);
+            }
+        }
+    }
+
 }
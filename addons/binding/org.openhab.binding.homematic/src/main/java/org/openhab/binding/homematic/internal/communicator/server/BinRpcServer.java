@@ -24,6 +24,7 @@ public class BinRpcServer implements RpcServer {
 
     private Thread networkServiceThread;
     private BinRpcNetworkService networkService;
+    private OrderedEventDispatcher eventDispatcher;
     private RpcEventListener listener;
     private HomematicConfig config;
 
@@ -39,7 +40,8 @@ public class BinRpcServer implements RpcServer {
     public void start() throws IOException {
         logger.debug("Initializing BIN-RPC server at port {}", config.getBinCallbackPort());
 
-        networkService = new BinRpcNetworkService(listener, config);
+        eventDispatcher = new OrderedEventDispatcher(listener);
+        networkService = new BinRpcNetworkService(eventDispatcher, config);
         networkServiceThread = new Thread(networkService);
         networkServiceThread.setName("HomematicRpcServer");
         networkServiceThread.start();
@@ -61,6 +63,8 @@ public class BinRpcServer implements RpcServer {
             }
             networkService.shutdown();
             networkService = null;
+            eventDispatcher.dispose();
+            eventDispatcher = null;
         }
     }
 }
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.homematic.internal.communicator.server;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.openhab.binding.homematic.internal.model.HmDatapointInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Passes the events received from the Homematic gateway to the listener on a thread pool. Events of the same device
+ * are passed one after the other in the order they were received, events of different devices in parallel. Added and
+ * deleted devices are passed in order as well. After {@link #dispose()}, queued and new events are dropped.
+ *
+ * @author agent - Initial contribution
+ */
+public class OrderedEventDispatcher implements RpcEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(OrderedEventDispatcher.class);
+    private static final String EVENT_POOL_NAME = "homematicEvents";
+    private static final String DEVICES_KEY = "";
+    private static final int MAX_EVENTS_PER_RUN = 32;
+
+    private RpcEventListener listener;
+    private final Map<String, EventQueue> queues = new HashMap<String, EventQueue>();
+    private volatile boolean disposed;
+
+    public OrderedEventDispatcher(RpcEventListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void eventReceived(final HmDatapointInfo dpInfo, final Object newValue) {
+        dispatch(dpInfo.getAddress(), new Runnable() {
+
+            @Override
+            public void run() {
+                listener.eventReceived(dpInfo, newValue);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void newDevices(final List<String> adresses) {
+        dispatch(DEVICES_KEY, new Runnable() {
+
+            @Override
+            public void run() {
+                listener.newDevices(adresses);
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void deleteDevices(final List<String> addresses) {
+        dispatch(DEVICES_KEY, new Runnable() {
+
+            @Override
+            public void run() {
+                listener.deleteDevices(addresses);
+            }
+        });
+    }
+
+    /**
+     * Drops the queued events, no more events are passed to the listener. An event which is currently passed is not
+     * interrupted.
+     */
+    public void dispose() {
+        synchronized (queues) {
+            disposed = true;
+            for (EventQueue queue : queues.values()) {
+                queue.tasks.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds the task to the queue of the key and schedules the queue if it is not running already.
+     */
+    private void dispatch(String key, Runnable task) {
+        EventQueue queue;
+        synchronized (queues) {
+            if (disposed) {
+                return;
+            }
+            queue = queues.get(key);
+            if (queue != null) {
+                queue.tasks.add(task);
+                return;
+            }
+            queue = new EventQueue(key);
+            queue.tasks.add(task);
+            queues.put(key, queue);
+        }
+        ThreadPoolManager.getPool(EVENT_POOL_NAME).execute(queue);
+    }
+
+    /**
+     * The pending tasks of one key, executed by one thread at a time.
+     */
+    private class EventQueue implements Runnable {
+        private final String key;
+        private final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+
+        public EventQueue(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            for (int i = 0; i < MAX_EVENTS_PER_RUN; i++) {
+                Runnable task;
+                synchronized (queues) {
+                    task = disposed ? null : tasks.poll();
+                    if (task == null) {
+                        queues.remove(key);
+                        return;
+                    }
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException ex) {
+                    logger.error(ex.getMessage(), ex);
+                }
+            }
+            // give the queues of other devices a chance
+            ThreadPoolManager.getPool(EVENT_POOL_NAME).execute(this);
+        }
+    }
+}
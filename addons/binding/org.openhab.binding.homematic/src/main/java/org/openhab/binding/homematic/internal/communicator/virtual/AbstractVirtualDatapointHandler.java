@@ -28,6 +28,14 @@ import org.slf4j.LoggerFactory;
 public abstract class AbstractVirtualDatapointHandler implements VirtualDatapointHandler {
     private static final Logger logger = LoggerFactory.getLogger(AbstractVirtualDatapointHandler.class);
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDatapointNames() {
+        return new String[0];
+    }
+
     /**
      * {@inheritDoc}
      */
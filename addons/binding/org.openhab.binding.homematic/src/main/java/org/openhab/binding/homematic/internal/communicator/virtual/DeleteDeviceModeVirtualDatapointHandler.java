@@ -47,6 +47,14 @@ public class DeleteDeviceModeVirtualDatapointHandler extends AbstractVirtualData
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDatapointNames() {
+        return new String[] { VIRTUAL_DATAPOINT_NAME_DELETE_DEVICE_MODE };
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -43,6 +43,14 @@ public class DeleteDeviceVirtualDatapointHandler extends AbstractVirtualDatapoin
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDatapointNames() {
+        return new String[] { VIRTUAL_DATAPOINT_NAME_DELETE_DEVICE };
+    }
+
     /**
      * {@inheritDoc}
      */
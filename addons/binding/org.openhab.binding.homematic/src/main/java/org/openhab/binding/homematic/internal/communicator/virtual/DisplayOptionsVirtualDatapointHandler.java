@@ -42,6 +42,14 @@ public class DisplayOptionsVirtualDatapointHandler extends AbstractVirtualDatapo
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDatapointNames() {
+        return new String[] { VIRTUAL_DATAPOINT_NAME_DISPLAY_OPTIONS };
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -38,6 +38,14 @@ public class InstallModeDurationVirtualDatapoint extends AbstractVirtualDatapoin
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDatapointNames() {
+        return new String[] { VIRTUAL_DATAPOINT_NAME_INSTALL_MODE_DURATION };
+    }
+
     /**
      * {@inheritDoc}
      */
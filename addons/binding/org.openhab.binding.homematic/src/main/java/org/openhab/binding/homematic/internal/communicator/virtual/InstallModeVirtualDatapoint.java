@@ -39,6 +39,14 @@ public class InstallModeVirtualDatapoint extends AbstractVirtualDatapointHandler
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDatapointNames() {
+        return new String[] { VIRTUAL_DATAPOINT_NAME_INSTALL_MODE };
+    }
+
     /**
      * {@inheritDoc}
      */
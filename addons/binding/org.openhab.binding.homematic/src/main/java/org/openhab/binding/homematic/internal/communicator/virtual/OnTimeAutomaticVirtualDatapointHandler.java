@@ -54,6 +54,14 @@ public class OnTimeAutomaticVirtualDatapointHandler extends AbstractVirtualDatap
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDatapointNames() {
+        return new String[] { VIRTUAL_DATAPOINT_NAME_ON_TIME_AUTOMATIC, DATAPOINT_NAME_LEVEL, DATAPOINT_NAME_STATE };
+    }
+
     /**
      * {@inheritDoc}
      */
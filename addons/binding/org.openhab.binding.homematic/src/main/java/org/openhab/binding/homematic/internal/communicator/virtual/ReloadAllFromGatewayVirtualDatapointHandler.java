@@ -39,6 +39,14 @@ public class ReloadAllFromGatewayVirtualDatapointHandler extends AbstractVirtual
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDatapointNames() {
+        return new String[] { VIRTUAL_DATAPOINT_NAME_RELOAD_ALL_FROM_GATEWAY };
+    }
+
     /**
      * {@inheritDoc}
      */
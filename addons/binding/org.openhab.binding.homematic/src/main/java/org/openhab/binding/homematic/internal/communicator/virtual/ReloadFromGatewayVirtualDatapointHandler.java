@@ -35,6 +35,14 @@ public class ReloadFromGatewayVirtualDatapointHandler extends AbstractVirtualDat
         addDatapoint(device, 0, VIRTUAL_DATAPOINT_NAME_RELOAD_FROM_GATEWAY, HmValueType.BOOL, Boolean.FALSE, false);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String[] getDatapointNames() {
+        return new String[] { VIRTUAL_DATAPOINT_NAME_RELOAD_FROM_GATEWAY };
+    }
+
     /**
      * {@inheritDoc}
      */
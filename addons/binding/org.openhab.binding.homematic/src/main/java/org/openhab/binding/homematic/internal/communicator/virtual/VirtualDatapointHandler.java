@@ -28,6 +28,11 @@ public interface VirtualDatapointHandler {
      */
     public void add(HmDevice device);
 
+    /**
+     * Returns the names of the datapoints the handler can handle.
+     */
+    public String[] getDatapointNames();
+
     /**
      * Returns true, if the virtual datapoint can handle the given datapoint.
      */
@@ -8,8 +8,8 @@
  */
 package org.openhab.binding.homematic.internal.model;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
@@ -31,8 +31,8 @@ public class HmChannel {
     private Integer number;
     private String type;
     private HmDevice device;
-    private boolean initialized;
-    private Map<HmDatapointInfo, HmDatapoint> datapoints = new HashMap<HmDatapointInfo, HmDatapoint>();
+    private volatile boolean initialized;
+    private Map<HmDatapointInfo, HmDatapoint> datapoints = new ConcurrentHashMap<HmDatapointInfo, HmDatapoint>();
 
     /**
      * Returns the channel number.
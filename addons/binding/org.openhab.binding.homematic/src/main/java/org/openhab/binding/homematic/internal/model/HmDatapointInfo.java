@@ -8,8 +8,7 @@
  */
 package org.openhab.binding.homematic.internal.model;
 
-import org.apache.commons.lang.builder.EqualsBuilder;
-import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.apache.commons.lang.ObjectUtils;
 
 /**
  * Simple representation of a datapoint.
@@ -84,7 +83,10 @@ public class HmDatapointInfo {
      */
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(address).append(paramsetType).append(channel).append(name).toHashCode();
+        int result = ObjectUtils.hashCode(address);
+        result = 31 * result + ObjectUtils.hashCode(paramsetType);
+        result = 31 * result + ObjectUtils.hashCode(channel);
+        return 31 * result + ObjectUtils.hashCode(name);
     }
 
     /**
@@ -96,8 +98,8 @@ public class HmDatapointInfo {
             return false;
         }
         HmDatapointInfo comp = (HmDatapointInfo) obj;
-        return new EqualsBuilder().append(address, comp.getAddress()).append(paramsetType, comp.getParamsetType())
-                .append(channel, comp.getChannel()).append(name, comp.getName()).isEquals();
+        return ObjectUtils.equals(name, comp.getName()) && ObjectUtils.equals(channel, comp.getChannel())
+                && ObjectUtils.equals(address, comp.getAddress()) && paramsetType == comp.getParamsetType();
     }
 
     /**
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.max.internal.message;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.max.internal.device.Device;
+import org.openhab.binding.max.internal.device.DeviceConfiguration;
+
+/**
+ * Tests cases for {@link L_Message}.
+ *
+ * @author agent - Initial contribution
+ */
+public class L_MessageTest {
+
+    private final String[] configurationData = new String[] {
+            "C:0b0da3,0gsNowIBEABLRVEwNTQ0MjQyLCQ9CQcYAzAM/wBIYViRSP1ZFE0gTSBNIEUgRSBFIEUgRSBFIEhhWJFQ/VkVUSBRIFEgRSBFIEUgRSBFIEUgSFBYWkj+WRRNIE0gTSBFIEUgRSBFIEUgRSBIUFhaSP5ZFE0gTSBNIEUgRSBFIEUgRSBFIEhQWFpI/lkUTSBNIE0gRSBFIEUgRSBFIEUgSFBYWkj+WRRNIE0gTSBFIEUgRSBFIEUgRSBIUFhaSP5ZFE0gTSBNIEUgRSBFIEUgRSBFIA==",
+            "C:08c1d6,0gjB1gEFGP9LRVEwNjQ5MzEyKyE9CQcYAzAM/wBEeFUgVSBVIFUgVSBVIEUgRSBFIEUgRSBFIER4VRZFIEUgRSBFIEUgRSBFIEUgRSBFIEUgRFFEYkTkTQ9FIEUgRSBFIEUgRSBFIEUgRSBEUURiRORND0UgRSBFIEUgRSBFIEUgRSBFIERRRGJE5E0PRSBFIEUgRSBFIEUgRSBFIEUgRFFEYkTkTQ9FIEUgRSBFIEUgRSBFIEUgRSBEUURiRORRGEUgRSBFIEUgRSBFIEUgRSBFIA==",
+            "C:0e75f6,EQ519gQCEABLRVExMTA0Mzgw",
+            "C:04336f,EQQzbwUAEg9KRVEwMzgwODc4",
+            "C:0be9a2,0gvpogEDEapLRVE5MDE1NDMyKyE9CQcYAzAM/wBEbFkgWSBZIFkgWSBZIEUgRSBFIEUgRSBFIERgWSBZIFkgWSBZIFkgRSBFIEUgRSBFIEUgRFFUYUTYWSBZIFkgWSBFIEUgRSBFIEUgRSBEUVRhRNhZIFkgWSBZIEUgRSBFIEUgRSBFIERRVGFE2FkgWSBZIFkgRSBFIEUgRSBFIEUgRFFUYUTYWSBZIFkgWSBFIEUgRSBFIEUgRSBEUVRhRNhZIFkgWSBZIEUgRSBFIEUgRSBFIA==",
+            "C:0e15cc,zg4VzAMDEP9MRVEwMDE1MzQwKyE9CURsWSBZIFkgWSBZIFkgRSBFIEUgRSBFIEUgRGBZIFkgWSBZIFkgWSBFIEUgRSBFIEUgRSBEUVRhRNhZIFkgWSBZIEUgRSBFIEUgRSBFIERRVGFE2FkgWSBZIFkgRSBFIEUgRSBFIEUgRFFUYUTYWSBZIFkgWSBFIEUgRSBFIEUgRSBEUVRhRNhZIFkgWSBZIEUgRSBFIEUgRSBFIERRVGFE2FkgWSBZIFkgRSBFIEUgRSBFIEUgBxgw",
+            "C:08c349,0gjDSQEEGP9LRVEwNjQ4OTQ5KiA9CQcYAzAM/wBEbFUKRSBFIEUgRSBFIEUgRSBFIEUgRSBFIERgVQlFIEUgRSBFIEUgRSBFIEUgRSBFIEUgRFFUYUS0VQNFIEUgRSBFIEUgRSBFIEUgRSBEUVRhRLRVA0UgRSBFIEUgRSBFIEUgRSBFIERRVGFEtFUDRSBFIEUgRSBFIEUgRSBFIEUgRFFUYUS0VQNFIEUgRSBFIEUgRSBFIEUgRSBEUVRhRLRVCkUgRSBFIEUgRSBFIEUgRSBFIA==",
+            "C:07b6e7,0ge25wECGP9LRVEwMTQ1MTcyKyE9CQcYAzAM/wBEflUaRSBFIEUgRSBFIEUgRSBFIEUgRSBFIER+VRpFIEUgRSBFIEUgRSBFIEUgRSBFIEUgRFRUcEjSVRJJIEkgSSBFIEUgRSBFIEUgRSBEVFRwSNJVEkkgSSBJIEUgRSBFIEUgRSBFIERUVG9U01URSSBJIEkgRSBFIEUgRSBFIEUgRFRUcEjSVRJJIEkgSSBFIEUgRSBFIEUgRSBEVFRwSNJVEkkgSSBJIEUgRSBFIEUgRSBFIA==" };
+
+    public final String rawData = "L:CwsNowkSGE0kALAACwjB1gkSGGAiAAAABg519gkSEAYEM28JAAALC+miCRIYACIAAAAMDhXMCRIYBCIAAACtCwjDSQkSGGQqAGMACwe25wkSGGQkAAAA";
+
+    /** same as rawData, but with another temperature setpoint for device 08C1D6 */
+    public final String changedData = "L:CwsNowkSGE0kALAACwjB1gkSGGAkAAAABg519gkSEAYEM28JAAALC+miCRIYACIAAAAMDhXMCRIYBCIAAACtCwjDSQkSGGQqAGMACwe25wkSGGQkAAAA";
+
+    private List<DeviceConfiguration> configurations = new ArrayList<DeviceConfiguration>();
+    private Map<String, Device> devices = new HashMap<String, Device>();
+    private Map<String, byte[]> previousStates = new HashMap<String, byte[]>();
+
+    @Before
+    public void Before() {
+        for (String data : configurationData) {
+            configurations.add(DeviceConfiguration.create(new C_Message(data)));
+        }
+    }
+
+    @Test
+    public void getMessageTypeTest() {
+        MessageType messageType = new L_Message(rawData).getType();
+
+        assertEquals(MessageType.L, messageType);
+    }
+
+    @Test
+    public void updateDevicesNewDevicesTest() {
+        List<Device> changed = new L_Message(rawData).updateDevices(devices, configurations, previousStates);
+
+        assertEquals(8, changed.size());
+        assertEquals(8, devices.size());
+        assertNotNull(devices.get("08C1D6"));
+        assertEquals("KEQ0649312", devices.get("08C1D6").getSerialNumber());
+    }
+
+    @Test
+    public void updateDevicesUnchangedTest() {
+        new L_Message(rawData).updateDevices(devices, configurations, previousStates);
+        List<Device> changed = new L_Message(rawData).updateDevices(devices, configurations, previousStates);
+
+        assertTrue(changed.isEmpty());
+        assertEquals(8, devices.size());
+    }
+
+    @Test
+    public void updateDevicesChangedTest() {
+        new L_Message(rawData).updateDevices(devices, configurations, previousStates);
+        Device device = devices.get("08C1D6");
+        device.setUpdated(false);
+
+        List<Device> changed = new L_Message(changedData).updateDevices(devices, configurations, previousStates);
+
+        assertEquals(1, changed.size());
+        assertSame(device, changed.get(0));
+        assertTrue(device.isUpdated());
+        assertEquals(8, devices.size());
+    }
+
+    @Test
+    public void updateDevicesAfterClearTest() {
+        new L_Message(rawData).updateDevices(devices, configurations, previousStates);
+        previousStates.clear();
+        List<Device> changed = new L_Message(rawData).updateDevices(devices, configurations, previousStates);
+
+        assertEquals(8, changed.size());
+    }
+}
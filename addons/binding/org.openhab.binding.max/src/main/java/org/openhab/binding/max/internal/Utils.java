@@ -23,6 +23,8 @@ import java.util.Date;
 
 public final class Utils {
 
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
     /**
      * Returns the integer value of an hexadecimal number (base 16).
      *
@@ -42,11 +44,15 @@ public final class Utils {
      * @return the given numbers as hexadecimal number
      */
     public static final String toHex(int... values) {
-        String returnValue = "";
+        StringBuilder returnValue = new StringBuilder(values.length * 2);
         for (int v : values) {
-            returnValue += v < 16 ? "0" + Integer.toHexString(v).toUpperCase() : Integer.toHexString(v).toUpperCase();
+            if (v >= 0 && v <= 0xFF) {
+                returnValue.append(HEX_DIGITS[v >> 4]).append(HEX_DIGITS[v & 0x0F]);
+            } else {
+                returnValue.append(v < 16 ? "0" : "").append(Integer.toHexString(v).toUpperCase());
+            }
         }
-        return returnValue;
+        return returnValue.toString();
     }
 
     /**
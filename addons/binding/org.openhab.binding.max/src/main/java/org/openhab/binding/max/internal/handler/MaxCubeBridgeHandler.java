@@ -20,13 +20,20 @@ import java.net.Socket;
 import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.config.core.Configuration;
@@ -101,9 +108,20 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     /** timeout on network connection **/
     private static final int NETWORK_TIMEOUT = 10000;
 
+    /** after this time all devices are passed to the listeners, also if their state did not change */
+    private static final long FULL_REFRESH_INTERVAL = TimeUnit.MINUTES
+            .toMillis(MaxDevicesHandler.REFRESH_ACTUAL_MIN_RATE);
+
     private ArrayList<Device> devices = new ArrayList<Device>();
+    private Map<String, Device> devicesBySerial = new ConcurrentHashMap<String, Device>();
+    private Map<String, Device> devicesByRfAddress = new ConcurrentHashMap<String, Device>();
     private ArrayList<RoomInformation> rooms;
-    private HashSet<String> lastActiveDevices = new HashSet<String>();
+    private Set<String> lastActiveDevices = new CopyOnWriteArraySet<String>();
+
+    /** the raw L message data by RF address of the last poll, used to find the changed devices */
+    private Map<String, byte[]> lastDeviceStates = new HashMap<String, byte[]>();
+    private List<Device> changedDevices = new ArrayList<Device>();
+    private long lastFullRefresh = 0;
 
     /** MAX! Thermostat default off temperature */
     private static final DecimalType DEFAULT_OFF_TEMPERATURE = new DecimalType(4.5);
@@ -151,6 +169,13 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     private boolean previousOnline = false;
 
     private Set<DeviceStatusListener> deviceStatusListeners = new CopyOnWriteArraySet<>();
+    private ConcurrentMap<String, Set<DeviceStatusListener>> deviceListenersBySerial = new ConcurrentHashMap<>();
+
+    /**
+     * Each cube is polled and receives its commands by its own thread, so that a slow or unreachable cube does not
+     * delay the other cubes
+     */
+    private ScheduledExecutorService cubeExecutor;
 
     private ScheduledFuture<?> pollingJob;
     private Runnable pollingRunnable = new Runnable() {
@@ -172,7 +197,10 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     public void handleCommand(ChannelUID channelUID, Command command) {
         if (command instanceof RefreshType) {
             logger.debug("Refresh command received.");
-            refreshData();
+            ScheduledExecutorService executor = cubeExecutor;
+            if (executor != null) {
+                executor.execute(pollingRunnable);
+            }
         } else {
             logger.warn("No bridge commands defined. Cannot process '{}'.", command.toString());
         }
@@ -182,6 +210,12 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     public void dispose() {
         logger.debug("Handler disposed.");
         stopAutomaticRefresh();
+        synchronized (this) {
+            if (cubeExecutor != null) {
+                cubeExecutor.shutdownNow();
+                cubeExecutor = null;
+            }
+        }
         clearDeviceList();
         socketClose();
         super.dispose();
@@ -255,7 +289,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         logger.info("Resetting configuration for MAX! Cube {}", getThing().getUID());
         sendCubeCommand(new A_Command());
         for (Device di : devices) {
-            for (DeviceStatusListener deviceStatusListener : deviceStatusListeners) {
+            for (DeviceStatusListener deviceStatusListener : getDeviceStatusListeners(di)) {
                 try {
                     deviceStatusListener.onDeviceRemoved(this, di);
                 } catch (Exception e) {
@@ -303,11 +337,22 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
     }
 
     private synchronized void startAutomaticRefresh() {
+        if (cubeExecutor == null) {
+            final String threadName = "MAX! Cube " + ipAddress;
+            cubeExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
         if (pollingJob == null || pollingJob.isCancelled()) {
-            pollingJob = scheduler.scheduleWithFixedDelay(pollingRunnable, 0, refreshInterval, TimeUnit.SECONDS);
+            pollingJob = cubeExecutor.scheduleWithFixedDelay(pollingRunnable, 0, refreshInterval, TimeUnit.SECONDS);
         }
         if (sendCommandJob == null || sendCommandJob.isCancelled()) {
-            sendCommandJob = scheduler.scheduleWithFixedDelay(sendCommandRunnable, 0, sendCommandInterval,
+            sendCommandJob = cubeExecutor.scheduleWithFixedDelay(sendCommandRunnable, 0, sendCommandInterval,
                     TimeUnit.SECONDS);
         }
     }
@@ -364,9 +409,9 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
             if (sendCubeCommand(new L_Command())) {
                 updateStatus(ThingStatus.ONLINE);
                 previousOnline = true;
-                for (Device di : devices) {
-                    if (lastActiveDevices != null && lastActiveDevices.contains(di.getSerialNumber())) {
-                        for (DeviceStatusListener deviceStatusListener : deviceStatusListeners) {
+                for (Device di : takeChangedDevices()) {
+                    if (lastActiveDevices.contains(di.getSerialNumber())) {
+                        for (DeviceStatusListener deviceStatusListener : getDeviceStatusListeners(di)) {
                             try {
                                 deviceStatusListener.onDeviceStateChanged(getThing().getUID(), di);
                             } catch (Exception e) {
@@ -377,7 +422,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                     }
                     // New device, not seen before, pass to Discovery
                     else {
-                        for (DeviceStatusListener deviceStatusListener : deviceStatusListeners) {
+                        for (DeviceStatusListener deviceStatusListener : getDeviceStatusListeners(di)) {
                             try {
                                 deviceStatusListener.onDeviceAdded(getThing(), di);
                                 di.setUpdated(true);
@@ -398,6 +443,37 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         }
     }
 
+    /**
+     * Returns the devices which changed since the last call and clears the list. All devices are returned if the last
+     * full refresh is older than {@link #FULL_REFRESH_INTERVAL}, so that the device handlers can run their periodic
+     * checks.
+     */
+    private synchronized List<Device> takeChangedDevices() {
+        List<Device> result;
+        long now = System.currentTimeMillis();
+        if (now - lastFullRefresh > FULL_REFRESH_INTERVAL) {
+            lastFullRefresh = now;
+            result = new ArrayList<Device>(devices);
+        } else {
+            result = changedDevices;
+        }
+        changedDevices = new ArrayList<Device>();
+        return result;
+    }
+
+    /**
+     * Returns the listeners for all devices and the listeners registered for the given device.
+     */
+    private Set<DeviceStatusListener> getDeviceStatusListeners(Device device) {
+        Set<DeviceStatusListener> listeners = deviceListenersBySerial.get(device.getSerialNumber());
+        if (listeners == null || listeners.isEmpty()) {
+            return deviceStatusListeners;
+        }
+        Set<DeviceStatusListener> result = new HashSet<DeviceStatusListener>(deviceStatusListeners);
+        result.addAll(listeners);
+        return result;
+    }
+
     public void onConnectionLost() {
         logger.debug("Bridge connection lost. Updating thing status to OFFLINE.");
         previousOnline = false;
@@ -427,11 +503,44 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         return result;
     }
 
+    /**
+     * Registers a listener which is only informed about the device with the given serial number.
+     *
+     * @param deviceStatusListener the listener
+     * @param serialNumber the serial number of the device
+     * @return true if the listener was not registered yet
+     */
+    public boolean registerDeviceStatusListener(DeviceStatusListener deviceStatusListener, String serialNumber) {
+        if (deviceStatusListener == null) {
+            throw new NullPointerException("It's not allowed to pass a null deviceStatusListener.");
+        }
+        if (serialNumber == null) {
+            return registerDeviceStatusListener(deviceStatusListener);
+        }
+        Set<DeviceStatusListener> listeners = deviceListenersBySerial.get(serialNumber);
+        if (listeners == null) {
+            listeners = new CopyOnWriteArraySet<DeviceStatusListener>();
+            Set<DeviceStatusListener> existing = deviceListenersBySerial.putIfAbsent(serialNumber, listeners);
+            if (existing != null) {
+                listeners = existing;
+            }
+        }
+        boolean result = listeners.add(deviceStatusListener);
+        if (result) {
+            // pass the current state to the new listener with the next refresh
+            clearDeviceStates();
+        }
+        return result;
+    }
+
     public boolean unregisterDeviceStatusListener(DeviceStatusListener deviceStatusListener) {
         if (deviceStatusListener == null) {
             throw new NullPointerException("It's not allowed to pass a null deviceStatusListener.");
         }
         boolean result = deviceStatusListeners.remove(deviceStatusListener);
+        for (Set<DeviceStatusListener> listeners : deviceListenersBySerial.values()) {
+            result |= listeners.remove(deviceStatusListener);
+        }
         if (result) {
             clearDeviceList();
         }
@@ -440,6 +549,14 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
 
     public void clearDeviceList() {
         lastActiveDevices.clear();
+        clearDeviceStates();
+    }
+
+    /**
+     * Forgets the device states of the last poll, so that all devices are passed to the listeners with the next poll.
+     */
+    private synchronized void clearDeviceStates() {
+        lastDeviceStates.clear();
     }
 
     /**
@@ -450,68 +567,66 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
      * @return boolean success
      */
     private synchronized boolean sendCubeCommand(CubeCommand command) {
-        synchronized (MaxCubeBridgeHandler.class) {
-            boolean sendSuccess = false;
-            try {
-                if (socket == null || socket.isClosed()) {
+        boolean sendSuccess = false;
+        try {
+            if (socket == null || socket.isClosed()) {
+                this.socketConnect();
+            } else {
+                if (maxRequestsPerConnection > 0 && requestCount >= maxRequestsPerConnection) {
+                    logger.debug("maxRequestsPerConnection reached, reconnecting.");
+                    socket.close();
                     this.socketConnect();
                 } else {
-                    if (maxRequestsPerConnection > 0 && requestCount >= maxRequestsPerConnection) {
-                        logger.debug("maxRequestsPerConnection reached, reconnecting.");
-                        socket.close();
-                        this.socketConnect();
-                    } else {
 
-                        if (requestCount == 0) {
-                            logger.debug("Connect to MAX! Cube");
-                            readliness("L:");
+                    if (requestCount == 0) {
+                        logger.debug("Connect to MAX! Cube");
+                        readliness("L:");
 
-                        }
-                        if (!(requestCount == 0 && command instanceof L_Command)) {
+                    }
+                    if (!(requestCount == 0 && command instanceof L_Command)) {
 
-                            logger.debug("Sending request #{} to MAX! Cube", this.requestCount);
-                            if (writer == null) {
-                                logger.warn("Can't write to MAX! Cube");
-                                this.socketConnect();
-                            }
+                        logger.debug("Sending request #{} to MAX! Cube", this.requestCount);
+                        if (writer == null) {
+                            logger.warn("Can't write to MAX! Cube");
+                            this.socketConnect();
+                        }
 
-                            writer.write(command.getCommandString());
-                            logger.trace("Write string to Max! Cube {}: {}", ipAddress, command.getCommandString());
-                            writer.flush();
-                            if (command.getReturnStrings() != null) {
-                                readliness(command.getReturnStrings());
-                            } else {
-                                socketClose();
-                            }
+                        writer.write(command.getCommandString());
+                        logger.trace("Write string to Max! Cube {}: {}", ipAddress, command.getCommandString());
+                        writer.flush();
+                        if (command.getReturnStrings() != null) {
+                            readliness(command.getReturnStrings());
+                        } else {
+                            socketClose();
                         }
                     }
                 }
+            }
 
-                requestCount++;
-                sendSuccess = true;
+            requestCount++;
+            sendSuccess = true;
 
-                if (!exclusive) {
-                    socketClose();
-                }
-            } catch (ConnectException e) {
-                logger.debug("Connection timed out on {} port {}", ipAddress, port);
-                sendSuccess = false;
-                socketClose(); // reconnect on next execution
-            } catch (UnknownHostException e) {
-                logger.debug("Host error occurred during execution: {}", e.getMessage());
-                sendSuccess = false;
-                socketClose(); // reconnect on next execution
-            } catch (IOException e) {
-                logger.debug("IO error occurred during execution: {}", e.getMessage());
-                sendSuccess = false;
-                socketClose(); // reconnect on next execution
-            } catch (Exception e) {
-                logger.debug("Exception occurred during execution: {}", e.getMessage(), e);
-                sendSuccess = false;
-                socketClose(); // reconnect on next execution
+            if (!exclusive) {
+                socketClose();
             }
-            return sendSuccess;
+        } catch (ConnectException e) {
+            logger.debug("Connection timed out on {} port {}", ipAddress, port);
+            sendSuccess = false;
+            socketClose(); // reconnect on next execution
+        } catch (UnknownHostException e) {
+            logger.debug("Host error occurred during execution: {}", e.getMessage());
+            sendSuccess = false;
+            socketClose(); // reconnect on next execution
+        } catch (IOException e) {
+            logger.debug("IO error occurred during execution: {}", e.getMessage());
+            sendSuccess = false;
+            socketClose(); // reconnect on next execution
+        } catch (Exception e) {
+            logger.debug("Exception occurred during execution: {}", e.getMessage(), e);
+            sendSuccess = false;
+            socketClose(); // reconnect on next execution
         }
+        return sendSuccess;
     }
 
     /**
@@ -635,13 +750,11 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                         ;
                     }
                 }
-                if (exclusive == true) {
-                    for (DeviceStatusListener deviceStatusListener : deviceStatusListeners) {
+                Device configuredDevice = getDevice(((C_Message) message).getSerialNumber());
+                if (exclusive == true && configuredDevice != null) {
+                    for (DeviceStatusListener deviceStatusListener : getDeviceStatusListeners(configuredDevice)) {
                         try {
-                            Device di = getDevice(((C_Message) message).getSerialNumber());
-                            if (di != null) {
-                                deviceStatusListener.onDeviceConfigUpdate(getThing(), di);
-                            }
+                            deviceStatusListener.onDeviceConfigUpdate(getThing(), configuredDevice);
                         } catch (NullPointerException e) {
                             // ignore
                         } catch (Exception e) {
@@ -651,8 +764,19 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
                     }
                 }
             } else if (message.getType() == MessageType.L) {
-                ((L_Message) message).updateDevices(devices, configurations);
-                logger.trace("{} devices found.", devices.size());
+                List<Device> changed = ((L_Message) message).updateDevices(devicesByRfAddress, configurations,
+                        lastDeviceStates);
+                for (Device di : changed) {
+                    String serialNumber = di.getSerialNumber().toUpperCase();
+                    if (!devicesBySerial.containsKey(serialNumber)) {
+                        devicesBySerial.put(serialNumber, di);
+                        devices.add(di);
+                    }
+                    if (!changedDevices.contains(di)) {
+                        changedDevices.add(di);
+                    }
+                }
+                logger.trace("{} devices found, {} changed.", devices.size(), changed.size());
             } else if (message.getType() == MessageType.S) {
                 dutyCycle = ((S_Message) message).getDutyCycle();
                 freeMemorySlots = ((S_Message) message).getFreeMemorySlots();
@@ -744,15 +868,6 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         logger.debug("NTP properties updated");
     }
 
-    private Device getDevice(String serialNumber, ArrayList<Device> devices) {
-        for (Device device : devices) {
-            if (device.getSerialNumber().toUpperCase().equals(serialNumber)) {
-                return device;
-            }
-        }
-        return null;
-    }
-
     /**
      * Returns the MAX! Device decoded during the last refreshData
      *
@@ -762,7 +877,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
      */
 
     public Device getDevice(String serialNumber) {
-        return getDevice(serialNumber, devices);
+        return devicesBySerial.get(serialNumber);
     }
 
     /**
@@ -813,7 +928,7 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
         Command command = sendCommand.getCommand();
 
         // send command to MAX! Cube LAN Gateway
-        HeatingThermostat device = (HeatingThermostat) getDevice(serialNumber, devices);
+        HeatingThermostat device = (HeatingThermostat) getDevice(serialNumber);
 
         if (device == null) {
             logger.debug("Cannot send command to device with serial number {}, device not listed.", serialNumber);
@@ -888,13 +1003,22 @@ public class MaxCubeBridgeHandler extends BaseBridgeHandler {
             SendCommand sendCommand = new SendCommand(maxDeviceSerial, new T_Command(device.getRFAddress(), true),
                     "Delete device " + maxDeviceSerial + " from Cube!");
             queueCommand(sendCommand);
-            devices.remove(device);
+            removeDevice(device);
             sendDeviceAndRoomNameUpdate("Remove name entry for " + maxDeviceSerial);
             sendCommand = new SendCommand(maxDeviceSerial, new Q_Command(), "Reload Data");
             queueCommand(sendCommand);
         }
     }
 
+    private synchronized void removeDevice(Device device) {
+        devices.remove(device);
+        changedDevices.remove(device);
+        devicesBySerial.remove(device.getSerialNumber().toUpperCase());
+        String rfAddress = device.getRFAddress().toUpperCase();
+        devicesByRfAddress.remove(rfAddress);
+        lastDeviceStates.remove(rfAddress);
+    }
+
     private void sendNtpUpdate(Map<String, Object> configurationParameters) {
         String ntpServer1 = this.ntpServer1;
         String ntpServer2 = this.ntpServer2;
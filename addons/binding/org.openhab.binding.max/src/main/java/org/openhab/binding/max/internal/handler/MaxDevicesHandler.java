@@ -329,7 +329,7 @@ public class MaxDevicesHandler extends BaseThingHandler implements DeviceStatusL
             ThingHandler handler = bridge.getHandler();
             if (handler instanceof MaxCubeBridgeHandler) {
                 this.bridgeHandler = (MaxCubeBridgeHandler) handler;
-                this.bridgeHandler.registerDeviceStatusListener(this);
+                this.bridgeHandler.registerDeviceStatusListener(this, maxDeviceSerial);
                 forceRefresh = true;
             } else {
                 logger.debug("No available bridge handler found for {} bridge {} .", maxDeviceSerial, bridge.getUID());
@@ -56,7 +56,9 @@ public final class C_Message extends Message {
     private BigDecimal valveOffset = null;
     private BigDecimal boostDuration = null;
     private BigDecimal boostValve = null;
-    private String programData = null;
+    /** the raw data and the start of the weekly program, it is only formatted for trace logging */
+    private byte[] programData = null;
+    private int programDataOffset;
 
     private HashMap<String, Object> properties = new HashMap<>();
 
@@ -229,29 +231,39 @@ public final class C_Message extends Message {
                 properties.put(PROPERTY_THERMO_VALVE_MAX, valveMaximum.setScale(0, RoundingMode.HALF_DOWN));
                 properties.put(PROPERTY_THERMO_VALVE_OFFSET, valveOffset.setScale(0, RoundingMode.HALF_DOWN));
             }
-            programData = "";
+            programData = bytes;
+            programDataOffset = plusDataStart + programDataStart;
+
+        } catch (Exception e) {
+            logger.debug("Exception occurred during heater data: {}", e.getMessage(), e);
+        }
+        return;
+    }
+
+    private String formatProgramData() {
+        StringBuilder sb = new StringBuilder();
+        try {
             int ln = 13 * 6; // first day = Sat
             String startTime = "00:00h";
-            for (int char_idx = plusDataStart + programDataStart; char_idx < (plusDataStart + programDataStart
-                    + 26 * 7); char_idx++) {
+            for (int char_idx = programDataOffset; char_idx < (programDataOffset + 26 * 7); char_idx++) {
                 if (ln % 13 == 0) {
-                    programData += "\r\n Day " + Integer.toString((ln / 13) % 7) + ": ";
+                    sb.append("\r\n Day ").append((ln / 13) % 7).append(": ");
                     startTime = "00:00h";
                 }
-                int progTime = (bytes[char_idx + 1] & 0xFF) * 5 + (bytes[char_idx] & 0x01) * 1280;
+                int progTime = (programData[char_idx + 1] & 0xFF) * 5 + (programData[char_idx] & 0x01) * 1280;
                 int progMinutes = progTime % 60;
                 int progHours = (progTime - progMinutes) / 60;
-                String endTime = Integer.toString(progHours) + ":" + String.format("%02d", progMinutes) + "h";
-                programData += startTime + "-" + endTime + " " + Double.toString(bytes[char_idx] / 4) + "C  ";
+                String endTime = progHours + ":" + (progMinutes < 10 ? "0" : "") + progMinutes + "h";
+                sb.append(startTime).append('-').append(endTime).append(' ')
+                        .append(Double.toString(programData[char_idx] / 4)).append("C  ");
                 startTime = endTime;
                 char_idx++;
                 ln++;
             }
-
         } catch (Exception e) {
             logger.debug("Exception occurred during heater data: {}", e.getMessage(), e);
         }
-        return;
+        return sb.toString();
     }
 
     public String getSerialNumber() {
@@ -296,8 +308,8 @@ public final class C_Message extends Message {
                 logger.debug("{}:{}{}", key, Strings.repeat(" ", 25 - key.length()), properties.get(key));
             }
         }
-        if (programData != null) {
-            logger.trace("ProgramData:          {}", programData);
+        if (programData != null && logger.isTraceEnabled()) {
+            logger.trace("ProgramData:          {}", formatProgramData());
         }
     }
 }
@@ -9,8 +9,10 @@
 package org.openhab.binding.max.internal.message;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.net.util.Base64;
 import org.openhab.binding.max.internal.Utils;
@@ -28,17 +30,27 @@ import org.slf4j.Logger;
  */
 public final class L_Message extends Message {
 
+    private byte[] decodedPayload;
+
     public L_Message(String raw) {
         super(raw);
     }
 
+    /**
+     * Returns the Base64 decoded payload, it is decoded only once for all readers of this message.
+     */
+    private byte[] getDecodedPayload() {
+        if (decodedPayload == null) {
+            decodedPayload = Base64.decodeBase64(getPayload().getBytes());
+        }
+        return decodedPayload;
+    }
+
     public Collection<? extends Device> getDevices(List<DeviceConfiguration> configurations) {
 
         List<Device> devices = new ArrayList<Device>();
 
-        byte[] decodedRawMessage = Base64.decodeBase64(getPayload().getBytes());
-
-        MaxTokenizer tokenizer = new MaxTokenizer(decodedRawMessage);
+        MaxTokenizer tokenizer = new MaxTokenizer(getDecodedPayload());
 
         while (tokenizer.hasMoreElements()) {
             byte[] token = tokenizer.nextElement();
@@ -51,38 +63,43 @@ public final class L_Message extends Message {
         return devices;
     }
 
-    public Collection<? extends Device> updateDevices(List<Device> devices, List<DeviceConfiguration> configurations) {
+    /**
+     * Updates the devices with the real time information of this message. The data of a device is only decoded if
+     * it differs from the data received for this device in the previous L message.
+     *
+     * @param devices the known devices by upper case RF address, devices which are not known yet are added
+     * @param configurations the device configurations used to create new devices
+     * @param previousStates the raw data by RF address of the previous L message, updated with this message
+     * @return the devices which are new or whose data changed
+     */
+    public List<Device> updateDevices(Map<String, Device> devices, List<DeviceConfiguration> configurations,
+            Map<String, byte[]> previousStates) {
 
-        byte[] decodedRawMessage = Base64.decodeBase64(getPayload().getBytes());
+        List<Device> changedDevices = new ArrayList<Device>();
 
-        MaxTokenizer tokenizer = new MaxTokenizer(decodedRawMessage);
+        MaxTokenizer tokenizer = new MaxTokenizer(getDecodedPayload());
 
         while (tokenizer.hasMoreElements()) {
             byte[] token = tokenizer.nextElement();
             String rfAddress = Utils.toHex(token[0] & 0xFF, token[1] & 0xFF, token[2] & 0xFF);
-            // logger.debug("token: "+token+" rfaddress: "+rfAddress);
-
-            Device foundDevice = null;
-            for (Device device : devices) {
-                // logger.debug(device.getRFAddress().toUpperCase()+ " vs "+rfAddress);
-                if (device.getRFAddress().toUpperCase().equals(rfAddress)) {
-                    // logger.debug("Updating device..."+rfAddress);
-                    foundDevice = device;
+
+            Device device = devices.get(rfAddress);
+            if (device == null) {
+                device = Device.create(token, configurations);
+                if (device == null) {
+                    continue;
                 }
-            }
-            if (foundDevice != null) {
-                foundDevice = Device.update(token, configurations, foundDevice);
-                // devices.remove(token);
-                // devices.add(foundDevice);
+                devices.put(rfAddress, device);
+            } else if (Arrays.equals(token, previousStates.get(rfAddress))) {
+                continue;
             } else {
-                Device tempDevice = Device.create(token, configurations);
-                if (tempDevice != null) {
-                    devices.add(tempDevice);
-                }
+                Device.update(token, configurations, device);
             }
+            previousStates.put(rfAddress, token);
+            changedDevices.add(device);
         }
 
-        return devices;
+        return changedDevices;
     }
 
     @Override
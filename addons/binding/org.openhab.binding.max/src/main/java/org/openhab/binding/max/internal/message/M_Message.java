@@ -8,6 +8,7 @@
  */
 package org.openhab.binding.max.internal.message;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 import org.apache.commons.net.util.Base64;
@@ -86,11 +87,8 @@ public final class M_Message extends Message {
                             (bytes[byteOffset + 2] & 0xff));
                     byteOffset += 3;
 
-                    String serialNumber = "";
-
-                    for (int i = 0; i < 10; i++) {
-                        serialNumber += (char) bytes[byteOffset++];
-                    }
+                    String serialNumber = new String(bytes, byteOffset, 10, StandardCharsets.ISO_8859_1);
+                    byteOffset += 10;
 
                     int nameLength = bytes[byteOffset++] & 0xff;
                     byte[] data = new byte[nameLength];
@@ -50,14 +50,12 @@ public final class MaxTokenizer implements Enumeration<byte[]> {
      */
     @Override
     public byte[] nextElement() {
-        byte length = decodedRawMessage[offset++];
-
         // make sure to get the correct length in case > 127
-        byte[] token = new byte[length & 0xFF];
+        int length = decodedRawMessage[offset++] & 0xFF;
 
-        for (int i = 0; i < (length & 0xFF); i++) {
-            token[i] = decodedRawMessage[offset++];
-        }
+        byte[] token = new byte[length];
+        System.arraycopy(decodedRawMessage, offset, token, 0, length);
+        offset += length;
 
         return token;
     }
@@ -8,9 +8,6 @@
  */
 package org.openhab.binding.max.internal.message;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.openhab.binding.max.internal.exceptions.IncompleteMessageException;
 import org.openhab.binding.max.internal.exceptions.IncorrectMultilineIndexException;
 import org.openhab.binding.max.internal.exceptions.MessageIsWaitingException;
@@ -27,6 +24,10 @@ import org.openhab.binding.max.internal.exceptions.UnsupportedMessageTypeExcepti
  * possible to add additional lines when there is a message ready to be
  * processed.
  *
+ * The payloads of a multiline message are collected in a buffer which is
+ * reused for the following messages, the message is created once all lines
+ * were received.
+ *
  * @author Christian Rockrohr <christian@rockrohr.de>
  * @since 1.7.0
  */
@@ -34,6 +35,8 @@ public class MessageProcessor {
 
     public static final String SEPARATOR = ":";
 
+    private static final MessageType[] MESSAGE_TYPES = MessageType.values();
+
     /**
      * The message that was created from last line received. (Null if no message
      * available yet)
@@ -44,12 +47,14 @@ public class MessageProcessor {
      * <pre>
      * If more that one single line is required to create a message
      * 	  	numberOfRequiredLines holds the number of required messages to complete
-     * 		receivedLines holds the lines received so far
+     * 		numberOfReceivedLines holds the number of lines received so far
+     * 		receivedLines holds the first line and the payloads of the following lines
      * 		currentMessageType indicates which message type is currently on stack
      * </pre>
      */
     private Integer numberOfRequiredLines = null;
-    private List<String> receivedLines = new ArrayList<String>();
+    private int numberOfReceivedLines = 0;
+    private final StringBuilder receivedLines = new StringBuilder();
     private MessageType currentMessageType = null;
 
     /**
@@ -58,7 +63,8 @@ public class MessageProcessor {
      */
     public void reset() {
         this.currentMessage = null;
-        receivedLines.clear();
+        receivedLines.setLength(0);
+        numberOfReceivedLines = 0;
         currentMessageType = null;
         numberOfRequiredLines = null;
     }
@@ -141,11 +147,15 @@ public class MessageProcessor {
             throws UnprocessableMessageException, IncompleteMessageException, IncorrectMultilineIndexException {
         Boolean result = false;
 
-        String[] tokens = line.split(Message.DELIMETER); // M:00,01,xyz.....
+        // M:00,01,xyz.....
+        int indexEnd = line.indexOf(Message.DELIMETER, 2);
+        int counterEnd = indexEnd < 0 ? -1 : line.indexOf(Message.DELIMETER, indexEnd + 1);
 
         try {
-            Integer index = Integer.valueOf(tokens[0].replaceFirst("M:", "")); // M:00
-            Integer counter = Integer.valueOf(tokens[1]); // 01
+            int index = Integer.parseInt(line.substring(2, indexEnd)); // 00
+            String counterToken = counterEnd < 0 ? line.substring(indexEnd + 1)
+                    : line.substring(indexEnd + 1, counterEnd);
+            int counter = Integer.parseInt(counterToken); // 01
 
             if (this.numberOfRequiredLines == null) {
                 switch (counter) {
@@ -159,24 +169,25 @@ public class MessageProcessor {
                         this.numberOfRequiredLines = counter;
                         this.currentMessageType = MessageType.M;
                         if (index == 0) {
-                            this.receivedLines.add(line);
+                            this.receivedLines.append(line);
+                            this.numberOfReceivedLines = 1;
                         } else {
                             throw new IncorrectMultilineIndexException();
                         }
                 }
             } else {
-                if ((!counter.equals(this.numberOfRequiredLines)) || (!(index == this.receivedLines.size()))) {
+                if (counter != this.numberOfRequiredLines || index != this.numberOfReceivedLines) {
                     throw new IncorrectMultilineIndexException();
                 }
+                if (counterEnd < 0) {
+                    throw new UnprocessableMessageException();
+                }
 
-                receivedLines.add(tokens[2]);
+                receivedLines.append(line, counterEnd + 1, line.length());
+                numberOfReceivedLines++;
 
-                if (index + 1 == receivedLines.size()) {
-                    String newLine = "";
-                    for (String curLine : receivedLines) {
-                        newLine += curLine;
-                    }
-                    this.currentMessage = new M_Message(newLine);
+                if (numberOfReceivedLines == numberOfRequiredLines) {
+                    this.currentMessage = new M_Message(receivedLines.toString());
                     result = true;
                 }
             }
@@ -229,8 +240,12 @@ public class MessageProcessor {
      */
     private static MessageType getMessageType(String line) {
 
-        for (MessageType msgType : MessageType.values()) {
-            if (line.startsWith(msgType.name() + SEPARATOR)) {
+        if (line.length() < 2 || line.charAt(1) != SEPARATOR.charAt(0)) {
+            return null;
+        }
+        char indicator = line.charAt(0);
+        for (MessageType msgType : MESSAGE_TYPES) {
+            if (msgType.name().charAt(0) == indicator) {
                 return msgType;
             }
         }
@@ -31,6 +31,10 @@ public class NetworkBindingConstants {
     public final static String CHANNEL_ONLINE = "online";
     public final static String CHANNEL_TIME = "time";
 
+    // List of all Properties
+    public final static String PROPERTY_LATENCY_MEDIAN = "latencyMedian";
+    public final static String PROPERTY_LATENCY_95TH_PERCENTILE = "latency95thPercentile";
+
     // List of all Parameters
     public final static String PARAMETER_HOSTNAME = "hostname";
     public final static String PARAMETER_PORT = "port";
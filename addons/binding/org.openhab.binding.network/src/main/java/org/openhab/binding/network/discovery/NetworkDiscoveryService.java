@@ -10,12 +10,17 @@ package org.openhab.binding.network.discovery;
 
 import static org.openhab.binding.network.NetworkBindingConstants.*;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.config.discovery.AbstractDiscoveryService;
@@ -23,6 +28,7 @@ import org.eclipse.smarthome.config.discovery.DiscoveryResult;
 import org.eclipse.smarthome.config.discovery.DiscoveryResultBuilder;
 import org.eclipse.smarthome.core.thing.ThingUID;
 import org.openhab.binding.network.service.DiscoveryCallback;
+import org.openhab.binding.network.service.IPv4AddressIterator;
 import org.openhab.binding.network.service.NetworkUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,54 +37,150 @@ import org.slf4j.LoggerFactory;
  * The {@link NetworkDiscoveryService} is responsible for discovering devices on
  * the current Network. It uses every Network Interface which is connected to a network.
  *
+ * Every address is probed by a non-blocking TCP connect. Devices which drop the connect are still found if they
+ * answered the ARP request, because the ARP cache is read before and after the probes. Without an ARP cache, the
+ * unanswered addresses of small networks are pinged like before.
+ *
  * @author Marc Mettke - Initial contribution
  */
 public class NetworkDiscoveryService extends AbstractDiscoveryService implements DiscoveryCallback {
     private final Logger logger = LoggerFactory.getLogger(NetworkDiscoveryService.class);
-    private ExecutorService executorService = null;
     final static int PING_TIMEOUT_IN_MS = 500;
-    private int scanningNetworkSize = 0;
+    final static int PROBE_PORT = 80;
+    final static int MAX_PROBES_IN_FLIGHT = 512;
+    final static int MAX_PING_FALLBACK_ADDRESSES = 1024;
+    // time for ARP replies to the last probes to arrive
+    final static int ARP_SETTLE_TIME_IN_MS = 1000;
+
+    private TcpConnectScanner scanner = null;
+    private ExecutorService executorService = null;
+    private Future<?> scanFuture = null;
+    private final Set<String> discoveredIPs = Collections.synchronizedSet(new HashSet<String>());
 
     public NetworkDiscoveryService() {
         super(SUPPORTED_THING_TYPES_UIDS, 900, false);
     }
 
     /**
-     * Starts the DiscoveryThread for each IP on each interface on the network
+     * Starts the discovery task, which probes each IP on each interface on the network
      *
      */
     @Override
     protected void startScan() {
-        if (executorService != null) {
-            stopScan();
-        }
+        cancelScan();
 
         logger.debug("Starting Discovery");
-        LinkedHashSet<String> networkIPs = NetworkUtils.getNetworkIPs(NetworkUtils.getInterfaceIPs());
-        scanningNetworkSize = networkIPs.size();
-        executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 10);
-
-        for (Iterator<String> it = networkIPs.iterator(); it.hasNext();) {
-            final String ip = it.next();
-            executorService.execute(new PingRunnable(ip, this));
+        final IPv4AddressIterator addresses = NetworkUtils.getInterfaceAddresses();
+        final TcpConnectScanner newScanner = new TcpConnectScanner(PROBE_PORT, PING_TIMEOUT_IN_MS,
+                MAX_PROBES_IN_FLIGHT);
+        synchronized (this) {
+            scanner = newScanner;
+            scanFuture = scheduler.submit(new Runnable() {
+                @Override
+                public void run() {
+                    scan(addresses, newScanner);
+                }
+            });
         }
-        stopScan();
     }
 
     @Override
     protected synchronized void stopScan() {
         super.stopScan();
-        if (executorService == null) {
-            return;
+        cancelScan();
+    }
+
+    private synchronized void cancelScan() {
+        if (scanFuture != null) {
+            scanFuture.cancel(true);
+            scanFuture = null;
+        }
+        if (scanner != null) {
+            scanner.stop();
+            scanner = null;
+        }
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
         }
+    }
+
+    private void scan(IPv4AddressIterator addresses, TcpConnectScanner scanner) {
+        long startTime = System.currentTimeMillis();
+        discoveredIPs.clear();
+        logger.debug("Probing {} addresses", addresses.size());
+
+        boolean arpCacheAvailable = reportArpCache(addresses);
+        final boolean pingFallback = !arpCacheAvailable && addresses.size() <= MAX_PING_FALLBACK_ADDRESSES;
+        final List<String> unansweredIPs = new ArrayList<String>();
 
         try {
-            executorService.awaitTermination(PING_TIMEOUT_IN_MS * scanningNetworkSize, TimeUnit.MILLISECONDS);
+            scanner.scan(addresses, new TcpConnectScanner.Listener() {
+                @Override
+                public void addressReachable(int address) {
+                    newDevice(NetworkUtils.int2InetAddress(address).getHostAddress());
+                }
+
+                @Override
+                public void addressUnreachable(int address) {
+                    if (pingFallback) {
+                        unansweredIPs.add(NetworkUtils.int2InetAddress(address).getHostAddress());
+                    }
+                }
+            });
+
+            if (arpCacheAvailable && scanner.isRunning()) {
+                Thread.sleep(ARP_SETTLE_TIME_IN_MS);
+                reportArpCache(addresses);
+            }
+
+            if (!unansweredIPs.isEmpty() && scanner.isRunning()) {
+                pingAll(unansweredIPs);
+            }
+            logger.debug("Discovery finished after {} ms", System.currentTimeMillis() - startTime);
+        } catch (IOException e) {
+            logger.warn("Network discovery failed: {}", e.getMessage());
         } catch (InterruptedException e) {
+        } finally {
+            synchronized (this) {
+                if (this.scanner == scanner) {
+                    // the scan is finished, don't interrupt the scheduler thread
+                    scanFuture = null;
+                    stopScan();
+                }
+            }
         }
-        executorService.shutdown();
-        executorService = null;
+    }
 
+    /**
+     * Reports the devices from the ARP cache which are in one of the scanned networks
+     *
+     * @return false if the ARP cache is not available
+     */
+    private boolean reportArpCache(IPv4AddressIterator addresses) {
+        Set<Integer> arpCacheAddresses = NetworkUtils.getArpCacheAddresses();
+        if (arpCacheAddresses == null) {
+            return false;
+        }
+        for (Integer address : arpCacheAddresses) {
+            if (addresses.contains(address)) {
+                newDevice(NetworkUtils.int2InetAddress(address).getHostAddress());
+            }
+        }
+        return true;
+    }
+
+    private void pingAll(List<String> ips) throws InterruptedException {
+        ExecutorService pingService;
+        synchronized (this) {
+            pingService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 10);
+            executorService = pingService;
+        }
+        for (String ip : ips) {
+            pingService.execute(new PingRunnable(ip, this));
+        }
+        pingService.shutdown();
+        pingService.awaitTermination(PING_TIMEOUT_IN_MS * ips.size(), TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -88,6 +190,9 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
      */
     @Override
     public void newDevice(String ip) {
+        if (!discoveredIPs.add(ip)) {
+            return;
+        }
         logger.info("Found " + ip);
 
         // uid must not contains dots
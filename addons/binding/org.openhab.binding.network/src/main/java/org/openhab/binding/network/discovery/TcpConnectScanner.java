@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.discovery;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+import org.openhab.binding.network.service.IPv4AddressIterator;
+import org.openhab.binding.network.service.NetworkUtils;
+
+/**
+ * Probes addresses by non-blocking TCP connects, which are all handled by one selector on the calling thread.
+ * A host is reachable if the connection is established or actively refused. Up to maxInFlight connects are
+ * pending at the same time, a connect which is not answered within the timeout is aborted.
+ *
+ * @author agent
+ */
+class TcpConnectScanner {
+    /**
+     * Receives the result of every probed address
+     */
+    interface Listener {
+        void addressReachable(int address);
+
+        void addressUnreachable(int address);
+    }
+
+    private final int port;
+    private final int timeout;
+    private final int maxInFlight;
+    private volatile boolean running = true;
+    private volatile Selector selector;
+    private int inFlight = 0;
+
+    public TcpConnectScanner(int port, int timeout, int maxInFlight) {
+        this.port = port;
+        this.timeout = timeout;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Aborts a running scan. Pending probes are neither reported reachable nor unreachable.
+     */
+    public void stop() {
+        running = false;
+        Selector s = selector;
+        if (s != null) {
+            s.wakeup();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Probes all remaining addresses of the iterator and returns when every probe is finished or the scan was
+     * stopped.
+     *
+     * @throws IOException if the selector or a socket could not be opened
+     */
+    public void scan(IPv4AddressIterator addresses, Listener listener) throws IOException {
+        // probes in the order they were started, which is also the order of their deadlines
+        Deque<Probe> probes = new ArrayDeque<Probe>();
+        try (Selector s = Selector.open()) {
+            selector = s;
+            while (running && (addresses.hasNext() || inFlight > 0)) {
+                while (inFlight < maxInFlight && addresses.hasNext()) {
+                    Probe probe = start(addresses.next(), listener);
+                    if (probe != null) {
+                        probes.add(probe);
+                    }
+                }
+
+                Probe oldest = probes.peek();
+                long wait = oldest == null ? 1 : oldest.deadline - System.currentTimeMillis();
+                s.select(Math.max(1, wait));
+                for (Iterator<SelectionKey> it = s.selectedKeys().iterator(); it.hasNext();) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    finish((Probe) key.attachment(), listener);
+                }
+
+                long now = System.currentTimeMillis();
+                while (!probes.isEmpty() && (probes.peek().done || probes.peek().deadline <= now)) {
+                    Probe probe = probes.poll();
+                    if (!probe.done) {
+                        complete(probe);
+                        listener.addressUnreachable(probe.address);
+                    }
+                }
+            }
+        } finally {
+            selector = null;
+            for (Probe probe : probes) {
+                if (!probe.done) {
+                    complete(probe);
+                }
+            }
+        }
+    }
+
+    private Probe start(int address, Listener listener) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            if (channel.connect(new InetSocketAddress(NetworkUtils.int2InetAddress(address), port))) {
+                channel.close();
+                listener.addressReachable(address);
+                return null;
+            }
+            Probe probe = new Probe(address, channel, System.currentTimeMillis() + timeout);
+            channel.register(selector, SelectionKey.OP_CONNECT, probe);
+            inFlight++;
+            return probe;
+        } catch (ConnectException e) {
+            // refused immediately, which requires a host to answer
+            channel.close();
+            listener.addressReachable(address);
+        } catch (IOException e) {
+            channel.close();
+            listener.addressUnreachable(address);
+        }
+        return null;
+    }
+
+    private void finish(Probe probe, Listener listener) {
+        boolean reachable;
+        try {
+            if (!probe.channel.finishConnect()) {
+                return;
+            }
+            reachable = true;
+        } catch (ConnectException e) {
+            reachable = true;
+        } catch (IOException e) {
+            reachable = false;
+        }
+        complete(probe);
+        if (reachable) {
+            listener.addressReachable(probe.address);
+        } else {
+            listener.addressUnreachable(probe.address);
+        }
+    }
+
+    private void complete(Probe probe) {
+        probe.done = true;
+        inFlight--;
+        try {
+            probe.channel.close();
+        } catch (IOException e) {
+        }
+    }
+
+    private static class Probe {
+        final int address;
+        final SocketChannel channel;
+        final long deadline;
+        boolean done = false;
+
+        Probe(int address, SocketChannel channel, long deadline) {
+            this.address = address;
+            this.channel = channel;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -10,6 +10,8 @@ package org.openhab.binding.network.handler;
 
 import static org.openhab.binding.network.NetworkBindingConstants.*;
 
+import java.util.Map;
+
 import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
@@ -21,6 +23,7 @@ import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
 import org.openhab.binding.network.service.InvalidConfigurationException;
+import org.openhab.binding.network.service.LatencyHistogram;
 import org.openhab.binding.network.service.NetworkService;
 import org.openhab.binding.network.service.StateUpdate;
 import org.slf4j.Logger;
@@ -82,6 +85,21 @@ public class NetworkHandler extends BaseThingHandler implements StateUpdate {
         updateState(CHANNEL_TIME, timeState);
     }
 
+    @Override
+    public void newLatencyHistogram(LatencyHistogram histogram) {
+        String median = histogram.formatPercentile(0.5);
+        String percentile95 = histogram.formatPercentile(0.95);
+        Map<String, String> properties = getThing().getProperties();
+        if (median.equals(properties.get(PROPERTY_LATENCY_MEDIAN))
+                && percentile95.equals(properties.get(PROPERTY_LATENCY_95TH_PERCENTILE))) {
+            return;
+        }
+        properties = editProperties();
+        properties.put(PROPERTY_LATENCY_MEDIAN, median);
+        properties.put(PROPERTY_LATENCY_95TH_PERCENTILE, percentile95);
+        updateProperties(properties);
+    }
+
     @Override
     public void invalidConfig() {
         updateStatus(ThingStatus.OFFLINE);
@@ -138,7 +156,7 @@ public class NetworkHandler extends BaseThingHandler implements StateUpdate {
             networkService.setUseSystemPing(confValueToBoolean(value));
         }
 
-        networkService.startAutomaticRefresh(scheduler, this);
+        networkService.startAutomaticRefresh(this);
     }
 
 }
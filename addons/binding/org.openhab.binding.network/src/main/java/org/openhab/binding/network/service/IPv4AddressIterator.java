@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the IPv4 addresses of one or more address ranges, e.g. the host addresses of every network the
+ * computer is connected to. The addresses are returned as int values, so no object is created per address.
+ * Overlapping ranges are merged, every address is returned once.
+ *
+ * Ranges have to be added before the iteration is started.
+ *
+ * @author agent
+ */
+public class IPv4AddressIterator {
+    /**
+     * Networks with a shorter prefix are limited to the /16 network around the interface address
+     */
+    public static final int MIN_PREFIX_LENGTH = 16;
+
+    /**
+     * The ranges as first and last address (unsigned, inclusive), sorted and not overlapping
+     */
+    private final List<long[]> ranges = new ArrayList<long[]>();
+    private int rangeIndex = 0;
+    private long nextAddress = -1;
+
+    /**
+     * Adds the host addresses of a network, without the network and the broadcast address.
+     *
+     * @param address Any address of the network
+     * @param prefixLength The network prefix length. Networks with a prefix length greater than 30 have no host
+     *            addresses to add, networks with a prefix length below {@link #MIN_PREFIX_LENGTH} are limited.
+     */
+    public void addSubnet(int address, int prefixLength) {
+        if (prefixLength > 30) {
+            return;
+        }
+        int length = Math.max(prefixLength, MIN_PREFIX_LENGTH);
+        long mask = (0xFFFFFFFFL << (32 - length)) & 0xFFFFFFFFL;
+        long network = (address & 0xFFFFFFFFL) & mask;
+        long broadcast = network | (~mask & 0xFFFFFFFFL);
+        addRange(network + 1, broadcast - 1);
+    }
+
+    /**
+     * Adds a range of addresses.
+     *
+     * @param first The first address as unsigned 32 bit value
+     * @param last The last address (inclusive) as unsigned 32 bit value
+     */
+    public void addRange(long first, long last) {
+        if (first > last) {
+            return;
+        }
+        ranges.add(new long[] { first, last });
+        Collections.sort(ranges, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] o1, long[] o2) {
+                return Long.compare(o1[0], o2[0]);
+            }
+        });
+
+        // merge overlapping and adjacent ranges
+        List<long[]> merged = new ArrayList<long[]>();
+        for (long[] range : ranges) {
+            long[] previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (previous != null && range[0] <= previous[1] + 1) {
+                previous[1] = Math.max(previous[1], range[1]);
+            } else {
+                merged.add(range);
+            }
+        }
+        ranges.clear();
+        ranges.addAll(merged);
+        reset();
+    }
+
+    /**
+     * @return The number of addresses in all ranges
+     */
+    public long size() {
+        long size = 0;
+        for (long[] range : ranges) {
+            size += range[1] - range[0] + 1;
+        }
+        return size;
+    }
+
+    /**
+     * @return True if the address is part of one of the ranges
+     */
+    public boolean contains(int address) {
+        long value = address & 0xFFFFFFFFL;
+        for (long[] range : ranges) {
+            if (value >= range[0] && value <= range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasNext() {
+        return rangeIndex < ranges.size();
+    }
+
+    /**
+     * @return The next address as 32 bit value
+     * @throws NoSuchElementException if all addresses were returned
+     */
+    public int next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        long[] range = ranges.get(rangeIndex);
+        if (nextAddress < range[0]) {
+            nextAddress = range[0];
+        }
+        int address = (int) nextAddress;
+        if (nextAddress++ == range[1]) {
+            rangeIndex++;
+        }
+        return address;
+    }
+
+    /**
+     * Restarts the iteration at the first address
+     */
+    public void reset() {
+        rangeIndex = 0;
+        nextAddress = -1;
+    }
+}
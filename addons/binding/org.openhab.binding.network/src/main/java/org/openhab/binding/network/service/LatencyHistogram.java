@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.service;
+
+/**
+ * Counts the latencies of successful probes of a device in buckets with fixed upper bounds.
+ *
+ * @author agent
+ */
+public class LatencyHistogram {
+    /**
+     * The upper bounds of the buckets in ms, the last bucket counts every greater latency
+     */
+    public static final int[] BUCKET_BOUNDS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+
+    private final long[] counts = new long[BUCKET_BOUNDS.length + 1];
+    private long total = 0;
+
+    public synchronized void add(double latency) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS.length && latency > BUCKET_BOUNDS[bucket]) {
+            bucket++;
+        }
+        counts[bucket]++;
+        total++;
+    }
+
+    public synchronized long getCount() {
+        return total;
+    }
+
+    /**
+     * @return The number of latencies in each bucket, the last element counts the latencies above the last bound
+     */
+    public synchronized long[] getCounts() {
+        return counts.clone();
+    }
+
+    /**
+     * @param fraction The fraction of latencies, e.g. 0.95
+     * @return The upper bound of the bucket which contains the given fraction of latencies, -1 if there are no
+     *         latencies, or Integer.MAX_VALUE if it is the last bucket
+     */
+    public synchronized int getPercentileBound(double fraction) {
+        if (total == 0) {
+            return -1;
+        }
+        long needed = (long) Math.ceil(total * fraction);
+        long sum = 0;
+        for (int bucket = 0; bucket < BUCKET_BOUNDS.length; bucket++) {
+            sum += counts[bucket];
+            if (sum >= needed) {
+                return BUCKET_BOUNDS[bucket];
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Formats the upper bound of a percentile, e.g. "<= 5 ms"
+     */
+    public String formatPercentile(double fraction) {
+        int bound = getPercentileBound(fraction);
+        if (bound < 0) {
+            return "";
+        } else if (bound == Integer.MAX_VALUE) {
+            return "> " + BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1] + " ms";
+        }
+        return "<= " + bound + " ms";
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            if (bucket > 0) {
+                builder.append(", ");
+            }
+            builder.append(bucket < BUCKET_BOUNDS.length ? "<=" + BUCKET_BOUNDS[bucket]
+                    : ">" + BUCKET_BOUNDS[BUCKET_BOUNDS.length - 1]).append("ms: ").append(counts[bucket]);
+        }
+        return builder.toString();
+    }
+}
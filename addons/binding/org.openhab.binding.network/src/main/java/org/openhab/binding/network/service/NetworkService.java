@@ -13,9 +13,6 @@ import java.net.InetAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.model.script.actions.Ping;
 import org.openhab.binding.network.service.dhcp.ReceiveDHCPRequestPackets;
@@ -27,13 +24,12 @@ import org.slf4j.LoggerFactory;
  *
  * @author Marc Mettke
  * @author David Gräff, 2016 - Add DHCP listen for request packets
+ * @author agent - Check all devices by the shared presence engine
  */
 public class NetworkService {
 
     private static Logger logger = LoggerFactory.getLogger(NetworkService.class);
 
-    private ScheduledFuture<?> refreshJob;
-
     private String hostname;
     private int port;
     private int retry;
@@ -110,20 +106,15 @@ public class NetworkService {
         this.useSystemPing = useSystemPing;
     }
 
-    public void startAutomaticRefresh(ScheduledExecutorService scheduledExecutorService,
-            final StateUpdate stateUpdate) {
-        Runnable runnable = new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    stateUpdate.newState(updateDeviceState());
-                } catch (InvalidConfigurationException e) {
-                    stateUpdate.invalidConfig();
-                }
-            }
-        };
-
-        refreshJob = scheduledExecutorService.scheduleAtFixedRate(runnable, 0, refreshInterval, TimeUnit.MILLISECONDS);
+    /**
+     * Registers this device at the {@link PresenceEngine}, which checks it once per refresh interval
+     */
+    public void startAutomaticRefresh(StateUpdate stateUpdate) {
+        try {
+            PresenceEngine.register(this, stateUpdate);
+        } catch (IOException e) {
+            logger.error("Cannot start the network presence engine: " + e.getMessage());
+        }
 
         if (dhcplisten) {
             try {
@@ -135,7 +126,7 @@ public class NetworkService {
     }
 
     public void stopAutomaticRefresh() {
-        refreshJob.cancel(true);
+        PresenceEngine.unregister(this);
         try {
             ReceiveDHCPRequestPackets.unregister(InetAddress.getByName(hostname).getHostAddress());
         } catch (UnknownHostException e) {
@@ -8,6 +8,9 @@
  */
 package org.openhab.binding.network.service;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
 import java.net.Inet4Address;
 import java.net.InetAddress;
@@ -16,8 +19,10 @@ import java.net.NetworkInterface;
 import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.TreeSet;
 
 import org.apache.commons.lang.SystemUtils;
@@ -29,6 +34,8 @@ import org.apache.commons.net.util.SubnetUtils;
  * @author David Graeff <david.graeff@web.de>
  */
 public class NetworkUtils {
+    private static final String ARP_CACHE_FILE = "/proc/net/arp";
+    private static final int ARP_FLAG_COMPLETE = 0x2;
 
     /**
      * Gets every IPv4 Address on each Interface except the loopback
@@ -87,6 +94,68 @@ public class NetworkUtils {
         return networkIPs;
     }
 
+    /**
+     * Collects the host addresses of every IPv4 network the computer is connected to, except the loopback network.
+     * Unlike {@link #getNetworkIPs(TreeSet)} the addresses are not materialized.
+     *
+     * @return An iterator over every IP which can be assigned on the networks
+     */
+    public static IPv4AddressIterator getInterfaceAddresses() {
+        IPv4AddressIterator addresses = new IPv4AddressIterator();
+
+        try {
+            for (Enumeration<NetworkInterface> en = NetworkInterface.getNetworkInterfaces(); en.hasMoreElements();) {
+                NetworkInterface networkInterface = en.nextElement();
+                if (!networkInterface.isLoopback() && networkInterface.isUp()) {
+                    for (InterfaceAddress interfaceAddress : networkInterface.getInterfaceAddresses()) {
+                        if (interfaceAddress.getAddress() instanceof Inet4Address) {
+                            addresses.addSubnet(inetAddress2Int(interfaceAddress.getAddress()),
+                                    interfaceAddress.getNetworkPrefixLength());
+                        }
+                    }
+                }
+            }
+        } catch (SocketException e) {
+        }
+
+        return addresses;
+    }
+
+    /**
+     * Reads the IPv4 addresses with a resolved hardware address from the ARP cache of the operating system.
+     * Only the Linux ARP cache is supported.
+     *
+     * @return The addresses as 32 bits int, or null if the ARP cache can not be read
+     */
+    public static Set<Integer> getArpCacheAddresses() {
+        File arpCache = new File(ARP_CACHE_FILE);
+        if (!arpCache.canRead()) {
+            return null;
+        }
+
+        Set<Integer> addresses = new HashSet<Integer>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(arpCache))) {
+            // skip the header: IP address, HW type, Flags, HW address, Mask, Device
+            String line = reader.readLine();
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields.length < 4) {
+                    continue;
+                }
+                try {
+                    if ((Integer.decode(fields[2]) & ARP_FLAG_COMPLETE) != 0) {
+                        addresses.add(inetAddress2Int(InetAddress.getByName(fields[0])));
+                    }
+                } catch (NumberFormatException | UnknownHostException e) {
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        return addresses;
+    }
+
     /**
      * Converts 32 bits int to IPv4 <tt>InetAddress</tt>.
      *
@@ -0,0 +1,463 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.service;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A singleton presence engine, which checks the devices of all registered NetworkServices on one thread.
+ * If the first NetworkService is registered and there is no singleton instance, an instance will be created and the
+ * engine thread will be started. If the last NetworkService is removed, the thread will be stopped.
+ *
+ * Every device is checked once per refresh interval. The checks of different devices are spread evenly over the
+ * interval instead of starting all at once. Devices with a port are checked by non-blocking TCP connects on one
+ * selector. Devices without a port are checked by a connect to the echo port, which is reachable if the connection
+ * is established or refused. If the echo port doesn't answer, they are checked by {@link InetAddress#isReachable},
+ * which sends an ICMP request if the privileges allow it. Devices which use the system ping are pinged by a ping
+ * program which keeps running, see {@link SystemPingProcess}.
+ *
+ * The hostname of a device is resolved once and resolved again after the device was unreachable. Resolving and
+ * isReachable block, so they are done by worker threads, which pass their results back to the engine thread.
+ *
+ * Each result is reported by StateUpdate.newState, followed by the latency histogram of the device.
+ *
+ * @author agent
+ */
+public class PresenceEngine extends Thread {
+    /**
+     * The fractional part of the golden ratio. The phase of the n-th registered device is n times this value,
+     * which spreads any number of devices evenly over the refresh interval.
+     */
+    private static final double PHASE_STEP = 0.6180339887498949;
+    /**
+     * The first check of a device is done within this time after registering, before it moves to its phase
+     */
+    private static final long INITIAL_SPREAD = 5000;
+    private static final long MAX_SELECT_TIME = 1000;
+    private static final int ECHO_PORT = 7;
+    private static final int WORKER_THREADS = 4;
+
+    private static Logger logger = LoggerFactory.getLogger(PresenceEngine.class);
+    private static PresenceEngine instance;
+    private static Map<NetworkService, Target> registeredTargets = new IdentityHashMap<>();
+    private static int registrationCount = 0;
+
+    private final Selector selector;
+    private volatile boolean willbeclosed = false;
+    private volatile List<Target> targets = Collections.emptyList();
+    private final ThreadPoolExecutor workers;
+    private final Queue<Runnable> workerResults = new ConcurrentLinkedQueue<>();
+
+    public static synchronized void register(NetworkService service, StateUpdate stateUpdate) throws IOException {
+        unregister(service);
+        if (instance == null) {
+            instance = new PresenceEngine();
+            instance.start();
+        }
+        Target target = new Target(service, stateUpdate, (registrationCount++ * PHASE_STEP) % 1.0,
+                System.currentTimeMillis());
+        registeredTargets.put(service, target);
+        instance.targets = new ArrayList<>(registeredTargets.values());
+        instance.selector.wakeup();
+    }
+
+    public static synchronized void unregister(NetworkService service) {
+        Target target = registeredTargets.remove(service);
+        if (target == null) {
+            return;
+        }
+        target.removed = true;
+        if (target.pingProcess != null) {
+            target.pingProcess.stop();
+        }
+
+        if (!registeredTargets.isEmpty()) {
+            instance.targets = new ArrayList<>(registeredTargets.values());
+            instance.selector.wakeup();
+            return;
+        }
+
+        instance.willbeclosed = true;
+        instance.selector.wakeup();
+        try {
+            instance.join(1000);
+        } catch (InterruptedException e) {
+        }
+        instance = null;
+    }
+
+    PresenceEngine() throws IOException {
+        super("Network presence");
+        setDaemon(true);
+        selector = Selector.open();
+        workers = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "Network presence worker");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        workers.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void run() {
+        logger.debug("Network presence engine started");
+        try {
+            while (!willbeclosed) {
+                Runnable workerResult;
+                while ((workerResult = workerResults.poll()) != null) {
+                    workerResult.run();
+                }
+
+                long now = System.currentTimeMillis();
+                long wakeup = now + MAX_SELECT_TIME;
+                for (Target target : targets) {
+                    if (target.removed) {
+                        continue;
+                    }
+                    if (target.probe != null && target.probe.deadline <= now) {
+                        probeFinished(target, false, now);
+                    }
+                    if (target.probe == null && target.nextCheck <= now) {
+                        check(target, now);
+                    }
+                    wakeup = Math.min(wakeup, target.probe != null ? target.probe.deadline : target.nextCheck);
+                }
+
+                selector.select(Math.max(1, wakeup - now));
+                now = System.currentTimeMillis();
+                for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext();) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    Target target = (Target) key.attachment();
+                    Probe probe = target.probe;
+                    if (probe == null || probe.key != key) {
+                        key.cancel();
+                        continue;
+                    }
+                    boolean success;
+                    try {
+                        if (!probe.channel.finishConnect()) {
+                            continue;
+                        }
+                        success = true;
+                    } catch (ConnectException e) {
+                        // refused, which requires the host to answer
+                        success = probe.echo;
+                    } catch (IOException e) {
+                        success = false;
+                    }
+                    probeFinished(target, success, now);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Network presence engine failed: {}", e.getLocalizedMessage());
+        } finally {
+            workers.shutdownNow();
+            for (Target target : targets) {
+                if (target.probe != null) {
+                    target.probe.close();
+                    target.probe = null;
+                }
+                if (target.pingProcess != null) {
+                    target.pingProcess.stop();
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+            }
+            logger.debug("Network presence engine stopped");
+        }
+    }
+
+    private void check(Target target, long now) {
+        if (target.useSystemPing) {
+            checkPingProcess(target, now);
+            return;
+        }
+        if (target.address == null) {
+            resolve(target);
+            return;
+        }
+
+        boolean echo = target.port <= 0;
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            target.probe = new Probe(channel, echo, now + target.timeout);
+            if (channel.connect(new InetSocketAddress(target.address, echo ? ECHO_PORT : target.port))) {
+                probeFinished(target, true, now);
+            } else {
+                target.probe.key = channel.register(selector, SelectionKey.OP_CONNECT, target);
+            }
+        } catch (ConnectException e) {
+            probeFinished(target, echo, now);
+        } catch (IOException | SecurityException e) {
+            logger.debug("couldn't establish network connection [host '{}' port '{}' timeout '{}']",
+                    new Object[] { target.hostname, target.port, target.timeout });
+            if (target.probe == null && channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            probeFinished(target, false, now);
+        }
+    }
+
+    private void probeFinished(Target target, boolean success, long now) {
+        Probe probe = target.probe;
+        target.probe = null;
+        double latency = -1;
+        if (probe != null) {
+            probe.close();
+            latency = (System.nanoTime() - probe.startNanos) / 1000000.0;
+            if (!success && probe.echo) {
+                checkReachable(target);
+                return;
+            }
+        }
+
+        if (success) {
+            logger.debug("established connection [host '{}' port '{}' timeout '{}']",
+                    new Object[] { target.hostname, target.port, target.timeout });
+            target.attempt = 0;
+            target.nextCheck = target.nextPhase(now);
+            report(target, Math.max(0, latency));
+        } else if (target.attempt < target.retry) {
+            target.attempt++;
+            target.nextCheck = now;
+        } else {
+            target.attempt = 0;
+            target.nextCheck = target.nextPhase(now);
+            // the address of the device may have changed
+            target.address = null;
+            report(target, -1);
+        }
+    }
+
+    /**
+     * Resolves the hostname of the device on a worker thread and checks the device once it is resolved.
+     */
+    private void resolve(final Target target) {
+        final Probe probe = new Probe(null, false, Long.MAX_VALUE);
+        target.probe = probe;
+        workers.execute(new Runnable() {
+            @Override
+            public void run() {
+                InetAddress address = null;
+                try {
+                    address = InetAddress.getByName(target.hostname);
+                } catch (UnknownHostException | SecurityException e) {
+                    logger.debug("couldn't resolve host '{}': {}", target.hostname, e.getMessage());
+                }
+                final InetAddress resolvedAddress = address;
+                runOnEngineThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (target.probe != probe) {
+                            return;
+                        }
+                        long now = System.currentTimeMillis();
+                        if (resolvedAddress == null) {
+                            probeFinished(target, false, now);
+                        } else {
+                            target.probe = null;
+                            target.address = resolvedAddress;
+                            check(target, now);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Checks a device without a port which didn't answer on the echo port by {@link InetAddress#isReachable} on a
+     * worker thread, which returns after the timeout at the latest.
+     */
+    private void checkReachable(final Target target) {
+        final Probe probe = new Probe(null, false, Long.MAX_VALUE);
+        final InetAddress address = target.address;
+        target.probe = probe;
+        workers.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean reachable = false;
+                try {
+                    reachable = address.isReachable(target.timeout);
+                } catch (IOException e) {
+                    logger.debug("couldn't ping host '{}': {}", target.hostname, e.getMessage());
+                }
+                final boolean success = reachable;
+                runOnEngineThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (target.probe == probe) {
+                            probeFinished(target, success, System.currentTimeMillis());
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void runOnEngineThread(Runnable workerResult) {
+        workerResults.add(workerResult);
+        selector.wakeup();
+    }
+
+    /**
+     * The ping program pings (retry + 1) times per refresh interval, the device is reachable if at least one reply
+     * was received since the last check.
+     */
+    private void checkPingProcess(Target target, long now) {
+        target.nextCheck = target.nextPhase(now);
+        SystemPingProcess process = target.pingProcess;
+        int replies = process.readReplies();
+        if (!process.isAlive()) {
+            logger.debug("ping program for host '{}' ended, restarting", target.hostname);
+            try {
+                process.start();
+            } catch (InvalidConfigurationException e) {
+                target.stateUpdate.invalidConfig();
+                return;
+            } catch (IOException e) {
+                logger.debug("couldn't start ping program for host '{}': {}", target.hostname, e.getMessage());
+            }
+        }
+        report(target, replies > 0 ? process.getLastLatency() : -1);
+    }
+
+    private void report(Target target, double latency) {
+        if (target.removed) {
+            return;
+        }
+        try {
+            target.stateUpdate.newState(latency);
+            if (latency >= 0) {
+                target.histogram.add(latency);
+                target.stateUpdate.newLatencyHistogram(target.histogram);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to report the state of host '{}'", target.hostname, e);
+        }
+    }
+
+    /**
+     * A running check of a device. Checks done by a worker thread have no channel and no deadline, they end with
+     * the result of the worker.
+     */
+    private static class Probe {
+        final SocketChannel channel;
+        final boolean echo;
+        final long deadline;
+        final long startNanos = System.nanoTime();
+        SelectionKey key;
+
+        Probe(SocketChannel channel, boolean echo, long deadline) {
+            this.channel = channel;
+            this.echo = echo;
+            this.deadline = deadline;
+        }
+
+        void close() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    /**
+     * The configuration and check state of one registered device. Except for the removed flag, the check state is
+     * only accessed by the engine thread.
+     */
+    private static class Target {
+        final StateUpdate stateUpdate;
+        final String hostname;
+        final int port;
+        final int retry;
+        final long refreshInterval;
+        final int timeout;
+        final boolean useSystemPing;
+        final long phase;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final SystemPingProcess pingProcess;
+
+        volatile boolean removed = false;
+        InetAddress address;
+        Probe probe;
+        int attempt = 0;
+        long nextCheck;
+
+        Target(NetworkService service, StateUpdate stateUpdate, double phase, long now) {
+            this.stateUpdate = stateUpdate;
+            this.hostname = service.getHostname();
+            this.port = service.getPort();
+            this.retry = service.getRetry();
+            this.refreshInterval = Math.max(1, service.getRefreshInterval());
+            this.timeout = service.getTimeout();
+            this.useSystemPing = service.isUseSystemPing();
+            this.phase = (long) (phase * refreshInterval);
+            if (useSystemPing) {
+                pingProcess = new SystemPingProcess(hostname, refreshInterval / (retry + 1), timeout);
+                try {
+                    pingProcess.start();
+                } catch (InvalidConfigurationException e) {
+                    stateUpdate.invalidConfig();
+                } catch (IOException e) {
+                    logger.debug("couldn't start ping program for host '{}': {}", hostname, e.getMessage());
+                }
+                // give the first ping time to be answered
+                nextCheck = now + timeout;
+            } else {
+                pingProcess = null;
+                nextCheck = now + (long) (phase * Math.min(refreshInterval, INITIAL_SPREAD));
+            }
+        }
+
+        /**
+         * @return The next time after now at which the refresh interval of this device reaches its phase
+         */
+        long nextPhase(long now) {
+            return ((now - phase) / refreshInterval + 1) * refreshInterval + phase;
+        }
+    }
+}
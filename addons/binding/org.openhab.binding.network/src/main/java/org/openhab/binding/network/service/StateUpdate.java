@@ -22,5 +22,12 @@ public interface StateUpdate {
      */
     public void newState(double state);
 
+    /**
+     * The latencies of all successful checks since the automatic refresh was started.
+     *
+     * @param histogram The histogram, which is updated by the presence engine after this call returns.
+     */
+    public void newLatencyHistogram(LatencyHistogram histogram);
+
     public void invalidConfig();
 }
@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.network.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang.SystemUtils;
+
+/**
+ * A ping program of the operating system, which keeps running and pings one host periodically. The output is read
+ * without blocking, so the replies of many hosts can be checked on one thread, without starting a process for
+ * every ping.
+ *
+ * @author agent
+ */
+public class SystemPingProcess {
+    private final String hostname;
+    private final long interval;
+    private final int timeout;
+
+    private Process process;
+    private final byte[] buffer = new byte[1024];
+    private final StringBuilder line = new StringBuilder();
+    private double lastLatency = 0;
+    private boolean stopped = false;
+
+    /**
+     * @param hostname The host to ping
+     * @param interval The time between two pings in ms, at least one second
+     * @param timeout The time to wait for a reply in ms, only used on Windows
+     */
+    public SystemPingProcess(String hostname, long interval, int timeout) {
+        this.hostname = hostname;
+        this.interval = interval;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Starts the ping program, or restarts it if it has ended. Does nothing after {@link #stop()}.
+     */
+    public synchronized void start() throws InvalidConfigurationException, IOException {
+        if (stopped) {
+            return;
+        }
+        List<String> command;
+        if (SystemUtils.IS_OS_UNIX) {
+            command = Arrays.asList("ping", "-n", "-i", String.valueOf(Math.max(1, interval / 1000)), hostname);
+        } else if (SystemUtils.IS_OS_WINDOWS) {
+            // Windows pings once per second
+            command = Arrays.asList("ping", "-t", "-w", String.valueOf(timeout), hostname);
+        } else {
+            throw new InvalidConfigurationException("System Ping not supported");
+        }
+        line.setLength(0);
+        process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    }
+
+    /**
+     * Stops the ping program for good
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (process != null) {
+            process.destroy();
+            process = null;
+        }
+    }
+
+    public synchronized boolean isAlive() {
+        if (process == null) {
+            return false;
+        }
+        try {
+            process.exitValue();
+            return false;
+        } catch (IllegalThreadStateException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Reads the output the ping program has written since the last call, without blocking.
+     *
+     * @return The number of replies received since the last call
+     */
+    public synchronized int readReplies() {
+        if (process == null) {
+            return 0;
+        }
+        int replies = 0;
+        InputStream in = process.getInputStream();
+        try {
+            int available;
+            while ((available = in.available()) > 0) {
+                int length = in.read(buffer, 0, Math.min(available, buffer.length));
+                if (length < 0) {
+                    break;
+                }
+                for (int i = 0; i < length; i++) {
+                    char c = (char) buffer[i];
+                    if (c == '\n') {
+                        double latency = parseLatency(line);
+                        if (latency >= 0) {
+                            lastLatency = latency;
+                            replies++;
+                        }
+                        line.setLength(0);
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        } catch (IOException e) {
+        }
+        return replies;
+    }
+
+    /**
+     * @return The latency of the last reply in ms
+     */
+    public synchronized double getLastLatency() {
+        return lastLatency;
+    }
+
+    /**
+     * Parses the latency of a reply line like "64 bytes from 192.168.0.1: icmp_seq=1 ttl=64 time=0.517 ms" or
+     * "Reply from 192.168.0.1: bytes=32 time<1ms TTL=64".
+     *
+     * @return The latency in ms, or -1 if the line is no reply
+     */
+    static double parseLatency(CharSequence line) {
+        String text = line.toString();
+        int index = text.indexOf("time=");
+        if (index < 0) {
+            index = text.indexOf("time<");
+        }
+        if (index < 0) {
+            return -1;
+        }
+        int start = index + 5;
+        int end = start;
+        while (end < text.length() && (Character.isDigit(text.charAt(end)) || text.charAt(end) == '.')) {
+            end++;
+        }
+        try {
+            return Double.parseDouble(text.substring(start, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
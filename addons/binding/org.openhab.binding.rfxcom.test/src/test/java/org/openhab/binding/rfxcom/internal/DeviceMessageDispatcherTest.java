@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rfxcom.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.rfxcom.RFXComBindingConstants;
+import org.openhab.binding.rfxcom.internal.exceptions.RFXComException;
+import org.openhab.binding.rfxcom.internal.exceptions.RFXComNotImpException;
+import org.openhab.binding.rfxcom.internal.messages.RFXComLighting2Message;
+import org.openhab.binding.rfxcom.internal.messages.RFXComMessage;
+
+/**
+ * Tests cases for {@link DeviceMessageDispatcher}.
+ *
+ * @author agent
+ */
+public class DeviceMessageDispatcherTest {
+
+    private static final ThingUID BRIDGE = new ThingUID("rfxcom:bridge:test");
+
+    private static final byte[] LIGHTING2_PACKET = new byte[] { 0x0B, 0x11, 0x00, 0x01, 0x00, 0x00, 0x00, 0x01, 0x02,
+            0x01, 0x0F, 0x70 };
+    private static final byte[] TEMPERATURE_PACKET = new byte[] { 0x08, 0x50, 0x01, 0x02, 0x12, 0x34, 0x00, (byte) 0xD2,
+            0x79 };
+
+    private DeviceMessageDispatcher dispatcher;
+    private RecordingListener deviceListener;
+
+    @Before
+    public void setUp() {
+        dispatcher = new DeviceMessageDispatcher();
+        deviceListener = new RecordingListener();
+        dispatcher.addDeviceListener(deviceListener, RFXComBindingConstants.THING_TYPE_LIGHTNING2, "1.2");
+    }
+
+    @Test
+    public void unregisteredPacketTypeIsNotDecoded() throws RFXComException, RFXComNotImpException {
+        assertNull(dispatcher.dispatch(BRIDGE, TEMPERATURE_PACKET));
+        assertTrue(deviceListener.messages.isEmpty());
+    }
+
+    @Test
+    public void registeredDeviceReceivesItsMessages() throws RFXComException, RFXComNotImpException {
+        RFXComMessage message = dispatcher.dispatch(BRIDGE, LIGHTING2_PACKET);
+
+        assertTrue(message instanceof RFXComLighting2Message);
+        assertEquals("1.2", message.getDeviceId());
+        assertEquals(1, deviceListener.messages.size());
+        assertSame(message, deviceListener.messages.get(0));
+    }
+
+    @Test
+    public void removedDeviceListenerStopsDecoding() throws RFXComException, RFXComNotImpException {
+        dispatcher.removeListener(deviceListener);
+
+        assertNull(dispatcher.dispatch(BRIDGE, LIGHTING2_PACKET));
+        assertTrue(deviceListener.messages.isEmpty());
+    }
+
+    @Test
+    public void discoveryListenerReceivesAllMessages() throws RFXComException, RFXComNotImpException {
+        RecordingListener discoveryListener = new RecordingListener();
+        dispatcher.setDiscoveryListener(discoveryListener);
+
+        RFXComMessage message = dispatcher.dispatch(BRIDGE, TEMPERATURE_PACKET);
+
+        assertNotNull(message);
+        assertEquals("4660", message.getDeviceId());
+        assertEquals(1, discoveryListener.messages.size());
+        assertTrue(deviceListener.messages.isEmpty());
+
+        dispatcher.setDiscoveryListener(null);
+        assertNull(dispatcher.dispatch(BRIDGE, TEMPERATURE_PACKET));
+        assertEquals(1, discoveryListener.messages.size());
+    }
+
+    private static class RecordingListener implements DeviceMessageListener {
+        private final List<RFXComMessage> messages = new ArrayList<>();
+
+        @Override
+        public void onDeviceMessageReceived(ThingUID bridge, RFXComMessage message) {
+            messages.add(message);
+        }
+    }
+}
@@ -9,8 +9,6 @@
 package org.openhab.binding.rfxcom.handler;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -20,10 +18,13 @@ import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
+import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.rfxcom.RFXComBindingConstants;
+import org.openhab.binding.rfxcom.internal.DeviceMessageDispatcher;
 import org.openhab.binding.rfxcom.internal.DeviceMessageListener;
+import org.openhab.binding.rfxcom.internal.RFXComTransmitQueue;
 import org.openhab.binding.rfxcom.internal.config.RFXComBridgeConfiguration;
 import org.openhab.binding.rfxcom.internal.connector.RFXComConnectorInterface;
 import org.openhab.binding.rfxcom.internal.connector.RFXComEventListener;
@@ -32,7 +33,7 @@ import org.openhab.binding.rfxcom.internal.connector.RFXComSerialConnector;
 import org.openhab.binding.rfxcom.internal.connector.RFXComTcpConnector;
 import org.openhab.binding.rfxcom.internal.exceptions.RFXComException;
 import org.openhab.binding.rfxcom.internal.exceptions.RFXComNotImpException;
-import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage;
+import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage.PacketType;
 import org.openhab.binding.rfxcom.internal.messages.RFXComInterfaceMessage;
 import org.openhab.binding.rfxcom.internal.messages.RFXComInterfaceMessage.Commands;
 import org.openhab.binding.rfxcom.internal.messages.RFXComInterfaceMessage.SubType;
@@ -59,12 +60,16 @@ public class RFXComBridgeHandler extends BaseBridgeHandler {
     RFXComConnectorInterface connector = null;
     private MessageListener eventListener = new MessageListener();
 
-    private List<DeviceMessageListener> deviceStatusListeners = new CopyOnWriteArrayList<>();
+    private final DeviceMessageDispatcher deviceMessageDispatcher = new DeviceMessageDispatcher();
 
-    private static final int timeout = 5000;
-    private static byte seqNbr = 0;
-    private static RFXComTransmitterMessage responseMessage = null;
-    private Object notifierObject = new Object();
+    private RFXComTransmitQueue transmitQueue = new RFXComTransmitQueue(scheduler,
+            new RFXComTransmitQueue.TransmitErrorListener() {
+
+                @Override
+                public void transmitFailed(String reason) {
+                    updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, reason);
+                }
+            });
     private RFXComBridgeConfiguration configuration = null;
     private ScheduledFuture<?> connectorTask;
 
@@ -81,9 +86,9 @@ public class RFXComBridgeHandler extends BaseBridgeHandler {
     public void dispose() {
         logger.debug("Handler disposed.");
 
-        for (DeviceMessageListener deviceStatusListener : deviceStatusListeners) {
-            unregisterDeviceStatusListener(deviceStatusListener);
-        }
+        deviceMessageDispatcher.clear();
+
+        transmitQueue.setConnector(null);
 
         if (connector != null) {
             connector.removeEventListener(eventListener);
@@ -119,26 +124,6 @@ public class RFXComBridgeHandler extends BaseBridgeHandler {
         }
     }
 
-    private static synchronized byte getSeqNumber() {
-        return seqNbr;
-    }
-
-    private static synchronized byte getNextSeqNumber() {
-        if (++seqNbr == 0) {
-            seqNbr = 1;
-        }
-
-        return seqNbr;
-    }
-
-    private static synchronized RFXComTransmitterMessage getResponseMessage() {
-        return responseMessage;
-    }
-
-    private static synchronized void setResponseMessage(RFXComTransmitterMessage respMessage) {
-        responseMessage = respMessage;
-    }
-
     private void connect() {
         logger.debug("Connecting to RFXCOM transceiver");
 
@@ -158,6 +143,7 @@ public class RFXComBridgeHandler extends BaseBridgeHandler {
             }
 
             if (connector != null) {
+                transmitQueue.setConnector(null);
                 connector.disconnect();
                 connector.connect(configuration);
 
@@ -209,6 +195,7 @@ public class RFXComBridgeHandler extends BaseBridgeHandler {
 
                 logger.debug("Start receiver");
                 connector.sendMessage(RFXComMessageFactory.CMD_START_RECEIVER);
+                transmitQueue.setConnector(connector);
                 updateStatus(ThingStatus.ONLINE);
             }
         } catch (NoSuchPortException e) {
@@ -317,92 +304,53 @@ public class RFXComBridgeHandler extends BaseBridgeHandler {
         throw new IllegalArgumentException("");
     }
 
-    public synchronized void sendMessage(RFXComMessage msg) throws RFXComException {
-
-        ((RFXComBaseMessage) msg).seqNbr = getNextSeqNumber();
-        byte[] data = msg.decodeMessage();
-
-        logger.debug("Transmitting message '{}'", msg);
-        logger.trace("Transmitting data: {}", DatatypeConverter.printHexBinary(data));
-
-        setResponseMessage(null);
-
-        try {
-            connector.sendMessage(data);
-        } catch (IOException e) {
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
-            throw new RFXComException("Send failed, reason: " + e.getMessage(), e);
-        }
-
-        try {
-
-            RFXComTransmitterMessage resp = null;
-            synchronized (notifierObject) {
-                notifierObject.wait(timeout);
-                resp = getResponseMessage();
-            }
-
-            if (resp != null) {
-                switch (resp.response) {
-                    case ACK:
-                    case ACK_DELAYED:
-                        logger.debug("Command successfully transmitted, '{}' received", resp.response);
-                        break;
-
-                    case NAK:
-                    case NAK_INVALID_AC_ADDRESS:
-                    case UNKNOWN:
-                        logger.error("Command transmit failed, '{}' received", resp.response);
-                        break;
-                }
-            } else {
-                logger.warn("No response received from transceiver");
-                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
-            }
+    /**
+     * Queues the message for transmission, the message is transmitted without waiting for the responses to earlier
+     * messages.
+     *
+     * @param listener
+     *            - listener for the response of the transceiver, may be null
+     */
+    public void sendMessage(RFXComMessage msg, RFXComTransmitQueue.TransmitResultListener listener)
+            throws RFXComException {
+        transmitQueue.submit(msg, listener);
+    }
 
-        } catch (InterruptedException ie) {
-            logger.error("No acknowledge received from RFXCOM controller, timeout {}ms ", timeout);
-            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
-        }
+    /**
+     * Returns the queue of the messages transmitted through this bridge, e.g. for its queue depth and ACK latency.
+     */
+    public RFXComTransmitQueue getTransmitQueue() {
+        return transmitQueue;
     }
 
     private class MessageListener implements RFXComEventListener {
 
         @Override
         public void packetReceived(byte[] packet) {
-            try {
-                RFXComMessage message = RFXComMessageFactory.createMessage(packet);
-                logger.debug("Message received: {}", message);
+            PacketType packetType = RFXComMessageFactory.getPacketType(packet[1]);
+            if (!RFXComMessageFactory.isImplemented(packetType)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Message not supported, data: {}", DatatypeConverter.printHexBinary(packet));
+                }
+                updateStatus(ThingStatus.ONLINE);
+                return;
+            }
 
-                if (message instanceof RFXComInterfaceMessage) {
-                    RFXComInterfaceMessage msg = (RFXComInterfaceMessage) message;
+            try {
+                if (packetType == PacketType.INTERFACE_MESSAGE) {
+                    RFXComInterfaceMessage msg = (RFXComInterfaceMessage) RFXComMessageFactory.createMessage(packet);
+                    logger.debug("Message received: {}", msg);
                     if (msg.subType == SubType.RESPONSE) {
                         logger.debug("RFXCOM transceiver/receiver type: {}, hw version: {}.{}, fw version: {}",
                                 msg.transceiverType, msg.hardwareVersion1, msg.hardwareVersion2, msg.firmwareVersion);
                     }
-                } else if (message instanceof RFXComTransmitterMessage) {
-                    RFXComTransmitterMessage resp = (RFXComTransmitterMessage) message;
-
-                    byte seqNbr = getSeqNumber();
-                    if (resp.seqNbr == seqNbr) {
-                        logger.debug("Transmitter response received: {}", message.toString());
-                        setResponseMessage(resp);
-                        synchronized (notifierObject) {
-                            notifierObject.notify();
-                        }
-                    } else {
-                        logger.warn("Sequence number '{}' does not match, expecting number '{}'", resp.seqNbr, seqNbr);
-                    }
-
+                } else if (packetType == PacketType.TRANSMITTER_MESSAGE) {
+                    RFXComMessage message = RFXComMessageFactory.createMessage(packet);
+                    logger.debug("Transmitter response received: {}", message);
+                    transmitQueue.responseReceived((RFXComTransmitterMessage) message);
                 } else {
-
-                    for (DeviceMessageListener deviceStatusListener : deviceStatusListeners) {
-                        try {
-                            deviceStatusListener.onDeviceMessageReceived(getThing().getUID(), message);
-                        } catch (Exception e) {
-                            logger.error("An exception occurred while calling the DeviceStatusListener", e);
-                        }
-                    }
+                    // only decoded if anybody is interested in this kind of device
+                    deviceMessageDispatcher.dispatch(getThing().getUID(), packet);
                 }
             } catch (RFXComNotImpException e) {
                 logger.debug("Message not supported, data: {}", DatatypeConverter.printHexBinary(packet));
@@ -421,19 +369,45 @@ public class RFXComBridgeHandler extends BaseBridgeHandler {
         }
     }
 
+    /**
+     * Registers a listener for all device messages.
+     */
     public boolean registerDeviceStatusListener(DeviceMessageListener deviceStatusListener) {
         if (deviceStatusListener == null) {
             throw new IllegalArgumentException("It's not allowed to pass a null deviceStatusListener.");
         }
-        return deviceStatusListeners.contains(deviceStatusListener) ? false
-                : deviceStatusListeners.add(deviceStatusListener);
+        return deviceMessageDispatcher.addListener(deviceStatusListener);
     }
 
     public boolean unregisterDeviceStatusListener(DeviceMessageListener deviceStatusListener) {
         if (deviceStatusListener == null) {
             throw new IllegalArgumentException("It's not allowed to pass a null deviceStatusListener.");
         }
-        return deviceStatusListeners.remove(deviceStatusListener);
+        return deviceMessageDispatcher.removeListener(deviceStatusListener);
     }
 
-}
\ No newline at end of file
+    /**
+     * Registers a listener for the messages of a single device. Unlike listeners registered by
+     * {@link #registerDeviceStatusListener(DeviceMessageListener)}, it is only called for messages with the given
+     * device id and packets of other device types are not decoded for it.
+     *
+     * @param deviceStatusListener the listener
+     * @param thingTypeUID the thing type of the device
+     * @param deviceId the id of the device
+     */
+    public void registerDeviceStatusListener(DeviceMessageListener deviceStatusListener, ThingTypeUID thingTypeUID,
+            String deviceId) {
+        if (deviceStatusListener == null) {
+            throw new IllegalArgumentException("It's not allowed to pass a null deviceStatusListener.");
+        }
+        deviceMessageDispatcher.addDeviceListener(deviceStatusListener, thingTypeUID, deviceId);
+    }
+
+    /**
+     * Sets the listener of the discovery service, which gets all device messages while it is discovering. Null stops
+     * the discovery, then packets of devices without a thing are not decoded anymore.
+     */
+    public void setDiscoveryListener(DeviceMessageListener discoveryListener) {
+        deviceMessageDispatcher.setDiscoveryListener(discoveryListener);
+    }
+}
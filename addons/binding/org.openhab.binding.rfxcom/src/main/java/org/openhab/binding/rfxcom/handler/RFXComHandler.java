@@ -28,6 +28,7 @@ import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
 import org.openhab.binding.rfxcom.RFXComValueSelector;
 import org.openhab.binding.rfxcom.internal.DeviceMessageListener;
+import org.openhab.binding.rfxcom.internal.RFXComTransmitQueue.TransmitResultListener;
 import org.openhab.binding.rfxcom.internal.config.RFXComDeviceConfiguration;
 import org.openhab.binding.rfxcom.internal.exceptions.RFXComException;
 import org.openhab.binding.rfxcom.internal.exceptions.RFXComNotImpException;
@@ -55,6 +56,24 @@ public class RFXComHandler extends BaseThingHandler implements DeviceMessageList
 
     private RFXComDeviceConfiguration config;
 
+    private final TransmitResultListener transmitResultListener = new TransmitResultListener() {
+
+        @Override
+        public void transmitted(RFXComMessage msg) {
+            if (getThing().getStatusInfo().getStatusDetail() == ThingStatusDetail.COMMUNICATION_ERROR) {
+                updateStatus(ThingStatus.ONLINE);
+            }
+        }
+
+        @Override
+        public void transmitFailed(RFXComMessage msg, String reason) {
+            logger.warn("Transmitting message '{}' failed: {}", msg, reason);
+            if (getThing().getStatus() == ThingStatus.ONLINE) {
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR, reason);
+            }
+        }
+    };
+
     public RFXComHandler(Thing thing) {
         super(thing);
     }
@@ -86,7 +105,7 @@ public class RFXComHandler extends BaseThingHandler implements DeviceMessageList
                         msg.setDeviceId(config.deviceId);
                         msg.convertFromState(valSelector, command);
 
-                        bridgeHandler.sendMessage(msg);
+                        bridgeHandler.sendMessage(msg, transmitResultListener);
                     } else {
                         logger.warn("RFXCOM doesn't support transmitting for channel '{}'", channelUID.getId());
                     }
@@ -127,7 +146,7 @@ public class RFXComHandler extends BaseThingHandler implements DeviceMessageList
         } else if (thingHandler != null && bridgeStatus != null) {
 
             bridgeHandler = (RFXComBridgeHandler) thingHandler;
-            bridgeHandler.registerDeviceStatusListener(this);
+            bridgeHandler.registerDeviceStatusListener(this, getThing().getThingTypeUID(), config.deviceId);
 
             if (bridgeStatus == ThingStatus.ONLINE) {
                 updateStatus(ThingStatus.ONLINE);
@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rfxcom.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.smarthome.core.thing.ThingTypeUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.openhab.binding.rfxcom.RFXComBindingConstants;
+import org.openhab.binding.rfxcom.internal.exceptions.RFXComException;
+import org.openhab.binding.rfxcom.internal.exceptions.RFXComNotImpException;
+import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage.PacketType;
+import org.openhab.binding.rfxcom.internal.messages.RFXComMessage;
+import org.openhab.binding.rfxcom.internal.messages.RFXComMessageFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Passes the device packets received by a bridge to the listeners. A packet is only decoded if a listener is
+ * interested in it: a thing handler registered for its packet type, a listener for all messages or the discovery
+ * service while it is discovering.
+ *
+ * @author agent - Initial contribution
+ */
+public class DeviceMessageDispatcher {
+
+    private Logger logger = LoggerFactory.getLogger(DeviceMessageDispatcher.class);
+
+    /*
+     * Listeners of all messages
+     */
+    private final List<DeviceMessageListener> listeners = new CopyOnWriteArrayList<>();
+
+    /*
+     * Listener of all messages while devices are discovered, null otherwise
+     */
+    private volatile DeviceMessageListener discoveryListener;
+
+    /*
+     * Listeners of a single device, the lookup maps are rebuilt on every registration change so that received
+     * packets can be dispatched without locking
+     */
+    private final Map<DeviceMessageListener, DeviceRegistration> deviceRegistrations = new HashMap<>();
+    private volatile Map<String, List<DeviceMessageListener>> deviceListenersById = Collections.emptyMap();
+    private volatile Set<PacketType> deviceListenerPacketTypes = EnumSet.noneOf(PacketType.class);
+
+    /**
+     * Registers a listener for all messages.
+     *
+     * @return false if the listener is already registered
+     */
+    public boolean addListener(DeviceMessageListener listener) {
+        return listeners.contains(listener) ? false : listeners.add(listener);
+    }
+
+    /**
+     * Registers a listener for the messages of a single device, packets of other device types are not decoded for
+     * it.
+     */
+    public void addDeviceListener(DeviceMessageListener listener, ThingTypeUID thingTypeUID, String deviceId) {
+        synchronized (deviceRegistrations) {
+            deviceRegistrations.put(listener, new DeviceRegistration(thingTypeUID, deviceId));
+            rebuildDeviceListeners();
+        }
+    }
+
+    /**
+     * Removes a listener registered by {@link #addListener(DeviceMessageListener)} or
+     * {@link #addDeviceListener(DeviceMessageListener, ThingTypeUID, String)}.
+     *
+     * @return false if the listener was not registered
+     */
+    public boolean removeListener(DeviceMessageListener listener) {
+        synchronized (deviceRegistrations) {
+            if (deviceRegistrations.remove(listener) != null) {
+                rebuildDeviceListeners();
+                return true;
+            }
+        }
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Sets the listener of the discovery service, null if devices are not discovered.
+     */
+    public void setDiscoveryListener(DeviceMessageListener discoveryListener) {
+        this.discoveryListener = discoveryListener;
+    }
+
+    /**
+     * Removes all listeners.
+     */
+    public void clear() {
+        listeners.clear();
+        discoveryListener = null;
+        synchronized (deviceRegistrations) {
+            deviceRegistrations.clear();
+            rebuildDeviceListeners();
+        }
+    }
+
+    /**
+     * Decodes a device packet and passes the message to the interested listeners.
+     *
+     * @return the decoded message, null if nobody is interested in packets of this type and it was not decoded
+     */
+    public RFXComMessage dispatch(ThingUID bridge, byte[] packet) throws RFXComException, RFXComNotImpException {
+        PacketType packetType = RFXComMessageFactory.getPacketType(packet[1]);
+        DeviceMessageListener discoveryListener = this.discoveryListener;
+        if (discoveryListener == null && listeners.isEmpty() && !deviceListenerPacketTypes.contains(packetType)) {
+            logger.trace("Ignoring {} message, no listener registered", packetType);
+            return null;
+        }
+
+        RFXComMessage message = RFXComMessageFactory.createMessage(packet);
+        logger.debug("Message received: {}", message);
+
+        if (discoveryListener != null) {
+            notifyListener(discoveryListener, bridge, message);
+        }
+        for (DeviceMessageListener listener : listeners) {
+            notifyListener(listener, bridge, message);
+        }
+        List<DeviceMessageListener> deviceListeners = deviceListenersById.get(message.getDeviceId());
+        if (deviceListeners != null) {
+            for (DeviceMessageListener listener : deviceListeners) {
+                notifyListener(listener, bridge, message);
+            }
+        }
+        return message;
+    }
+
+    private void notifyListener(DeviceMessageListener listener, ThingUID bridge, RFXComMessage message) {
+        try {
+            listener.onDeviceMessageReceived(bridge, message);
+        } catch (Exception e) {
+            logger.error("An exception occurred while calling the DeviceStatusListener", e);
+        }
+    }
+
+    private void rebuildDeviceListeners() {
+        Map<String, List<DeviceMessageListener>> byId = new HashMap<>();
+        Set<PacketType> packetTypes = EnumSet.noneOf(PacketType.class);
+        for (Map.Entry<DeviceMessageListener, DeviceRegistration> entry : deviceRegistrations.entrySet()) {
+            DeviceRegistration registration = entry.getValue();
+            List<DeviceMessageListener> listeners = byId.get(registration.deviceId);
+            if (listeners == null) {
+                listeners = new ArrayList<>(1);
+                byId.put(registration.deviceId, listeners);
+            }
+            listeners.add(entry.getKey());
+            for (Map.Entry<PacketType, ThingTypeUID> type : RFXComBindingConstants.packetTypeThingMap.entrySet()) {
+                if (type.getValue().equals(registration.thingTypeUID)) {
+                    packetTypes.add(type.getKey());
+                }
+            }
+        }
+        deviceListenersById = byId;
+        deviceListenerPacketTypes = packetTypes;
+    }
+
+    private static class DeviceRegistration {
+        private final ThingTypeUID thingTypeUID;
+        private final String deviceId;
+
+        private DeviceRegistration(ThingTypeUID thingTypeUID, String deviceId) {
+            this.thingTypeUID = thingTypeUID;
+            this.deviceId = deviceId;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rfxcom.internal;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.openhab.binding.rfxcom.internal.connector.RFXComConnectorInterface;
+import org.openhab.binding.rfxcom.internal.exceptions.RFXComException;
+import org.openhab.binding.rfxcom.internal.messages.RFXComBaseMessage;
+import org.openhab.binding.rfxcom.internal.messages.RFXComLighting2Message;
+import org.openhab.binding.rfxcom.internal.messages.RFXComLighting5Message;
+import org.openhab.binding.rfxcom.internal.messages.RFXComMessage;
+import org.openhab.binding.rfxcom.internal.messages.RFXComTransmitterMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue for the messages transmitted through a RFXCOM transceiver. Messages are sent without waiting for the
+ * response of the previous one, up to {@link #MAX_IN_FLIGHT} messages are waiting for their response at the same
+ * time. Responses are matched to the transmitted message by the sequence number.
+ *
+ * A dim level command replaces a not yet transmitted dim level command for the same device, so only the latest
+ * level is sent.
+ *
+ * The listeners are notified after the lock of the queue has been released.
+ *
+ * @author agent - Initial contribution
+ */
+public class RFXComTransmitQueue {
+
+    /**
+     * Listener for transmit errors which affect the connection to the transceiver.
+     */
+    public interface TransmitErrorListener {
+        void transmitFailed(String reason);
+    }
+
+    /**
+     * Listener for the result of a single message.
+     */
+    public interface TransmitResultListener {
+        void transmitted(RFXComMessage msg);
+
+        void transmitFailed(RFXComMessage msg, String reason);
+    }
+
+    public static final int MAX_IN_FLIGHT = 4;
+    public static final int RESPONSE_TIMEOUT = 5000;
+
+    private static final String NO_RESPONSE = "No response received from transceiver";
+
+    private Logger logger = LoggerFactory.getLogger(RFXComTransmitQueue.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final TransmitErrorListener errorListener;
+    private RFXComConnectorInterface connector;
+
+    private final Deque<Transmission> queue = new ArrayDeque<>();
+    private final Map<Byte, Transmission> inFlight = new HashMap<>();
+    private byte seqNbr = 0;
+
+    private final AtomicLong ackCount = new AtomicLong();
+    private final AtomicLong nakCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong collapsedCount = new AtomicLong();
+    private final AtomicLong ackLatencyTotal = new AtomicLong();
+    private final AtomicLong ackLatencyMax = new AtomicLong();
+
+    public RFXComTransmitQueue(ScheduledExecutorService scheduler, TransmitErrorListener errorListener) {
+        this.scheduler = scheduler;
+        this.errorListener = errorListener;
+    }
+
+    /**
+     * Sets the connector used for transmitting, null to stop transmitting. Waiting messages fail if the connector is
+     * removed.
+     */
+    public void setConnector(RFXComConnectorInterface connector) {
+        List<Transmission> done = new ArrayList<>();
+        String error = null;
+        synchronized (this) {
+            this.connector = connector;
+            if (connector == null) {
+                clear("Transceiver disconnected", done);
+            } else {
+                error = sendNext(done);
+            }
+        }
+        notifyListeners(done, error);
+    }
+
+    /**
+     * Adds a message to the queue.
+     *
+     * @param listener
+     *            - listener for the result of the message, may be null
+     */
+    public void submit(RFXComMessage msg, TransmitResultListener listener) throws RFXComException {
+        List<Transmission> done = new ArrayList<>();
+        String error;
+        synchronized (this) {
+            if (connector == null) {
+                throw new RFXComException("Transceiver not connected");
+            }
+
+            String collapseKey = getCollapseKey(msg);
+            if (collapseKey != null) {
+                for (Transmission queued : queue) {
+                    if (collapseKey.equals(queued.collapseKey)) {
+                        logger.debug("Replacing queued message '{}' by '{}'", queued.message, msg);
+                        queued.message = msg;
+                        queued.addListener(listener);
+                        collapsedCount.incrementAndGet();
+                        return;
+                    }
+                }
+            }
+
+            Transmission transmission = new Transmission(msg, collapseKey);
+            transmission.addListener(listener);
+            queue.add(transmission);
+            error = sendNext(done);
+        }
+        notifyListeners(done, error);
+    }
+
+    /**
+     * Handles a response of the transceiver.
+     *
+     * @return false if no message waits for the response
+     */
+    public boolean responseReceived(RFXComTransmitterMessage response) {
+        List<Transmission> done = new ArrayList<>();
+        String error;
+        Transmission transmission;
+        synchronized (this) {
+            transmission = inFlight.remove(response.seqNbr);
+            if (transmission == null) {
+                logger.warn("Transmitter response with unknown sequence number '{}' received", response.seqNbr);
+                return false;
+            }
+            transmission.timeoutJob.cancel(false);
+            error = sendNext(done);
+        }
+
+        long latency = System.currentTimeMillis() - transmission.sentTime;
+        switch (response.response) {
+            case ACK:
+            case ACK_DELAYED:
+                logger.debug("Command successfully transmitted, '{}' received after {}ms", response.response,
+                        latency);
+                ackCount.incrementAndGet();
+                ackLatencyTotal.addAndGet(latency);
+                long max = ackLatencyMax.get();
+                while (latency > max && !ackLatencyMax.compareAndSet(max, latency)) {
+                    max = ackLatencyMax.get();
+                }
+                break;
+
+            case NAK:
+            case NAK_INVALID_AC_ADDRESS:
+            case UNKNOWN:
+                logger.error("Command transmit failed, '{}' received", response.response);
+                nakCount.incrementAndGet();
+                transmission.failure = "Command transmit failed, '" + response.response + "' received";
+                break;
+        }
+        done.add(transmission);
+        notifyListeners(done, error);
+        return true;
+    }
+
+    /**
+     * Removes all messages from the queue, they fail with the given reason.
+     */
+    public void clear(String reason) {
+        List<Transmission> done = new ArrayList<>();
+        synchronized (this) {
+            clear(reason, done);
+        }
+        notifyListeners(done, null);
+    }
+
+    /**
+     * Returns the number of messages waiting for transmission or for a response.
+     */
+    public synchronized int getQueueDepth() {
+        return queue.size() + inFlight.size();
+    }
+
+    /**
+     * Returns the average time in milliseconds between transmission and ACK.
+     */
+    public long getAverageAckLatency() {
+        long count = ackCount.get();
+        return count == 0 ? 0 : ackLatencyTotal.get() / count;
+    }
+
+    /**
+     * Returns the longest time in milliseconds between transmission and ACK.
+     */
+    public long getMaxAckLatency() {
+        return ackLatencyMax.get();
+    }
+
+    public long getAckCount() {
+        return ackCount.get();
+    }
+
+    public long getNakCount() {
+        return nakCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getCollapsedCount() {
+        return collapsedCount.get();
+    }
+
+    /**
+     * Fails all waiting messages, must be called with the lock held.
+     */
+    private void clear(String reason, List<Transmission> done) {
+        for (Transmission transmission : inFlight.values()) {
+            transmission.timeoutJob.cancel(false);
+            transmission.failure = reason;
+            done.add(transmission);
+        }
+        inFlight.clear();
+        for (Transmission transmission : queue) {
+            transmission.failure = reason;
+            done.add(transmission);
+        }
+        queue.clear();
+    }
+
+    /**
+     * Transmits queued messages as long as less than MAX_IN_FLIGHT messages wait for a response, must be called with
+     * the lock held.
+     *
+     * @return the reason if the transceiver could not be written, null otherwise
+     */
+    private String sendNext(List<Transmission> done) {
+        while (connector != null && inFlight.size() < MAX_IN_FLIGHT && !queue.isEmpty()) {
+            Transmission transmission = queue.poll();
+            byte seq = nextSeqNumber();
+            ((RFXComBaseMessage) transmission.message).seqNbr = seq;
+            byte[] data = transmission.message.decodeMessage();
+
+            logger.debug("Transmitting message '{}'", transmission.message);
+            logger.trace("Transmitting data: {}", DatatypeConverter.printHexBinary(data));
+
+            try {
+                connector.sendMessage(data);
+            } catch (IOException e) {
+                String reason = "Send failed, reason: " + e.getMessage();
+                transmission.failure = reason;
+                done.add(transmission);
+                clear(reason, done);
+                return reason;
+            }
+
+            transmission.seqNbr = seq;
+            transmission.sentTime = System.currentTimeMillis();
+            transmission.timeoutJob = scheduler.schedule(new ResponseTimeout(transmission), RESPONSE_TIMEOUT,
+                    TimeUnit.MILLISECONDS);
+            inFlight.put(seq, transmission);
+        }
+        return null;
+    }
+
+    /**
+     * Reports the results of the finished messages and a transmit error, must be called without the lock held.
+     */
+    private void notifyListeners(List<Transmission> done, String error) {
+        for (Transmission transmission : done) {
+            transmission.notifyListeners();
+        }
+        if (error != null) {
+            errorListener.transmitFailed(error);
+        }
+    }
+
+    private byte nextSeqNumber() {
+        do {
+            if (++seqNbr == 0) {
+                seqNbr = 1;
+            }
+        } while (inFlight.containsKey(seqNbr));
+        return seqNbr;
+    }
+
+    /**
+     * Returns the key for replacing queued messages of the same device, null if the message must not be replaced.
+     */
+    private static String getCollapseKey(RFXComMessage msg) throws RFXComException {
+        boolean levelCommand = false;
+        if (msg instanceof RFXComLighting2Message) {
+            levelCommand = ((RFXComLighting2Message) msg).command == RFXComLighting2Message.Commands.SET_LEVEL;
+        } else if (msg instanceof RFXComLighting5Message) {
+            levelCommand = ((RFXComLighting5Message) msg).command == RFXComLighting5Message.Commands.SET_LEVEL;
+        }
+        if (!levelCommand) {
+            return null;
+        }
+        RFXComBaseMessage baseMsg = (RFXComBaseMessage) msg;
+        return baseMsg.packetType + ":" + baseMsg.subType + ":" + msg.getDeviceId();
+    }
+
+    private class ResponseTimeout implements Runnable {
+        private final Transmission transmission;
+
+        public ResponseTimeout(Transmission transmission) {
+            this.transmission = transmission;
+        }
+
+        @Override
+        public void run() {
+            List<Transmission> done = new ArrayList<>();
+            String error;
+            synchronized (RFXComTransmitQueue.this) {
+                if (inFlight.get(transmission.seqNbr) != transmission) {
+                    return;
+                }
+                inFlight.remove(transmission.seqNbr);
+                error = sendNext(done);
+            }
+            logger.warn("No response received from transceiver for message with sequence number '{}'",
+                    transmission.seqNbr);
+            timeoutCount.incrementAndGet();
+            transmission.failure = NO_RESPONSE;
+            done.add(transmission);
+            notifyListeners(done, error != null ? error : NO_RESPONSE);
+        }
+    }
+
+    /**
+     * A queued message and the listeners for its result.
+     */
+    private static class Transmission {
+        private final String collapseKey;
+        private final List<TransmitResultListener> listeners = new ArrayList<>(1);
+        private RFXComMessage message;
+        private byte seqNbr;
+        private long sentTime;
+        private ScheduledFuture<?> timeoutJob;
+        private String failure;
+
+        public Transmission(RFXComMessage message, String collapseKey) {
+            this.message = message;
+            this.collapseKey = collapseKey;
+        }
+
+        private void addListener(TransmitResultListener listener) {
+            if (listener != null && !listeners.contains(listener)) {
+                listeners.add(listener);
+            }
+        }
+
+        private void notifyListeners() {
+            for (TransmitResultListener listener : listeners) {
+                if (failure == null) {
+                    listener.transmitted(message);
+                } else {
+                    listener.transmitFailed(message, failure);
+                }
+            }
+        }
+    }
+}
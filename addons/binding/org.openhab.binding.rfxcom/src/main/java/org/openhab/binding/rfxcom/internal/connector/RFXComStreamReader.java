@@ -49,63 +49,59 @@ public class RFXComStreamReader extends Thread {
 
     @Override
     public void run() {
-        final int dataBufferMaxLen = Byte.MAX_VALUE;
+        // ring buffer, the capacity must be a power of two and hold the longest message (128 bytes)
+        final int bufferSize = 256;
+        final int mask = bufferSize - 1;
 
-        byte[] dataBuffer = new byte[dataBufferMaxLen];
+        byte[] buffer = new byte[bufferSize];
 
-        int msgLen = 0;
-        int index = 0;
-        boolean start_found = false;
+        // read and write positions only grow, the index in the buffer is position & mask
+        int readPos = 0;
+        int writePos = 0;
 
         logger.debug("Data listener started");
 
         try {
 
-            byte[] tmpData = new byte[20];
-            int len = -1;
-
             while (interrupted != true) {
 
-                if ((len = in.read(tmpData)) > 0) {
-
-                    byte[] logData = Arrays.copyOf(tmpData, len);
-                    logger.trace("Received data (len={}): {}", len, DatatypeConverter.printHexBinary(logData));
-
-                    for (int i = 0; i < len; i++) {
-
-                        if (index > dataBufferMaxLen) {
-                            // too many bytes received, try to find new
-                            // start
-                            start_found = false;
-                        }
-
-                        if (start_found == false && tmpData[i] > 0) {
+                // read into the free space up to the end of the buffer
+                int start = writePos & mask;
+                int free = bufferSize - (writePos - readPos);
+                int len = in.read(buffer, start, Math.min(free, bufferSize - start));
 
-                            start_found = true;
-                            index = 0;
-                            dataBuffer[index++] = tmpData[i];
-                            msgLen = tmpData[i] + 1;
+                if (len > 0) {
 
-                        } else if (start_found) {
-
-                            dataBuffer[index++] = tmpData[i];
+                    if (logger.isTraceEnabled()) {
+                        logger.trace("Received data (len={}): {}", len,
+                                DatatypeConverter.printHexBinary(Arrays.copyOfRange(buffer, start, start + len)));
+                    }
 
-                            if (index == msgLen) {
+                    writePos += len;
 
-                                // whole message received, send an event
+                    while (writePos - readPos > 0) {
+                        int msgLen = buffer[readPos & mask] + 1;
 
-                                byte[] msg = new byte[msgLen];
+                        if (msgLen <= 1) {
+                            // no valid length byte, try to find new start
+                            readPos++;
+                            continue;
+                        }
 
-                                for (int j = 0; j < msgLen; j++) {
-                                    msg[j] = dataBuffer[j];
-                                }
+                        if (writePos - readPos < msgLen) {
+                            // wait for the rest of the message
+                            break;
+                        }
 
-                                connector.sendMsgToListeners(msg);
+                        // whole message received, send an event
+                        byte[] msg = new byte[msgLen];
+                        int from = readPos & mask;
+                        int firstPart = Math.min(msgLen, bufferSize - from);
+                        System.arraycopy(buffer, from, msg, 0, firstPart);
+                        System.arraycopy(buffer, 0, msg, firstPart, msgLen - firstPart);
+                        readPos += msgLen;
 
-                                // find new start
-                                start_found = false;
-                            }
-                        }
+                        connector.sendMsgToListeners(msg);
                     }
                 } else {
                     try {
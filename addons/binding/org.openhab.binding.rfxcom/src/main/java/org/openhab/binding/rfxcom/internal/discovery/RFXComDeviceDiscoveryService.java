@@ -33,20 +33,29 @@ public class RFXComDeviceDiscoveryService extends AbstractDiscoveryService imple
 
     private final static Logger logger = LoggerFactory.getLogger(RFXComDeviceDiscoveryService.class);
 
+    private static final int DISCOVERY_TIMEOUT_SECONDS = 60;
+
     private RFXComBridgeHandler bridgeHandler;
 
+    private boolean explicitScanning = false;
+    private boolean backgroundScanning = false;
+
     public RFXComDeviceDiscoveryService(RFXComBridgeHandler rfxcomBridgeHandler) {
-        super(null, 1, false);
+        super(null, DISCOVERY_TIMEOUT_SECONDS, false);
         this.bridgeHandler = rfxcomBridgeHandler;
     }
 
     public void activate() {
-        bridgeHandler.registerDeviceStatusListener(this);
+        if (isBackgroundDiscoveryEnabled()) {
+            startBackgroundDiscovery();
+        }
     }
 
     @Override
     public void deactivate() {
-        bridgeHandler.unregisterDeviceStatusListener(this);
+        explicitScanning = false;
+        backgroundScanning = false;
+        updateDiscoveryListener();
     }
 
     @Override
@@ -55,8 +64,36 @@ public class RFXComDeviceDiscoveryService extends AbstractDiscoveryService imple
     }
 
     @Override
-    protected void startScan() {
-        // this can be ignored here as we discover devices from received messages
+    protected synchronized void startScan() {
+        explicitScanning = true;
+        updateDiscoveryListener();
+    }
+
+    @Override
+    protected synchronized void stopScan() {
+        explicitScanning = false;
+        updateDiscoveryListener();
+        super.stopScan();
+    }
+
+    @Override
+    protected synchronized void startBackgroundDiscovery() {
+        backgroundScanning = true;
+        updateDiscoveryListener();
+    }
+
+    @Override
+    protected synchronized void stopBackgroundDiscovery() {
+        backgroundScanning = false;
+        updateDiscoveryListener();
+    }
+
+    /**
+     * Devices are discovered from the messages received by the bridge. The bridge only decodes the messages of
+     * devices without a thing while the discovery listener is set.
+     */
+    private void updateDiscoveryListener() {
+        bridgeHandler.setDiscoveryListener(explicitScanning || backgroundScanning ? this : null);
     }
 
     @Override
@@ -103,15 +103,8 @@ public abstract class RFXComBaseMessage implements RFXComMessage {
 
         rawMessage = data;
 
-        packetType = PacketType.UNKNOWN;
         packetId = data[1];
-
-        for (PacketType pt : PacketType.values()) {
-            if (pt.toByte() == data[1]) {
-                packetType = pt;
-                break;
-            }
-        }
+        packetType = RFXComMessageFactory.getPacketType(packetId);
 
         subType = data[2];
         seqNbr = data[3];
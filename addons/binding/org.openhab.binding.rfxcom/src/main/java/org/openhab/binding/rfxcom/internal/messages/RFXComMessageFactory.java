@@ -9,7 +9,9 @@
 package org.openhab.binding.rfxcom.internal.messages;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -71,6 +73,50 @@ public class RFXComMessageFactory {
                 }
             });
 
+    /**
+     * Packet type by its byte value, the byte is used as unsigned index
+     */
+    private static final PacketType[] packetTypes = new PacketType[256];
+
+    /**
+     * Constructors of the implemented messages, resolved once instead of for every packet
+     */
+    private static final Map<PacketType, Constructor<? extends RFXComMessage>> constructors = new EnumMap<>(
+            PacketType.class);
+    private static final Map<PacketType, Constructor<? extends RFXComMessage>> packetConstructors = new EnumMap<>(
+            PacketType.class);
+
+    static {
+        for (int i = 0; i < packetTypes.length; i++) {
+            packetTypes[i] = PacketType.UNKNOWN;
+        }
+        for (PacketType p : PacketType.values()) {
+            if (p != PacketType.UNKNOWN) {
+                packetTypes[p.toByte() & 0xFF] = p;
+            }
+        }
+
+        for (Map.Entry<PacketType, String> entry : messageClasses.entrySet()) {
+            Class<? extends RFXComMessage> cl;
+            try {
+                cl = Class.forName(classUrl + entry.getValue()).asSubclass(RFXComMessage.class);
+            } catch (ClassNotFoundException e) {
+                // message not implemented
+                continue;
+            }
+            try {
+                constructors.put(entry.getKey(), cl.getConstructor());
+            } catch (NoSuchMethodException e) {
+                // message can't be created for transmitting
+            }
+            try {
+                packetConstructors.put(entry.getKey(), cl.getConstructor(byte[].class));
+            } catch (NoSuchMethodException e) {
+                // message can't be decoded
+            }
+        }
+    }
+
     /**
      * Command to reset RFXCOM controller.
      *
@@ -101,13 +147,16 @@ public class RFXComMessageFactory {
 
     public static RFXComMessage createMessage(PacketType packetType) throws RFXComException, RFXComNotImpException {
 
+        Constructor<? extends RFXComMessage> c = constructors.get(packetType);
+        if (c == null) {
+            throw new RFXComNotImpException("Message " + packetType + " not implemented");
+        }
+
         try {
-            String className = messageClasses.get(packetType);
-            Class<?> cl = Class.forName(classUrl + className);
-            return (RFXComMessage) cl.newInstance();
+            return c.newInstance();
 
-        } catch (ClassNotFoundException e) {
-            throw new RFXComNotImpException("Message " + packetType + " not implemented", e);
+        } catch (InvocationTargetException e) {
+            throw new RFXComException(e.getCause());
 
         } catch (Exception e) {
             throw new RFXComException(e);
@@ -118,20 +167,29 @@ public class RFXComMessageFactory {
 
         PacketType packetType = getPacketType(packet[1]);
 
+        Constructor<? extends RFXComMessage> c = packetConstructors.get(packetType);
+        if (c == null) {
+            throw new RFXComNotImpException("Message " + packetType + " not implemented");
+        }
+
         try {
-            String className = messageClasses.get(packetType);
-            Class<?> cl = Class.forName(classUrl + className);
-            Constructor<?> c = cl.getConstructor(byte[].class);
-            return (RFXComMessage) c.newInstance(packet);
+            return c.newInstance(packet);
 
-        } catch (ClassNotFoundException e) {
-            throw new RFXComNotImpException("Message " + packetType + " not implemented, exception: ", e);
+        } catch (InvocationTargetException e) {
+            throw new RFXComException(e.getCause());
 
         } catch (Exception e) {
             throw new RFXComException(e);
         }
     }
 
+    /**
+     * Returns true, if a message class is implemented for the packet type.
+     */
+    public static boolean isImplemented(PacketType packetType) {
+        return packetConstructors.containsKey(packetType);
+    }
+
     public static PacketType convertPacketType(String packetType) throws IllegalArgumentException {
 
         for (PacketType p : PacketType.values()) {
@@ -143,13 +201,7 @@ public class RFXComMessageFactory {
         throw new IllegalArgumentException("Unknown packet type " + packetType);
     }
 
-    private static PacketType getPacketType(byte packetType) {
-        for (PacketType p : PacketType.values()) {
-            if (p.toByte() == packetType) {
-                return p;
-            }
-        }
-
-        return PacketType.UNKNOWN;
+    public static PacketType getPacketType(byte packetType) {
+        return packetTypes[packetType & 0xFF];
     }
 }
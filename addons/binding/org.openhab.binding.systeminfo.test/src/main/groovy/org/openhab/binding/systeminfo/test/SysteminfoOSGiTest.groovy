@@ -666,6 +666,46 @@ class SysteminfoOSGiTest extends OSGiTest{
         testItemStateIsUpdated(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
     }
 
+    @Category(org.openhab.binding.systeminfo.test.PlatformDependentTestsInterface.class)
+    @Test
+    public void 'asssert channel network#dataSentRate is updated' () {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_NETWORK_DATA_SENT_RATE
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID,acceptedItemType);
+        testItemStateIsUpdated(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
+    }
+
+    @Category(org.openhab.binding.systeminfo.test.PlatformDependentTestsInterface.class)
+    @Test
+    public void 'asssert channel network#dataReceivedRate is updated' () {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_NETWORK_DATA_RECEIVED_RATE
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID,acceptedItemType);
+        testItemStateIsUpdated(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
+    }
+
+    @Category(org.openhab.binding.systeminfo.test.PlatformDependentTestsInterface.class)
+    @Test
+    public void 'asssert channel network#packagesSentRate is updated' () {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_NETWORK_PACKAGES_SENT_RATE
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID,acceptedItemType);
+        testItemStateIsUpdated(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
+    }
+
+    @Category(org.openhab.binding.systeminfo.test.PlatformDependentTestsInterface.class)
+    @Test
+    public void 'asssert channel network#packagesReceivedRate is updated' () {
+        String channnelID = SysteminfoBindingConstants.CHANNEL_NETWORK_PACKAGES_RECEIVED_RATE
+        String acceptedItemType = "Number";
+
+        initializeThingWithChannel(channnelID,acceptedItemType);
+        testItemStateIsUpdated(acceptedItemType,DEFAULT_TEST_ITEM_NAME,DEFAULT_CHANNEL_TEST_PRIORITY);
+    }
+
     @Category(org.openhab.binding.systeminfo.test.PlatformDependentTestsInterface.class)
     @Test
     public void 'assert channel network#networkName is updated' () {
@@ -245,6 +245,26 @@ public class SysteminfoBindingConstants {
      */
     public final static String CHANNEL_NETWORK_PACKAGES_RECEIVED = "network#packagesReceived";
 
+    /**
+     * Network data sent per second
+     */
+    public final static String CHANNEL_NETWORK_DATA_SENT_RATE = "network#dataSentRate";
+
+    /**
+     * Network data received per second
+     */
+    public final static String CHANNEL_NETWORK_DATA_RECEIVED_RATE = "network#dataReceivedRate";
+
+    /**
+     * Network packages sent per second
+     */
+    public final static String CHANNEL_NETWORK_PACKAGES_SENT_RATE = "network#packagesSentRate";
+
+    /**
+     * Network packages received per second
+     */
+    public final static String CHANNEL_NETWORK_PACKAGES_RECEIVED_RATE = "network#packagesReceivedRate";
+
     /**
      * Network name
      */
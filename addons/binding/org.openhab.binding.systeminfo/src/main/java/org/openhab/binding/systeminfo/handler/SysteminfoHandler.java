@@ -236,6 +236,8 @@ public class SysteminfoHandler extends BaseThingHandler {
 
     private void publishData(Set<ChannelUID> channels) {
         if (channels != null) {
+            // all channels of this refresh are served from one snapshot of the system information
+            systeminfo.updateSnapshot();
             Iterator<ChannelUID> iter = channels.iterator();
             while (iter.hasNext()) {
                 ChannelUID channeUID = iter.next();
@@ -403,6 +405,18 @@ public class SysteminfoHandler extends BaseThingHandler {
                 case CHANNEL_NETWORK_PACKAGES_SENT:
                     state = systeminfo.getNetworkPackageSent(deviceIndex);
                     break;
+                case CHANNEL_NETWORK_DATA_SENT_RATE:
+                    state = systeminfo.getNetworkDataSentRate(deviceIndex);
+                    break;
+                case CHANNEL_NETWORK_DATA_RECEIVED_RATE:
+                    state = systeminfo.getNetworkDataReceivedRate(deviceIndex);
+                    break;
+                case CHANNEL_NETWORK_PACKAGES_SENT_RATE:
+                    state = systeminfo.getNetworkPackageSentRate(deviceIndex);
+                    break;
+                case CHANNEL_NETWORK_PACKAGES_RECEIVED_RATE:
+                    state = systeminfo.getNetworkPackageReceivedRate(deviceIndex);
+                    break;
                 case CHANNEL_PROCESS_LOAD:
                     state = systeminfo.getProcessCpuUsage(deviceIndex);
                     break;
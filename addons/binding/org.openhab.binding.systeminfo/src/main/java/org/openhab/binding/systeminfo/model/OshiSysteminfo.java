@@ -9,6 +9,9 @@
 package org.openhab.binding.systeminfo.model;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -32,6 +35,9 @@ import oshi.util.EdidUtil;
  * This implementation of {@link SysteminfoInterface} is using the open source library OSHI to provide system
  * information. OSHI is a free JNA-based (native) Operating System and Hardware Information library for Java.
  *
+ * The frequently changing information is cached per snapshot, see {@link #updateSnapshot()}. The methods, which use
+ * the cached information, are synchronized, so channels with different refresh intervals can share one instance.
+ *
  * @author Svilen Valkanov
  *
  * @see <a href="https://github.com/oshi/oshi">OSHI github repository</a>
@@ -51,6 +57,28 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     public final static int PRECISION_AFTER_DECIMAl_SIGN = 1;
 
+    /**
+     * The number of the current snapshot. Cached information is read again, if it belongs to an older snapshot.
+     */
+    private int snapshot = 0;
+
+    private int cpuLoadSnapshot = -1;
+    private double cpuLoad;
+
+    private int memorySnapshot = -1;
+    private long memoryTotal;
+    private long memoryAvailable;
+    private long swapTotal;
+    private long swapUsed;
+
+    private int fileStoresSnapshot;
+
+    private int[] networkSnapshots;
+    private NetworkStats[] networkStats;
+    private NetworkStats[] previousNetworkStats;
+
+    private Map<Integer, OSProcess> processes = new HashMap<Integer, OSProcess>();
+
     /**
      * Some of the methods used in this constructor execute native code and require execute permissions
      *
@@ -61,12 +89,25 @@ public class OshiSysteminfo implements SysteminfoInterface {
         operatingSystem = systemInfo.getOperatingSystem();
         displays = hal.getDisplays();
         fileStores = operatingSystem.getFileSystem().getFileStores();
+        fileStoresSnapshot = snapshot;
         memory = hal.getMemory();
         powerSources = hal.getPowerSources();
         cpu = hal.getProcessor();
         sensors = hal.getSensors();
         networks = hal.getNetworkIFs();
         drives = hal.getDiskStores();
+
+        int networkCount = networks != null ? networks.length : 0;
+        networkSnapshots = new int[networkCount];
+        Arrays.fill(networkSnapshots, -1);
+        networkStats = new NetworkStats[networkCount];
+        previousNetworkStats = new NetworkStats[networkCount];
+    }
+
+    @Override
+    public synchronized void updateSnapshot() {
+        snapshot++;
+        processes.clear();
     }
 
     @SuppressWarnings("null")
@@ -77,14 +118,48 @@ public class OshiSysteminfo implements SysteminfoInterface {
         return devices[index];
     }
 
-    private OSProcess getProcess(int pid) throws DeviceNotFoundException {
-        OSProcess process = operatingSystem.getProcess(pid);
+    private synchronized OSProcess getProcess(int pid) throws DeviceNotFoundException {
+        OSProcess process = processes.get(pid);
         if (process == null) {
-            throw new DeviceNotFoundException("Error while getting information for process with PID " + pid);
+            process = operatingSystem.getProcess(pid);
+            if (process == null) {
+                throw new DeviceNotFoundException("Error while getting information for process with PID " + pid);
+            }
+            processes.put(pid, process);
         }
         return process;
     }
 
+    private synchronized void updateMemory() {
+        if (memorySnapshot != snapshot) {
+            memoryTotal = memory.getTotal();
+            memoryAvailable = memory.getAvailable();
+            swapTotal = memory.getSwapTotal();
+            swapUsed = memory.getSwapUsed();
+            memorySnapshot = snapshot;
+        }
+    }
+
+    private synchronized OSFileStore getFileStore(int index) throws DeviceNotFoundException {
+        if (fileStoresSnapshot != snapshot) {
+            // the file stores hold the space values from the time they were created
+            fileStores = operatingSystem.getFileSystem().getFileStores();
+            fileStoresSnapshot = snapshot;
+        }
+        return (OSFileStore) getDevice(fileStores, index);
+    }
+
+    private synchronized NetworkStats getNetworkStats(int index) throws DeviceNotFoundException {
+        NetworkIF network = (NetworkIF) getDevice(networks, index);
+        if (networkSnapshots[index] != snapshot) {
+            network.updateNetworkStats();
+            previousNetworkStats[index] = networkStats[index];
+            networkStats[index] = new NetworkStats(network, System.currentTimeMillis());
+            networkSnapshots[index] = snapshot;
+        }
+        return networkStats[index];
+    }
+
     @Override
     public StringType getOsFamily() {
         String osFamily = operatingSystem.getFamily();
@@ -137,30 +212,37 @@ public class OshiSysteminfo implements SysteminfoInterface {
     }
 
     @Override
-    public DecimalType getCpuLoad() {
-        double processorLoad = cpu.getSystemCpuLoad();
-        BigDecimal processorLoadPercent = getPercentsValue(processorLoad);
+    public synchronized DecimalType getCpuLoad() {
+        if (cpuLoadSnapshot != snapshot) {
+            // the load is measured since the previous call, so it is only requested once per snapshot
+            cpuLoad = cpu.getSystemCpuLoad();
+            cpuLoadSnapshot = snapshot;
+        }
+        BigDecimal processorLoadPercent = getPercentsValue(cpuLoad);
         return new DecimalType(processorLoadPercent);
     }
 
     @Override
-    public DecimalType getMemoryTotal() {
-        long totalMemory = memory.getTotal();
+    public synchronized DecimalType getMemoryTotal() {
+        updateMemory();
+        long totalMemory = memoryTotal;
         totalMemory = getSizeInMB(totalMemory);
         return new DecimalType(totalMemory);
     }
 
     @Override
-    public DecimalType getMemoryAvailable() {
-        long availableMemory = memory.getAvailable();
+    public synchronized DecimalType getMemoryAvailable() {
+        updateMemory();
+        long availableMemory = memoryAvailable;
         availableMemory = getSizeInMB(availableMemory);
         return new DecimalType(availableMemory);
     }
 
     @Override
-    public DecimalType getMemoryUsed() {
-        long totalMemory = memory.getTotal();
-        long availableMemory = memory.getAvailable();
+    public synchronized DecimalType getMemoryUsed() {
+        updateMemory();
+        long totalMemory = memoryTotal;
+        long availableMemory = memoryAvailable;
         long usedMemory = totalMemory - availableMemory;
         usedMemory = getSizeInMB(usedMemory);
         return new DecimalType(usedMemory);
@@ -168,7 +250,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageTotal(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
+        OSFileStore fileStore = getFileStore(index);
         long totalSpace = fileStore.getTotalSpace();
         totalSpace = getSizeInMB(totalSpace);
         return new DecimalType(totalSpace);
@@ -176,7 +258,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageAvailable(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
+        OSFileStore fileStore = getFileStore(index);
         long freeSpace = fileStore.getUsableSpace();
         freeSpace = getSizeInMB(freeSpace);
         return new DecimalType(freeSpace);
@@ -184,7 +266,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageUsed(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
+        OSFileStore fileStore = getFileStore(index);
         long totalSpace = fileStore.getTotalSpace();
         long freeSpace = fileStore.getUsableSpace();
         long usedSpace = totalSpace - freeSpace;
@@ -194,7 +276,7 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getStorageAvailablePercent(int deviceIndex) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, deviceIndex);
+        OSFileStore fileStore = getFileStore(deviceIndex);
         long freeStorage = fileStore.getUsableSpace();
         long totalStorage = fileStore.getTotalSpace();
         double freePercentDecimal = (double) freeStorage / (double) totalStorage;
@@ -204,21 +286,21 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public StringType getStorageName(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
+        OSFileStore fileStore = getFileStore(index);
         String name = fileStore.getName();
         return new StringType(name);
     }
 
     @Override
     public StringType getStorageType(int deviceIndex) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, deviceIndex);
+        OSFileStore fileStore = getFileStore(deviceIndex);
         String type = fileStore.getType();
         return new StringType(type);
     }
 
     @Override
     public StringType getStorageDescription(int index) throws DeviceNotFoundException {
-        OSFileStore fileStore = (OSFileStore) getDevice(fileStores, index);
+        OSFileStore fileStore = getFileStore(index);
         String description = fileStore.getDescription();
         return new StringType(description);
     }
@@ -311,9 +393,10 @@ public class OshiSysteminfo implements SysteminfoInterface {
     }
 
     @Override
-    public DecimalType getMemoryAvailablePercent() {
-        long availableMemory = memory.getAvailable();
-        long totalMemory = memory.getTotal();
+    public synchronized DecimalType getMemoryAvailablePercent() {
+        updateMemory();
+        long availableMemory = memoryAvailable;
+        long totalMemory = memoryTotal;
         BigDecimal freePercent;
         if (totalMemory > 0) {
             double freePercentDecimal = (double) availableMemory / (double) totalMemory;
@@ -346,32 +429,32 @@ public class OshiSysteminfo implements SysteminfoInterface {
     }
 
     @Override
-    public DecimalType getSwapTotal() {
-        long swapTotal = memory.getSwapTotal();
-        swapTotal = getSizeInMB(swapTotal);
-        return new DecimalType(swapTotal);
+    public synchronized DecimalType getSwapTotal() {
+        updateMemory();
+        long totalSwap = getSizeInMB(swapTotal);
+        return new DecimalType(totalSwap);
     }
 
     @Override
-    public DecimalType getSwapAvailable() {
-        long swapTotal = memory.getSwapTotal();
-        long swapUsed = memory.getSwapUsed();
+    public synchronized DecimalType getSwapAvailable() {
+        updateMemory();
         long swapAvaialble = swapTotal - swapUsed;
         swapAvaialble = getSizeInMB(swapAvaialble);
         return new DecimalType(swapAvaialble);
     }
 
     @Override
-    public DecimalType getSwapUsed() {
-        long swapTotal = memory.getSwapUsed();
-        swapTotal = getSizeInMB(swapTotal);
-        return new DecimalType(swapTotal);
+    public synchronized DecimalType getSwapUsed() {
+        updateMemory();
+        long usedSwap = getSizeInMB(swapUsed);
+        return new DecimalType(usedSwap);
     }
 
     @Override
-    public DecimalType getSwapAvailablePercent() {
-        long usedSwap = memory.getSwapUsed();
-        long totalSwap = memory.getSwapTotal();
+    public synchronized DecimalType getSwapAvailablePercent() {
+        updateMemory();
+        long usedSwap = swapUsed;
+        long totalSwap = swapTotal;
         long freeSwap = totalSwap - usedSwap;
         BigDecimal freePercent;
         if (totalSwap > 0) {
@@ -473,34 +556,68 @@ public class OshiSysteminfo implements SysteminfoInterface {
 
     @Override
     public DecimalType getNetworkPackageReceived(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
-        long packRecv = network.getPacketsRecv();
-        return new DecimalType(packRecv);
+        NetworkStats stats = getNetworkStats(networkIndex);
+        return new DecimalType(stats.packetsRecv);
     }
 
     @Override
     public DecimalType getNetworkPackageSent(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
-        long packSent = network.getPacketsSent();
-        return new DecimalType(packSent);
+        NetworkStats stats = getNetworkStats(networkIndex);
+        return new DecimalType(stats.packetsSent);
     }
 
     @Override
     public DecimalType getNetworkDataSent(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
-        long bytesSent = network.getBytesSent();
-        return new DecimalType(getSizeInMB(bytesSent));
+        NetworkStats stats = getNetworkStats(networkIndex);
+        return new DecimalType(getSizeInMB(stats.bytesSent));
     }
 
     @Override
     public DecimalType getNetworkDataReceived(int networkIndex) throws DeviceNotFoundException {
-        NetworkIF network = (NetworkIF) getDevice(networks, networkIndex);
-        network.updateNetworkStats();
-        long bytesRecv = network.getBytesRecv();
-        return new DecimalType(getSizeInMB(bytesRecv));
+        NetworkStats stats = getNetworkStats(networkIndex);
+        return new DecimalType(getSizeInMB(stats.bytesRecv));
+    }
+
+    @Override
+    public synchronized DecimalType getNetworkPackageReceivedRate(int networkIndex) throws DeviceNotFoundException {
+        NetworkStats stats = getNetworkStats(networkIndex);
+        NetworkStats previous = previousNetworkStats[networkIndex];
+        return getRate(stats.packetsRecv, stats, previous == null ? 0 : previous.packetsRecv, previous);
+    }
+
+    @Override
+    public synchronized DecimalType getNetworkPackageSentRate(int networkIndex) throws DeviceNotFoundException {
+        NetworkStats stats = getNetworkStats(networkIndex);
+        NetworkStats previous = previousNetworkStats[networkIndex];
+        return getRate(stats.packetsSent, stats, previous == null ? 0 : previous.packetsSent, previous);
+    }
+
+    @Override
+    public synchronized DecimalType getNetworkDataSentRate(int networkIndex) throws DeviceNotFoundException {
+        NetworkStats stats = getNetworkStats(networkIndex);
+        NetworkStats previous = previousNetworkStats[networkIndex];
+        return getRate(stats.bytesSent, stats, previous == null ? 0 : previous.bytesSent, previous);
+    }
+
+    @Override
+    public synchronized DecimalType getNetworkDataReceivedRate(int networkIndex) throws DeviceNotFoundException {
+        NetworkStats stats = getNetworkStats(networkIndex);
+        NetworkStats previous = previousNetworkStats[networkIndex];
+        return getRate(stats.bytesRecv, stats, previous == null ? 0 : previous.bytesRecv, previous);
+    }
+
+    /**
+     * Computes the change of a counter per second between two snapshots. A counter, which was reset in between,
+     * has the rate 0.
+     */
+    private DecimalType getRate(long value, NetworkStats stats, long previousValue, NetworkStats previous) {
+        long interval = previous == null ? 0 : stats.timestamp - previous.timestamp;
+        if (interval <= 0 || value < previousValue) {
+            return new DecimalType(0);
+        }
+        BigDecimal rate = new BigDecimal((value - previousValue) * 1000.0 / interval);
+        rate = rate.setScale(PRECISION_AFTER_DECIMAl_SIGN, BigDecimal.ROUND_HALF_UP);
+        return new DecimalType(rate);
     }
 
     @Override
@@ -540,4 +657,23 @@ public class OshiSysteminfo implements SysteminfoInterface {
         return new DecimalType(threadCount);
     }
 
+    /**
+     * The counters of a network at the time of one snapshot
+     */
+    private static class NetworkStats {
+        final long bytesSent;
+        final long bytesRecv;
+        final long packetsSent;
+        final long packetsRecv;
+        final long timestamp;
+
+        NetworkStats(NetworkIF network, long timestamp) {
+            bytesSent = network.getBytesSent();
+            bytesRecv = network.getBytesRecv();
+            packetsSent = network.getPacketsSent();
+            packetsRecv = network.getPacketsRecv();
+            this.timestamp = timestamp;
+        }
+    }
+
 }
@@ -19,6 +19,13 @@ import org.eclipse.smarthome.core.library.types.StringType;
  */
 public interface SysteminfoInterface {
 
+    /**
+     * Starts a new snapshot of the system information. The CPU load, memory, storage, network and process information
+     * is read from the operating system at most once per snapshot, when it is requested for the first time. All other
+     * requests until the next call of this method return the values of the snapshot.
+     */
+    public void updateSnapshot();
+
     // Operating system info
     /**
      * Get the Family of the operating system /e.g. Windows,Unix,.../
@@ -308,6 +315,42 @@ public interface SysteminfoInterface {
      */
     public DecimalType getNetworkDataReceived(int networkIndex) throws DeviceNotFoundException;
 
+    /**
+     * Get the number of packages received per second between the last two snapshots of this network
+     *
+     * @param networkIndex - the index of the network
+     * @return packages per second, 0 if there is only one snapshot yet
+     * @throws DeviceNotFoundException
+     */
+    public DecimalType getNetworkPackageReceivedRate(int networkIndex) throws DeviceNotFoundException;
+
+    /**
+     * Get the number of packages sent per second between the last two snapshots of this network
+     *
+     * @param networkIndex - the index of the network
+     * @return packages per second, 0 if there is only one snapshot yet
+     * @throws DeviceNotFoundException
+     */
+    public DecimalType getNetworkPackageSentRate(int networkIndex) throws DeviceNotFoundException;
+
+    /**
+     * Get the data sent per second between the last two snapshots of this network
+     *
+     * @param networkIndex - the index of the network
+     * @return bytes per second, 0 if there is only one snapshot yet
+     * @throws DeviceNotFoundException
+     */
+    public DecimalType getNetworkDataSentRate(int networkIndex) throws DeviceNotFoundException;
+
+    /**
+     * Get the data received per second between the last two snapshots of this network
+     *
+     * @param networkIndex - the index of the network
+     * @return bytes per second, 0 if there is only one snapshot yet
+     * @throws DeviceNotFoundException
+     */
+    public DecimalType getNetworkDataReceivedRate(int networkIndex) throws DeviceNotFoundException;
+
     // Display info
     /**
      * Get information about the display device as product number, manufacturer, serial number, width and height in cm";
@@ -59,6 +59,9 @@ public class TeslaBindingConstants {
     public static final String TESLA_GUI_STATE = "gui_settings";
     public static final String TESLA_MOBILE_ENABLED_STATE = "mobile_enabled";
 
+    // Thing property exporting the activity which sets the polling intervals
+    public static final String PROPERTY_VEHICLE_ACTIVITY = "vehicleActivity";
+
     public static final String BINDING_ID = "tesla";
 
     // List of all Thing Type UIDs
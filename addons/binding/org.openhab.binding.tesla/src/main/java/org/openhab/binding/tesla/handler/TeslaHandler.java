@@ -20,6 +20,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -54,6 +55,7 @@ import org.glassfish.jersey.client.ClientProperties;
 import org.openhab.binding.tesla.TeslaBindingConstants.EventKeys;
 import org.openhab.binding.tesla.internal.TeslaChannelSelectorProxy;
 import org.openhab.binding.tesla.internal.TeslaChannelSelectorProxy.TeslaChannelSelector;
+import org.openhab.binding.tesla.internal.VehicleActivity;
 import org.openhab.binding.tesla.internal.protocol.ChargeState;
 import org.openhab.binding.tesla.internal.protocol.ClimateState;
 import org.openhab.binding.tesla.internal.protocol.DriveState;
@@ -80,8 +82,6 @@ import com.google.gson.JsonParser;
 public class TeslaHandler extends BaseThingHandler {
 
     public static final int EVENT_REFRESH_INTERVAL = 200;
-    public static final int FAST_STATUS_REFRESH_INTERVAL = 15000;
-    public static final int SLOW_STATUS_REFRESH_INTERVAL = 60000;
     public static final int EVENT_RETRY_INTERVAL = 5000;
     public static final int EVENT_RECOVERY_INTERVAL = 180000;
     public static final int EVENT_MISSING_WHILE_STATIONARY_INTERVAL = 305000;
@@ -116,14 +116,18 @@ public class TeslaHandler extends BaseThingHandler {
     // Threading and Job related variables
     protected ScheduledFuture<?> connectJob;
     protected ScheduledFuture<?> eventJob;
-    protected ScheduledFuture<?> fastStateJob;
-    protected ScheduledFuture<?> slowStateJob;
+    protected StatePoller fastStatePoller;
+    protected StatePoller slowStatePoller;
     protected QueueChannelThrottler stateThrottler;
+    protected volatile VehicleActivity vehicleActivity = VehicleActivity.ASLEEP;
 
     protected long intervalTimestamp = 0;
     protected int intervalErrors = 0;
     protected ReentrantLock lock;
 
+    // The last state sent to each channel, to skip updates which do not change anything
+    protected final Map<String, State> channelStates = new ConcurrentHashMap<String, State>();
+
     protected Gson gson = new Gson();
     protected TeslaChannelSelectorProxy teslaChannelSelectorProxy = new TeslaChannelSelectorProxy();
     private JsonParser parser = new JsonParser();
@@ -138,6 +142,7 @@ public class TeslaHandler extends BaseThingHandler {
         logger.trace("Initializing the Tesla handler for {}", getThing().getUID());
 
         lock = new ReentrantLock();
+        channelStates.clear();
 
         if (connectJob == null || connectJob.isCancelled()) {
             connectJob = scheduler.scheduleWithFixedDelay(connectRunnable, 0, CONNECT_RETRY_INTERVAL,
@@ -158,14 +163,14 @@ public class TeslaHandler extends BaseThingHandler {
         stateThrottler = new QueueChannelThrottler(firstRate, scheduler, channels);
         stateThrottler.addRate(secondRate);
 
-        if (fastStateJob == null || fastStateJob.isCancelled()) {
-            fastStateJob = scheduler.scheduleWithFixedDelay(fastStateRunnable, 0, FAST_STATUS_REFRESH_INTERVAL,
-                    TimeUnit.MILLISECONDS);
+        if (fastStatePoller == null) {
+            fastStatePoller = new StatePoller(fastStateRunnable, true);
+            fastStatePoller.start();
         }
 
-        if (slowStateJob == null || slowStateJob.isCancelled()) {
-            slowStateJob = scheduler.scheduleWithFixedDelay(slowStateRunnable, 0, SLOW_STATUS_REFRESH_INTERVAL,
-                    TimeUnit.MILLISECONDS);
+        if (slowStatePoller == null) {
+            slowStatePoller = new StatePoller(slowStateRunnable, false);
+            slowStatePoller.start();
         }
     }
 
@@ -179,14 +184,14 @@ public class TeslaHandler extends BaseThingHandler {
             eventJob = null;
         }
 
-        if (fastStateJob != null && !fastStateJob.isCancelled()) {
-            fastStateJob.cancel(true);
-            fastStateJob = null;
+        if (fastStatePoller != null) {
+            fastStatePoller.stop();
+            fastStatePoller = null;
         }
 
-        if (slowStateJob != null && !slowStateJob.isCancelled()) {
-            slowStateJob.cancel(true);
-            slowStateJob = null;
+        if (slowStatePoller != null) {
+            slowStatePoller.stop();
+            slowStatePoller = null;
         }
     }
 
@@ -197,6 +202,7 @@ public class TeslaHandler extends BaseThingHandler {
         TeslaChannelSelector selector = TeslaChannelSelector.getValueSelectorFromChannelID(channelID);
 
         if (command instanceof RefreshType) {
+            channelStates.remove(channelID);
             if (isAwake()) {
                 // Request the state of all known variables. This is sub-optimal, but the requests get scheduled and
                 // throttled so we are safe not to break the Tesla SLA
@@ -366,7 +372,8 @@ public class TeslaHandler extends BaseThingHandler {
     public void requestData(String command, String payLoad) {
         Request request = new Request(command, payLoad, dataRequestTarget);
         if (stateThrottler != null) {
-            stateThrottler.submit(TESLA_DATA_THROTTLE, request);
+            // a state request which is still waiting in the queue will return the latest state anyway
+            stateThrottler.submit(TESLA_DATA_THROTTLE, payLoad == null ? command : null, request);
         }
     }
 
@@ -375,8 +382,17 @@ public class TeslaHandler extends BaseThingHandler {
     }
 
     public void queryVehicle(String parameter) {
-        WebTarget target = vehicleTarget.path(parameter);
-        sendCommand(parameter, null, target);
+        Request request = new Request(parameter, null, vehicleTarget.path(parameter));
+        if (stateThrottler != null) {
+            stateThrottler.submit(TESLA_COMMAND_THROTTLE, parameter, request);
+        }
+    }
+
+    public void wakeUp() {
+        Request request = new Request(TESLA_COMMAND_WAKE_UP, "{}", commandTarget);
+        if (stateThrottler != null) {
+            stateThrottler.submit(TESLA_COMMAND_THROTTLE, TESLA_COMMAND_WAKE_UP, request);
+        }
     }
 
     protected String invokeAndParse(String command, String payLoad, WebTarget target) {
@@ -450,6 +466,7 @@ public class TeslaHandler extends BaseThingHandler {
                 switch (request) {
                     case TESLA_DRIVE_STATE: {
                         driveState = gson.fromJson(result, DriveState.class);
+                        updateVehicleActivity();
                         break;
                     }
                     case TESLA_GUI_STATE: {
@@ -463,11 +480,11 @@ public class TeslaHandler extends BaseThingHandler {
                     case TESLA_CHARGE_STATE: {
                         chargeState = gson.fromJson(result, ChargeState.class);
                         if (chargeState.charging_state != null && chargeState.charging_state.equals("Charging")) {
-                            updateState(CHANNEL_CHARGE, OnOffType.ON);
+                            updateChannelState(CHANNEL_CHARGE, OnOffType.ON);
                         } else {
-                            updateState(CHANNEL_CHARGE, OnOffType.OFF);
+                            updateChannelState(CHANNEL_CHARGE, OnOffType.OFF);
                         }
-
+                        updateVehicleActivity();
                         break;
                     }
                     case TESLA_CLIMATE_STATE: {
@@ -501,23 +518,32 @@ public class TeslaHandler extends BaseThingHandler {
                     logger.debug("The request ({}) execution was {}, and reported '{}'", new Object[] { request,
                             requestResult ? "successful" : "not successful", jsonObject.get("reason").getAsString() });
                 } else {
+                    Map<String, String> thingProperties = getThing().getProperties();
+                    Map<String, String> properties = null;
                     Set<Map.Entry<String, JsonElement>> entrySet = jsonObject.entrySet();
                     for (Map.Entry<String, JsonElement> entry : entrySet) {
                         try {
                             TeslaChannelSelector selector = TeslaChannelSelector
-                                    .getValueSelectorFromRESTID(entry.getKey());
-                            if (!selector.isProperty()) {
+                                    .findValueSelectorFromRESTID(entry.getKey());
+                            if (selector == null) {
+                                logger.trace("Unable to handle the variable/value pair '{}':'{}'", entry.getKey(),
+                                        entry.getValue());
+                            } else if (!selector.isProperty()) {
                                 if (!entry.getValue().isJsonNull()) {
-                                    updateState(selector.getChannelID(), teslaChannelSelectorProxy
-                                            .getState(entry.getValue().getAsString(), selector, editProperties()));
+                                    updateChannelState(selector.getChannelID(), teslaChannelSelectorProxy
+                                            .getState(entry.getValue(), selector, thingProperties));
                                 } else {
-                                    updateState(selector.getChannelID(), UnDefType.UNDEF);
+                                    updateChannelState(selector.getChannelID(), UnDefType.UNDEF);
                                 }
                             } else {
                                 if (!entry.getValue().isJsonNull()) {
-                                    Map<String, String> properties = editProperties();
-                                    properties.put(selector.getChannelID(), entry.getValue().getAsString());
-                                    updateProperties(properties);
+                                    String value = entry.getValue().getAsString();
+                                    if (!value.equals(thingProperties.get(selector.getChannelID()))) {
+                                        if (properties == null) {
+                                            properties = editProperties();
+                                        }
+                                        properties.put(selector.getChannelID(), value);
+                                    }
                                 }
                             }
                         } catch (Exception e) {
@@ -525,6 +551,9 @@ public class TeslaHandler extends BaseThingHandler {
                                     entry.getValue());
                         }
                     }
+                    if (properties != null) {
+                        updateProperties(properties);
+                    }
                 }
             }
         } catch (Exception p) {
@@ -532,6 +561,21 @@ public class TeslaHandler extends BaseThingHandler {
         }
     }
 
+    /**
+     * Updates the state of a channel, unless the channel already has this state
+     */
+    protected void updateChannelState(String channelID, State state) {
+        if (state == null) {
+            channelStates.remove(channelID);
+            updateState(channelID, state);
+            return;
+        }
+        State previousState = channelStates.put(channelID, state);
+        if (!state.equals(previousState)) {
+            updateState(channelID, state);
+        }
+    }
+
     protected boolean isAwake() {
         return (vehicle != null) ? (vehicle.state != "asleep" && vehicle.vehicle_id != null) : false;
     }
@@ -540,12 +584,65 @@ public class TeslaHandler extends BaseThingHandler {
         if (driveState != null) {
             if (driveState.speed != null && driveState.shift_state != null) {
                 return !driveState.speed.equals("Undefined")
-                        && (!driveState.shift_state.equals("P") || !driveState.shift_state.equals("Undefined"));
+                        && (!driveState.shift_state.equals("P") && !driveState.shift_state.equals("Undefined"));
             }
         }
         return false;
     }
 
+    protected boolean isCharging() {
+        return chargeState != null && "Charging".equals(chargeState.charging_state);
+    }
+
+    protected VehicleActivity getVehicleActivity() {
+        if (!isAwake()) {
+            return VehicleActivity.ASLEEP;
+        } else if (isInMotion()) {
+            return VehicleActivity.DRIVING;
+        } else if (isCharging()) {
+            return VehicleActivity.CHARGING;
+        }
+        return VehicleActivity.PARKED;
+    }
+
+    /**
+     * Determines the current activity of the vehicle, and reschedules the state requests if the activity changed
+     */
+    protected void updateVehicleActivity() {
+        VehicleActivity activity = getVehicleActivity();
+        if (activity != vehicleActivity) {
+            logger.debug("The vehicle activity changed from {} to {}", vehicleActivity, activity);
+            vehicleActivity = activity;
+            StatePoller poller = fastStatePoller;
+            if (poller != null) {
+                poller.reschedule();
+            }
+            poller = slowStatePoller;
+            if (poller != null) {
+                poller.reschedule();
+            }
+        }
+    }
+
+    /**
+     * Updates the vehicle activity property if it has changed. The statistics of the request throttler change with
+     * almost every request, so they are only logged instead of being stored with the thing.
+     */
+    protected void updateThrottlerStatus() {
+        String activity = vehicleActivity.toString();
+        if (!activity.equals(getThing().getProperties().get(PROPERTY_VEHICLE_ACTIVITY))) {
+            Map<String, String> properties = editProperties();
+            properties.put(PROPERTY_VEHICLE_ACTIVITY, activity);
+            updateProperties(properties);
+        }
+        QueueChannelThrottler throttler = stateThrottler;
+        if (throttler != null && logger.isDebugEnabled()) {
+            logger.debug("Request throttler: queue depth {}, dropped {}, deduplicated {}, rate limit wait time {} ms",
+                    new Object[] { throttler.getQueueDepth(), throttler.getDroppedCount(),
+                            throttler.getDeduplicatedCount(), throttler.getTotalWaitTime() });
+        }
+    }
+
     public void setChargeLimit(int percent) {
         JsonObject payloadObject = new JsonObject();
         payloadObject.addProperty("percent", percent);
@@ -693,7 +790,7 @@ public class TeslaHandler extends BaseThingHandler {
                     requestData(TESLA_VEHICLE_STATE);
                 } else {
                     if (vehicle != null) {
-                        sendCommand(TESLA_COMMAND_WAKE_UP);
+                        wakeUp();
                     } else {
                         vehicle = queryVehicle();
                     }
@@ -707,6 +804,7 @@ public class TeslaHandler extends BaseThingHandler {
         @Override
         public void run() {
             if (getThing().getStatus() == ThingStatus.ONLINE) {
+                updateThrottlerStatus();
                 if (isAwake()) {
                     requestData(TESLA_CHARGE_STATE);
                     requestData(TESLA_CLIMATE_STATE);
@@ -715,7 +813,7 @@ public class TeslaHandler extends BaseThingHandler {
                     parseAndUpdate("queryVehicle", null, vehicleJSON);
                 } else {
                     if (vehicle != null) {
-                        sendCommand(TESLA_COMMAND_WAKE_UP);
+                        wakeUp();
                     } else {
                         vehicle = queryVehicle();
                     }
@@ -749,6 +847,7 @@ public class TeslaHandler extends BaseThingHandler {
                             if ((vehicle = queryVehicle()) != null) {
                                 logger.debug("Found the vehicle with VIN '{}' in the list of vehicles you own",
                                         getConfig().get(VIN));
+                                channelStates.clear();
                                 updateStatus(ThingStatus.ONLINE);
                                 intervalErrors = 0;
                                 intervalTimestamp = System.currentTimeMillis();
@@ -876,11 +975,11 @@ public class TeslaHandler extends BaseThingHandler {
                                                         .getValueSelectorFromRESTID((EventKeys.values()[i]).toString());
                                                 if (!selector.isProperty()) {
                                                     State newState = teslaChannelSelectorProxy.getState(vals[i],
-                                                            selector, editProperties());
+                                                            selector, getThing().getProperties());
                                                     if (newState != null && !vals[i].equals("")) {
-                                                        updateState(selector.getChannelID(), newState);
+                                                        updateChannelState(selector.getChannelID(), newState);
                                                     } else {
-                                                        updateState(selector.getChannelID(), UnDefType.UNDEF);
+                                                        updateChannelState(selector.getChannelID(), UnDefType.UNDEF);
 
                                                     }
                                                 } else {
@@ -912,7 +1011,7 @@ public class TeslaHandler extends BaseThingHandler {
                         if (vehicle != null) {
                             // wake up the vehicle until streaming token <> 0
                             logger.debug("Event stream : Wake up vehicle");
-                            sendCommand(TESLA_COMMAND_WAKE_UP);
+                            wakeUp();
                         } else {
                             logger.debug("Event stream : Querying the vehicle");
                             vehicle = queryVehicle();
@@ -928,6 +1027,91 @@ public class TeslaHandler extends BaseThingHandler {
         }
     };
 
+    /**
+     * Runs a group of state requests repeatedly, with an interval depending on the activity of the vehicle
+     */
+    protected class StatePoller {
+
+        private final Runnable requests;
+        private final boolean fastState;
+        private ScheduledFuture<?> job;
+        private boolean stopped = false;
+        private long scheduleCount = 0;
+        private long lastRunTime = 0;
+        private long nextRunTime = 0;
+
+        public StatePoller(Runnable requests, boolean fastState) {
+            this.requests = requests;
+            this.fastState = fastState;
+        }
+
+        private long getInterval() {
+            return fastState ? vehicleActivity.getFastStateInterval() : vehicleActivity.getSlowStateInterval();
+        }
+
+        public synchronized void start() {
+            stopped = false;
+            schedule(0);
+        }
+
+        public synchronized void stop() {
+            stopped = true;
+            if (job != null) {
+                job.cancel(true);
+                job = null;
+            }
+        }
+
+        /**
+         * Moves the next run forward if the interval of the current vehicle activity is shorter
+         */
+        public synchronized void reschedule() {
+            // while the requests are running, the next run is scheduled with the current interval afterwards
+            if (job != null) {
+                long now = System.currentTimeMillis();
+                long runTime = Math.max(lastRunTime + getInterval(), now);
+                if (runTime < nextRunTime) {
+                    job.cancel(false);
+                    schedule(runTime - now);
+                }
+            }
+        }
+
+        private void schedule(long delay) {
+            final long sequence = ++scheduleCount;
+            nextRunTime = System.currentTimeMillis() + delay;
+            job = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    poll(sequence);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void poll(long sequence) {
+            synchronized (this) {
+                // a run which was replaced by reschedule() may already have been started
+                if (stopped || sequence != scheduleCount) {
+                    return;
+                }
+                job = null;
+            }
+            try {
+                updateVehicleActivity();
+                requests.run();
+            } catch (Exception e) {
+                logger.error("An exception occurred while requesting the state of the vehicle: '{}'", e.getMessage());
+            } finally {
+                synchronized (this) {
+                    if (!stopped) {
+                        lastRunTime = System.currentTimeMillis();
+                        schedule(getInterval());
+                    }
+                }
+            }
+        }
+    }
+
     protected class Request implements Runnable {
 
         private String request;
@@ -12,6 +12,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.eclipse.smarthome.core.library.types.DateTimeType;
@@ -25,6 +26,9 @@ import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.Type;
 import org.openhab.binding.tesla.TeslaBindingConstants;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
 /**
  * The {@link TeslaChannelSelectorProxy} class is a helper class to instantiate
  * and parameterize the {@link TeslaChannelSelector} Enum
@@ -923,10 +927,26 @@ public class TeslaChannelSelectorProxy {
         },
         WHEEL_TYPE("wheel_type", "wheeltype", StringType.class, true);
 
+        private static final Map<String, TeslaChannelSelector> SELECTORS_BY_RESTID = new HashMap<String, TeslaChannelSelector>();
+        private static final Map<String, TeslaChannelSelector> SELECTORS_BY_CHANNELID = new HashMap<String, TeslaChannelSelector>();
+
+        static {
+            // several selectors share a channel, the lookup returns the first one as the former linear search did
+            for (TeslaChannelSelector c : values()) {
+                if (c.RESTID != null && !SELECTORS_BY_RESTID.containsKey(c.RESTID)) {
+                    SELECTORS_BY_RESTID.put(c.RESTID, c);
+                }
+                if (!SELECTORS_BY_CHANNELID.containsKey(c.channelID)) {
+                    SELECTORS_BY_CHANNELID.put(c.channelID, c);
+                }
+            }
+        }
+
         private final String RESTID;
         private final String channelID;
         private Class<? extends Type> typeClass;
         private final boolean isProperty;
+        private Method valueOf;
 
         private TeslaChannelSelector(String RESTID, String channelID, Class<? extends Type> typeClass,
                 boolean isProperty) {
@@ -934,6 +954,10 @@ public class TeslaChannelSelectorProxy {
             this.channelID = channelID;
             this.typeClass = typeClass;
             this.isProperty = isProperty;
+            try {
+                this.valueOf = typeClass.getMethod("valueOf", String.class);
+            } catch (NoSuchMethodException e) {
+            }
         }
 
         @Override
@@ -958,13 +982,14 @@ public class TeslaChannelSelectorProxy {
         }
 
         public State getState(String s) {
+            if (valueOf == null) {
+                return null;
+            }
             try {
-                Method valueOf = typeClass.getMethod("valueOf", String.class);
                 State state = (State) valueOf.invoke(typeClass, s);
                 if (state != null) {
                     return state;
                 }
-            } catch (NoSuchMethodException e) {
             } catch (IllegalArgumentException e) {
             } catch (IllegalAccessException e) {
             } catch (InvocationTargetException e) {
@@ -973,13 +998,20 @@ public class TeslaChannelSelectorProxy {
             return null;
         }
 
+        /**
+         * Returns true if the state is created by the valueOf method of the type class, without any
+         * conversion specific to this selector
+         */
+        private boolean hasDefaultConversion() {
+            return getClass() == TeslaChannelSelector.class;
+        }
+
         public static TeslaChannelSelector getValueSelectorFromChannelID(String valueSelectorText)
                 throws IllegalArgumentException {
 
-            for (TeslaChannelSelector c : TeslaChannelSelector.values()) {
-                if (c.channelID.equals(valueSelectorText)) {
-                    return c;
-                }
+            TeslaChannelSelector c = SELECTORS_BY_CHANNELID.get(valueSelectorText);
+            if (c != null) {
+                return c;
             }
 
             throw new IllegalArgumentException("Not valid value selector");
@@ -988,14 +1020,20 @@ public class TeslaChannelSelectorProxy {
         public static TeslaChannelSelector getValueSelectorFromRESTID(String valueSelectorText)
                 throws IllegalArgumentException {
 
-            for (TeslaChannelSelector c : TeslaChannelSelector.values()) {
-                if (c.RESTID != null && c.RESTID.equals(valueSelectorText)) {
-                    return c;
-                }
+            TeslaChannelSelector c = findValueSelectorFromRESTID(valueSelectorText);
+            if (c != null) {
+                return c;
             }
 
             throw new IllegalArgumentException("Not valid value selector");
         }
+
+        /**
+         * Returns the selector for a variable of the REST API, or null if the variable is not supported
+         */
+        public static TeslaChannelSelector findValueSelectorFromRESTID(String valueSelectorText) {
+            return SELECTORS_BY_RESTID.get(valueSelectorText);
+        }
     }
 
     public String latitude = "0";
@@ -1006,6 +1044,33 @@ public class TeslaChannelSelectorProxy {
         return selector.getState(s, this, properties);
     }
 
+    /**
+     * Converts a value of a REST API response. Numbers and booleans are converted directly, other values are
+     * converted from their string representation
+     */
+    public State getState(JsonElement value, TeslaChannelSelector selector, Map<String, String> properties) {
+        if (value.isJsonPrimitive()) {
+            JsonPrimitive primitive = value.getAsJsonPrimitive();
+            Class<? extends Type> typeClass = selector.getTypeClass();
+            if (primitive.isBoolean() && typeClass == OnOffType.class) {
+                // all switch selectors map true to ON and false to OFF
+                return primitive.getAsBoolean() ? OnOffType.ON : OnOffType.OFF;
+            }
+            if (primitive.isNumber() && selector.hasDefaultConversion()) {
+                try {
+                    if (typeClass == DecimalType.class) {
+                        return new DecimalType(primitive.getAsBigDecimal());
+                    } else if (typeClass == PercentType.class) {
+                        return new PercentType(primitive.getAsBigDecimal());
+                    }
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        return selector.getState(value.getAsString(), this, properties);
+    }
+
     private static int CelsiusToFahrenheit(DecimalType c) {
         float cTemp = c.floatValue();
         return (int) Math.round((cTemp * 9.0 / 5.0) + 32.0);
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.tesla.internal;
+
+/**
+ * The {@link VehicleActivity} defines what the vehicle is doing, and how often
+ * the fast changing (drive, vehicle) and slow changing (charge, climate, gui)
+ * states are requested from the Tesla back-end while doing so
+ *
+ * @author agent - Initial contribution
+ */
+public enum VehicleActivity {
+
+    ASLEEP(60000, 60000),
+    PARKED(30000, 120000),
+    DRIVING(5000, 60000),
+    CHARGING(60000, 30000);
+
+    private final int fastStateInterval;
+    private final int slowStateInterval;
+
+    private VehicleActivity(int fastStateInterval, int slowStateInterval) {
+        this.fastStateInterval = fastStateInterval;
+        this.slowStateInterval = slowStateInterval;
+    }
+
+    /**
+     * Returns the interval in milliseconds between requests of the drive and vehicle state
+     */
+    public int getFastStateInterval() {
+        return fastStateInterval;
+    }
+
+    /**
+     * Returns the interval in milliseconds between requests of the charge, climate and gui state
+     */
+    public int getSlowStateInterval() {
+        return slowStateInterval;
+    }
+}
@@ -18,13 +18,16 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * The {@link QueueChannelThrottler} implements a throttler that maintains
- * multiple execution rates, and maintains the order of calls
+ * multiple execution rates, and maintains the order of calls. Tasks submitted
+ * with a task key are executed only once while a task with the same key is
+ * waiting in the queue
  * 
  * @author Karel Goderis - Initial contribution
  */
@@ -35,13 +38,23 @@ public final class QueueChannelThrottler extends
 			.getLogger(QueueChannelThrottler.class);
 
 	private final static int MAX_QUEUE_LENGTH = 150;
-	private BlockingQueue<FutureTask<?>> tasks;
-	private final Rate overallRate;
+	private BlockingQueue<ThrottledTask> tasks;
+	private final Map<Object, ThrottledTask> pendingTasks = new HashMap<Object, ThrottledTask>();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+	private final AtomicLong deduplicatedCount = new AtomicLong();
+	private final AtomicLong totalWaitTime = new AtomicLong();
 
 	private final Runnable processQueueTask = new Runnable() {
 		@Override
 		public void run() {
-			FutureTask<?> task = tasks.poll();
+			ThrottledTask task;
+			synchronized (pendingTasks) {
+				task = tasks.poll();
+				if (task != null && task.taskKey != null) {
+					pendingTasks.remove(task.taskKey);
+				}
+			}
 			if (task != null && !task.isCancelled()) {
 				task.run();
 			}
@@ -77,40 +90,103 @@ public final class QueueChannelThrottler extends
 			ScheduledExecutorService scheduler, Map<Object, Rate> channels,
 			TimeProvider timeProvider, int queueLength) {
 		super(someRate, scheduler, channels, timeProvider);
-		overallRate = someRate;
-		tasks = new LinkedBlockingQueue<FutureTask<?>>(queueLength);
+		tasks = new LinkedBlockingQueue<ThrottledTask>(queueLength);
 
 	}
 
 	@Override
 	public Future<?> submit(Runnable task) {
-		return submit(null, task);
+		return submit(null, null, task);
 	}
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Override
 	public Future<?> submit(Object channelKey, Runnable task) {
-		FutureTask runTask = new FutureTask(task, null);
-		try {
-			if (tasks.offer(runTask, overallRate.timeInMillis(),
-					TimeUnit.MILLISECONDS)) {
-				long throttledTime = channelKey == null ? callTime(null)
-						: callTime(channels.get(channelKey));
-				long now = timeProvider.getCurrentTimeInMillis();
-				scheduler.schedule(processQueueTask, throttledTime < now ? 0
-						: throttledTime - now, TimeUnit.MILLISECONDS);
-				return runTask;
-			} else {
+		return submit(channelKey, null, task);
+	}
+
+	/**
+	 * Submits a task to the throttler. If a task with the same task key is
+	 * still waiting in the queue, the given task is not queued and the future
+	 * of the waiting task is returned instead
+	 * 
+	 * @param channelKey
+	 *            the key of the channel rate to apply, or null
+	 * @param taskKey
+	 *            the key identifying tasks of the same kind, or null if the
+	 *            task must always be executed
+	 * @param task
+	 *            the task to execute
+	 * @return the future of the task, or null if the queue is full
+	 */
+	public Future<?> submit(Object channelKey, Object taskKey, Runnable task) {
+		ThrottledTask runTask;
+		synchronized (pendingTasks) {
+			if (taskKey != null) {
+				ThrottledTask pendingTask = pendingTasks.get(taskKey);
+				if (pendingTask != null) {
+					deduplicatedCount.incrementAndGet();
+					logger.trace("The task '{}' is already waiting in the queue", taskKey);
+					return pendingTask;
+				}
+			}
+			runTask = new ThrottledTask(taskKey, task);
+			if (!tasks.offer(runTask)) {
+				droppedCount.incrementAndGet();
 				logger.warn(
-						"The QueueThrottler can not take the task '{}' at this point in time",
-						runTask.toString());
+						"The QueueThrottler can not take the task '{}' at this point in time, {} tasks are waiting",
+						taskKey != null ? taskKey : task, tasks.size());
+				return null;
+			}
+			if (taskKey != null) {
+				pendingTasks.put(taskKey, runTask);
 			}
-		} catch (InterruptedException e) {
-			logger.error(
-					"An exception occurred while scheduling a new taks: '{}'",
-					e.getMessage());
 		}
 
-		return null;
+		long throttledTime = channelKey == null ? callTime(null)
+				: callTime(channels.get(channelKey));
+		long now = timeProvider.getCurrentTimeInMillis();
+		long delay = throttledTime < now ? 0 : throttledTime - now;
+		totalWaitTime.addAndGet(delay);
+		scheduler.schedule(processQueueTask, delay, TimeUnit.MILLISECONDS);
+		return runTask;
+	}
+
+	/**
+	 * Returns the number of tasks waiting in the queue
+	 */
+	public int getQueueDepth() {
+		return tasks.size();
+	}
+
+	/**
+	 * Returns the number of tasks which were dropped because the queue was full
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Returns the number of tasks which were not queued because a task with
+	 * the same key was already waiting
+	 */
+	public long getDeduplicatedCount() {
+		return deduplicatedCount.get();
+	}
+
+	/**
+	 * Returns the total time in milliseconds the queued tasks were delayed by
+	 * the rate limits
+	 */
+	public long getTotalWaitTime() {
+		return totalWaitTime.get();
+	}
+
+	private static class ThrottledTask extends FutureTask<Object> {
+		private final Object taskKey;
+
+		public ThrottledTask(Object taskKey, Runnable task) {
+			super(task, null);
+			this.taskKey = taskKey;
+		}
 	}
 }
@@ -8,6 +8,8 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -27,6 +29,9 @@ import com.beowulfe.hap.HomekitRoot;
  * Stores the created HomekitAccessories. GroupedAccessories are also held here
  * in a pre-created pending state until all required characteristics are found.
  *
+ * The tagged items the accessories were created from are kept by item name, so
+ * changes to the item registry can be compared with the existing accessories.
+ *
  * @author Andy Lintner
  */
 class HomekitAccessoryRegistry {
@@ -36,31 +41,88 @@ class HomekitAccessoryRegistry {
     private final Set<Integer> createdIds = new HashSet<>();
     private final Map<String, GroupedAccessory> pendingGroupedAccessories = new HashMap<>();
     private final List<HomekitTaggedItem> pendingCharacteristics = new LinkedList<>();
+    private final Map<String, HomekitTaggedItem> taggedItems = new HashMap<>();
 
     private final Logger logger = LoggerFactory.getLogger(HomekitAccessoryRegistry.class);
 
-    public void remove(HomekitTaggedItem taggedItem) {
-        Iterator<HomekitAccessory> i = createdAccessories.iterator();
-        while (i.hasNext()) {
-            HomekitAccessory accessory = i.next();
-            if (accessory.getId() == taggedItem.getId()) {
-                logger.debug("Removed accessory " + accessory.getId());
-                bridge.removeAccessory(accessory);
-                i.remove();
+    public synchronized void remove(HomekitTaggedItem taggedItem) {
+        String itemName = taggedItem.getItem().getName();
+        taggedItems.remove(itemName);
+        if (taggedItem.isRootDevice()) {
+            pendingGroupedAccessories.remove(itemName);
+            Iterator<HomekitAccessory> i = createdAccessories.iterator();
+            while (i.hasNext()) {
+                HomekitAccessory accessory = i.next();
+                if (accessory.getId() == taggedItem.getId()) {
+                    logger.debug("Removed accessory " + accessory.getId());
+                    if (bridge != null) {
+                        bridge.removeAccessory(accessory);
+                    }
+                    createdIds.remove(accessory.getId());
+                    i.remove();
+                }
             }
         }
+        if (taggedItem.isCharacteristic()) {
+            pendingCharacteristics.removeIf(c -> c.getItem().getName().equals(itemName));
+        }
     }
 
     public synchronized void clear() {
         while (!createdAccessories.isEmpty()) {
-            bridge.removeAccessory(createdAccessories.remove(0));
+            HomekitAccessory accessory = createdAccessories.remove(0);
+            if (bridge != null) {
+                bridge.removeAccessory(accessory);
+            }
         }
         createdIds.clear();
+        pendingGroupedAccessories.clear();
+        pendingCharacteristics.clear();
+        taggedItems.clear();
+    }
+
+    public synchronized void addTaggedItem(HomekitTaggedItem taggedItem) {
+        taggedItems.put(taggedItem.getItem().getName(), taggedItem);
+    }
+
+    /**
+     * Replaces the tagged item of an existing accessory, without touching the accessory.
+     */
+    public synchronized void replaceTaggedItem(HomekitTaggedItem taggedItem) {
+        if (taggedItems.containsKey(taggedItem.getItem().getName())) {
+            taggedItems.put(taggedItem.getItem().getName(), taggedItem);
+        }
+    }
+
+    /**
+     * @return the tagged item the accessories for this item were created from, or null
+     */
+    public synchronized HomekitTaggedItem getTaggedItem(String itemName) {
+        return taggedItems.get(itemName);
+    }
+
+    public synchronized Collection<String> getItemNames() {
+        return new ArrayList<>(taggedItems.keySet());
+    }
+
+    /**
+     * @return the names of the characteristic items that are member of the given group
+     */
+    public synchronized Collection<String> getCharacteristicNames(String groupName) {
+        List<String> names = new ArrayList<>();
+        for (HomekitTaggedItem taggedItem : taggedItems.values()) {
+            if (taggedItem.isCharacteristic() && taggedItem.getItem().getGroupNames().contains(groupName)) {
+                names.add(taggedItem.getItem().getName());
+            }
+        }
+        return names;
     }
 
     public synchronized void setBridge(HomekitRoot bridge) {
         this.bridge = bridge;
-        createdAccessories.forEach(accessory -> bridge.addAccessory(accessory));
+        if (bridge != null) {
+            createdAccessories.forEach(accessory -> bridge.addAccessory(accessory));
+        }
     }
 
     public synchronized void addRootDevice(HomekitAccessory accessory) {
@@ -70,6 +70,23 @@ public class HomekitAccessoryUpdater {
         });
     }
 
+    /**
+     * Moves the subscriptions of an item to the instance replacing it in the item registry.
+     */
+    public void itemReplaced(GenericItem oldItem, GenericItem newItem) {
+        for (ItemKey itemKey : subscriptionsByName.keySet()) {
+            if (itemKey.item != oldItem) {
+                continue;
+            }
+            Subscription subscription = subscriptionsByName.remove(itemKey);
+            if (subscription != null) {
+                oldItem.removeStateChangeListener(subscription);
+                newItem.addStateChangeListener(subscription);
+                subscriptionsByName.put(new ItemKey(newItem, itemKey.key), subscription);
+            }
+        }
+    }
+
     @FunctionalInterface
     private static interface Subscription extends StateChangeListener {
 
@@ -9,7 +9,14 @@
 package org.openhab.io.homekit.internal;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
@@ -23,46 +30,52 @@ import com.beowulfe.hap.HomekitRoot;
  * Listens for changes to the item registry. When changes are detected, check
  * for Homekit tags and, if present, add the items to the HomekitAccessoryRegistry.
  *
+ * Changes are collected for {@link #BATCH_DELAY_MS} and then compared with the accessories in the registry, so
+ * only accessories whose items really changed are removed and created again. Every accessory added to or removed
+ * from a running bridge makes it rebuild its accessory list and reset all client connections.
+ *
  * @author Andy Lintner
  */
 public class HomekitChangeListener implements ItemRegistryChangeListener {
 
+    private static final long BATCH_DELAY_MS = 500;
+
     private ItemRegistry itemRegistry;
     private HomekitAccessoryUpdater updater = new HomekitAccessoryUpdater();
     private Logger logger = LoggerFactory.getLogger(HomekitChangeListener.class);
     private final HomekitAccessoryRegistry accessoryRegistry = new HomekitAccessoryRegistry();
     private HomekitSettings settings;
 
+    private ScheduledExecutorService scheduler;
+    private final Set<String> pendingChanges = new HashSet<>();
+    private boolean pendingAllItems = false;
+    private boolean flushScheduled = false;
+
     @Override
-    public synchronized void added(Item item) {
-        HomekitTaggedItem taggedItem = new HomekitTaggedItem(item, itemRegistry);
-        if (taggedItem.isTagged()) {
-            if (taggedItem.isRootDevice()) {
-                createRootDevice(taggedItem);
-            }
-            if (taggedItem.isCharacteristic()) {
-                createCharacteristic(taggedItem);
-            }
-        }
+    public void added(Item item) {
+        itemChanged(item.getName());
     }
 
     @Override
     public void allItemsChanged(Collection<String> oldItemNames) {
-        clearAccessories();
+        synchronized (pendingChanges) {
+            pendingAllItems = true;
+            scheduleFlush();
+        }
     }
 
     @Override
-    public synchronized void removed(Item item) {
-        HomekitTaggedItem taggedItem = new HomekitTaggedItem(item, itemRegistry);
-        if (taggedItem.isTagged()) {
-            accessoryRegistry.remove(taggedItem);
-        }
+    public void removed(Item item) {
+        itemChanged(item.getName());
     }
 
     @Override
     public void updated(Item oldElement, Item element) {
-        removed(oldElement);
-        added(element);
+        synchronized (pendingChanges) {
+            pendingChanges.add(oldElement.getName());
+            pendingChanges.add(element.getName());
+            scheduleFlush();
+        }
     }
 
     public synchronized void clearAccessories() {
@@ -75,8 +88,14 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
 
     public synchronized void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor();
+        }
         itemRegistry.addRegistryChangeListener(this);
-        itemRegistry.getAll().forEach(item -> added(item));
+        synchronized (pendingChanges) {
+            pendingAllItems = true;
+        }
+        flush();
     }
 
     public void setUpdater(HomekitAccessoryUpdater updater) {
@@ -87,10 +106,155 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         this.settings = settings;
     }
 
-    public void stop() {
+    public synchronized void stop() {
         if (this.itemRegistry != null) {
             this.itemRegistry.removeRegistryChangeListener(this);
         }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void itemChanged(String itemName) {
+        synchronized (pendingChanges) {
+            pendingChanges.add(itemName);
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        ScheduledExecutorService scheduler = this.scheduler;
+        if (!flushScheduled && scheduler != null) {
+            flushScheduled = true;
+            scheduler.schedule(() -> flush(), BATCH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Applies the collected changes to the accessory registry.
+     */
+    private synchronized void flush() {
+        Set<String> itemNames;
+        synchronized (pendingChanges) {
+            flushScheduled = false;
+            if (itemRegistry == null) {
+                // all items are applied when the item registry is set
+                return;
+            }
+            if (pendingAllItems) {
+                itemNames = new HashSet<>(accessoryRegistry.getItemNames());
+                for (Item item : itemRegistry.getAll()) {
+                    itemNames.add(item.getName());
+                }
+            } else {
+                itemNames = new HashSet<>(pendingChanges);
+            }
+            pendingAllItems = false;
+            pendingChanges.clear();
+        }
+        if (itemNames.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Set<String> changed = new HashSet<>();
+        for (String itemName : itemNames) {
+            Item item = itemRegistry.get(itemName);
+            HomekitTaggedItem taggedItem = null;
+            if (item != null) {
+                taggedItem = new HomekitTaggedItem(item, itemRegistry);
+            }
+            HomekitTaggedItem existing = accessoryRegistry.getTaggedItem(itemName);
+            if (existing == null ? taggedItem != null && taggedItem.isTagged()
+                    : !existing.isSameAccessory(taggedItem)) {
+                changed.add(itemName);
+            } else if (existing != null && existing.getItem() != item) {
+                // same accessory, but state changes are now reported by the new item instance
+                if (existing.getItem() instanceof GenericItem && item instanceof GenericItem) {
+                    updater.itemReplaced((GenericItem) existing.getItem(), (GenericItem) item);
+                }
+                accessoryRegistry.replaceTaggedItem(taggedItem);
+            }
+        }
+        if (changed.isEmpty()) {
+            logger.debug("No homekit accessory changes in {} changed items", itemNames.size());
+            return;
+        }
+        addGroupedAccessories(changed);
+
+        for (String itemName : changed) {
+            HomekitTaggedItem existing = accessoryRegistry.getTaggedItem(itemName);
+            if (existing != null) {
+                logger.debug("Removing homekit item " + itemName);
+                accessoryRegistry.remove(existing);
+            }
+        }
+        for (String itemName : changed) {
+            Item item = itemRegistry.get(itemName);
+            if (item != null) {
+                added(new HomekitTaggedItem(item, itemRegistry));
+            }
+        }
+        logger.debug("Applied {} homekit accessory changes in {} ms", changed.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * A grouped accessory is created from its group and all characteristic items in it, so if any of them changed,
+     * the whole grouped accessory is created again.
+     */
+    private void addGroupedAccessories(Set<String> changed) {
+        Set<String> groups = new HashSet<>();
+        for (String itemName : changed) {
+            HomekitTaggedItem existing = accessoryRegistry.getTaggedItem(itemName);
+            if (existing != null) {
+                collectGroups(existing.getItem(), groups);
+            }
+            Item item = itemRegistry.get(itemName);
+            if (item != null) {
+                collectGroups(item, groups);
+            }
+        }
+        for (String group : groups) {
+            Item groupItem = itemRegistry.get(group);
+            if (!isGroupedDevice(accessoryRegistry.getTaggedItem(group))
+                    && !(groupItem != null && isGroupedDevice(new HomekitTaggedItem(groupItem, itemRegistry)))) {
+                continue;
+            }
+            changed.add(group);
+            changed.addAll(accessoryRegistry.getCharacteristicNames(group));
+            if (groupItem instanceof GroupItem) {
+                for (Item member : ((GroupItem) groupItem).getMembers()) {
+                    if (new HomekitTaggedItem(member, itemRegistry).isCharacteristic()) {
+                        changed.add(member.getName());
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isGroupedDevice(HomekitTaggedItem taggedItem) {
+        return taggedItem != null && taggedItem.isRootDevice() && taggedItem.getItem() instanceof GroupItem;
+    }
+
+    private void collectGroups(Item item, Set<String> groups) {
+        if (item instanceof GroupItem) {
+            groups.add(item.getName());
+        }
+        groups.addAll(item.getGroupNames());
+    }
+
+    private void added(HomekitTaggedItem taggedItem) {
+        if (taggedItem.isTagged()) {
+            accessoryRegistry.addTaggedItem(taggedItem);
+            if (taggedItem.isRootDevice()) {
+                createRootDevice(taggedItem);
+            }
+            if (taggedItem.isCharacteristic()) {
+                createCharacteristic(taggedItem);
+            }
+        }
     }
 
     private void createRootDevice(HomekitTaggedItem taggedItem) {
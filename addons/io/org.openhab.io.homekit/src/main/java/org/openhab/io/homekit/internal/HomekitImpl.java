@@ -65,9 +65,9 @@ public class HomekitImpl implements Homekit {
     }
 
     protected void deactivate() {
-        changeListener.clearAccessories();
         bridge.stop();
         homekit.stop();
+        changeListener.clearAccessories();
         bridge = null;
         homekit = null;
         changeListener.setBridge(null);
@@ -92,7 +92,8 @@ public class HomekitImpl implements Homekit {
         homekit = new HomekitServer(settings.getNetworkInterface(), settings.getPort());
         bridge = homekit.createBridge(new HomekitAuthInfoImpl(storageService, settings.getPin()), settings.getName(),
                 settings.getManufacturer(), settings.getModel(), settings.getSerialNumber());
-        bridge.start();
+        // add the accessories before starting, the bridge rebuilds its accessory list on every change once started
         changeListener.setBridge(bridge);
+        bridge.start();
     }
 }
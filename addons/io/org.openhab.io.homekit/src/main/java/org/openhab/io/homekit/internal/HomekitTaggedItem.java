@@ -8,10 +8,13 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.eclipse.smarthome.core.items.GroupItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.library.items.ColorItem;
@@ -99,6 +102,31 @@ public class HomekitTaggedItem {
         return id;
     }
 
+    /**
+     * @return true if an accessory created from the other tagged item would be the same as one created from this
+     *         item, so an existing accessory does not need to be created again
+     */
+    public boolean isSameAccessory(HomekitTaggedItem other) {
+        if (other == null || !other.isTagged() || !isTagged()) {
+            return false;
+        }
+        Item otherItem = other.getItem();
+        return homekitDeviceType == other.homekitDeviceType
+                && homekitCharacteristicType == other.homekitCharacteristicType && id == other.id
+                && item.getClass() == otherItem.getClass() && getBaseItemClass(item) == getBaseItemClass(otherItem)
+                && item.getName().equals(otherItem.getName())
+                && Objects.equals(item.getLabel(), otherItem.getLabel())
+                && item.getTags().equals(otherItem.getTags())
+                && new HashSet<>(item.getGroupNames()).equals(new HashSet<>(otherItem.getGroupNames()));
+    }
+
+    private static Class<?> getBaseItemClass(Item item) {
+        if (item instanceof GroupItem && ((GroupItem) item).getBaseItem() != null) {
+            return ((GroupItem) item).getBaseItem().getClass();
+        }
+        return null;
+    }
+
     private int calculateId(Item item) {
         int id = new HashCodeBuilder().append(item.getName()).hashCode();
         if (id < 0) {
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.Item;
+import org.eclipse.smarthome.core.items.ItemRegistry;
+import org.eclipse.smarthome.core.items.ItemRegistryChangeListener;
+import org.eclipse.smarthome.core.items.StateChangeListener;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.io.hueemulation.internal.api.HueDevice;
+import org.openhab.io.hueemulation.internal.api.HueState;
+
+import com.google.gson.Gson;
+
+/**
+ * Keeps track of all items exposed as Hue devices, so that API requests do not have to scan the item registry.
+ *
+ * The index is maintained from item registry events. The JSON of each device is cached and dropped when the state
+ * of its item changes, so a listing of all devices is a concatenation of cached JSON fragments.
+ *
+ * @author agent
+ *
+ */
+public class HueDeviceIndex implements ItemRegistryChangeListener, StateChangeListener {
+
+    private static final String[] SUPPORTED_TAGS = new String[] { "Switchable", "Lighting", "TargetTemperature" };
+
+    private final Gson gson = new Gson();
+
+    private final ItemRegistry itemRegistry;
+
+    private final ConcurrentMap<String, Item> items = new ConcurrentHashMap<String, Item>();
+
+    private final ConcurrentMap<String, DeviceJson> deviceJson = new ConcurrentHashMap<String, DeviceJson>();
+
+    private volatile String deviceNamesJson;
+
+    public HueDeviceIndex(ItemRegistry itemRegistry) {
+        this.itemRegistry = itemRegistry;
+    }
+
+    /**
+     * Starts listening to the item registry and indexes all items.
+     */
+    public void start() {
+        itemRegistry.addRegistryChangeListener(this);
+        rebuild();
+    }
+
+    public void stop() {
+        itemRegistry.removeRegistryChangeListener(this);
+        for (Item item : items.values()) {
+            unlisten(item);
+        }
+        items.clear();
+        deviceJson.clear();
+        deviceNamesJson = null;
+    }
+
+    /**
+     * @return the exposed item with the given name or null if it is not exposed
+     */
+    public Item getItem(String name) {
+        return items.get(name);
+    }
+
+    /**
+     * @return the names of all exposed items
+     */
+    public Collection<String> getItemNames() {
+        return items.keySet();
+    }
+
+    /**
+     * @return the JSON of a single device, or null if the item is not exposed
+     */
+    public String getDeviceJson(String name) {
+        Item item = items.get(name);
+        if (item == null) {
+            return null;
+        }
+        State state = item.getState();
+        DeviceJson json = deviceJson.get(name);
+        if (json == null || json.item != item || !ObjectUtils.equals(json.state, state)) {
+            json = new DeviceJson(item, state, gson.toJson(itemToDevice(item, state)));
+            deviceJson.put(name, json);
+        }
+        return json.json;
+    }
+
+    /**
+     * @return a JSON object of all devices (item name -> device)
+     */
+    public String getDevicesJson() {
+        StringBuilder sb = new StringBuilder(items.size() * 256 + 2);
+        sb.append('{');
+        boolean first = true;
+        for (String name : items.keySet()) {
+            String json = getDeviceJson(name);
+            if (json == null) {
+                continue;
+            }
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(gson.toJson(name)).append(':').append(json);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * @return a JSON object of the labels of all devices (item name -> label)
+     */
+    public String getDeviceNamesJson() {
+        String json = deviceNamesJson;
+        if (json == null) {
+            json = gson.toJson(getDeviceNames());
+            deviceNamesJson = json;
+        }
+        return json;
+    }
+
+    /**
+     * @return the labels of all devices (item name -> label)
+     */
+    public Map<String, String> getDeviceNames() {
+        Map<String, String> names = new HashMap<String, String>();
+        for (Item item : items.values()) {
+            names.put(item.getName(), item.getLabel());
+        }
+        return names;
+    }
+
+    @Override
+    public void added(Item element) {
+        if (isSupported(element)) {
+            Item old = items.put(element.getName(), element);
+            if (old != null && old != element) {
+                unlisten(old);
+            }
+            listen(element);
+            deviceJson.remove(element.getName());
+            deviceNamesJson = null;
+        }
+    }
+
+    @Override
+    public void removed(Item element) {
+        Item old = items.remove(element.getName());
+        if (old != null) {
+            unlisten(old);
+        }
+        unlisten(element);
+        deviceJson.remove(element.getName());
+        deviceNamesJson = null;
+    }
+
+    @Override
+    public void updated(Item oldElement, Item element) {
+        removed(oldElement);
+        added(element);
+    }
+
+    @Override
+    public void allItemsChanged(Collection<String> oldItemNames) {
+        rebuild();
+    }
+
+    @Override
+    public void stateChanged(Item item, State oldState, State newState) {
+        deviceJson.remove(item.getName());
+    }
+
+    @Override
+    public void stateUpdated(Item item, State state) {
+        // only changes are relevant for the cached devices
+    }
+
+    private synchronized void rebuild() {
+        for (Item item : items.values()) {
+            unlisten(item);
+        }
+        items.clear();
+        deviceJson.clear();
+        for (Item item : itemRegistry.getItems()) {
+            if (isSupported(item)) {
+                items.put(item.getName(), item);
+                listen(item);
+            }
+        }
+        deviceNamesJson = null;
+    }
+
+    private void listen(Item item) {
+        if (item instanceof GenericItem) {
+            ((GenericItem) item).addStateChangeListener(this);
+        }
+    }
+
+    private void unlisten(Item item) {
+        if (item instanceof GenericItem) {
+            ((GenericItem) item).removeStateChangeListener(this);
+        }
+    }
+
+    private boolean isSupported(Item item) {
+        for (String tag : SUPPORTED_TAGS) {
+            if (item.hasTag(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts an Item to a HueDevice
+     *
+     * @param item
+     * @param itemState
+     * @return
+     *         HueDevice
+     */
+    static HueDevice itemToDevice(Item item, State itemState) {
+        HueState hueState;
+        if (itemState instanceof HSBType) {
+            HSBType color = (HSBType) itemState;
+            hueState = new HueState(color);
+        } else if (itemState instanceof DecimalType) {
+            short bri = (short) ((((DecimalType) itemState).intValue() * 255) / 100);
+            hueState = new HueState(bri);
+        } else if (itemState instanceof OnOffType) {
+            short bri = (short) (((OnOffType) itemState) == OnOffType.ON ? 255 : 0);
+            hueState = new HueState(bri);
+        } else {
+            hueState = new HueState((short) 0);
+        }
+
+        return new HueDevice(hueState, item.getLabel(), item.getName());
+    }
+
+    private static class DeviceJson {
+        private final Item item;
+        private final State state;
+        private final String json;
+
+        private DeviceJson(Item item, State state, String json) {
+            this.item = item;
+            this.state = state;
+            this.json = json;
+        }
+    }
+}
@@ -13,13 +13,10 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.net.InetAddress;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Dictionary;
-import java.util.HashMap;
 import java.util.Hashtable;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -31,22 +28,16 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang.ArrayUtils;
 import org.eclipse.smarthome.config.core.ConfigConstants;
 import org.eclipse.smarthome.core.events.EventPublisher;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemNotFoundException;
 import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.items.events.ItemEventFactory;
-import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.HSBType;
-import org.eclipse.smarthome.core.library.types.OnOffType;
 import org.eclipse.smarthome.core.types.Command;
-import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.openhab.io.hueemulation.internal.api.HueCreateUser;
-import org.openhab.io.hueemulation.internal.api.HueDataStore;
-import org.openhab.io.hueemulation.internal.api.HueDevice;
 import org.openhab.io.hueemulation.internal.api.HueErrorResponse;
 import org.openhab.io.hueemulation.internal.api.HueGroup;
 import org.openhab.io.hueemulation.internal.api.HueState;
@@ -81,13 +72,13 @@ public class HueEmulationServlet extends HttpServlet {
     private static final File UDN_FILE = new File(
             ConfigConstants.getUserDataFolder() + File.separator + "hueemulation" + File.separator + "udn");
 
-    private static final String[] SUPPORTED_TAGS = new String[] { "Switchable", "Lighting", "TargetTemperature" };
-
     private Gson gson = new Gson();
     private HttpService httpService;
     private ItemRegistry itemRegistry;
+    private HueDeviceIndex deviceIndex;
     private EventPublisher eventPublisher;
     private HueEmulationUpnpServer disco;
+    private volatile List<String> discoveryIps = Collections.emptyList();
     private String udn;
     private String xmlDoc;
     private CopyOnWriteArrayList<String> userNames = new CopyOnWriteArrayList<String>();
@@ -122,9 +113,17 @@ public class HueEmulationServlet extends HttpServlet {
         }
 
         Object obj = config.get(CONFIG_DISCOVERY_IP);
-        String ip = obj != null ? (String) obj : null;
+        List<String> ips = new ArrayList<String>();
+        if (obj != null) {
+            for (String ip : ((String) obj).split(",")) {
+                if (ip.trim().length() > 0) {
+                    ips.add(ip.trim());
+                }
+            }
+        }
+        discoveryIps = ips;
         try {
-            disco = new HueEmulationUpnpServer(PATH + "/discovery.xml", getUDN(), ip);
+            disco = new HueEmulationUpnpServer(PATH + "/discovery.xml", getUDN(), ips);
             disco.start();
         } catch (IOException e) {
             logger.error("Could not start UPNP server for discovery", e);
@@ -155,9 +154,16 @@ public class HueEmulationServlet extends HttpServlet {
 
     protected void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
+        HueDeviceIndex index = new HueDeviceIndex(itemRegistry);
+        index.start();
+        this.deviceIndex = index;
     }
 
     protected void unsetItemRegistry(ItemRegistry itemRegistry) {
+        if (deviceIndex != null) {
+            deviceIndex.stop();
+            deviceIndex = null;
+        }
         this.itemRegistry = null;
     }
 
@@ -344,9 +350,14 @@ public class HueEmulationServlet extends HttpServlet {
      */
     private void apiLight(String id, HttpServletRequest req, HttpServletResponse resp) throws IOException {
         try {
-            Item item = itemRegistry.getItem(id);
+            String json = deviceIndex.getDeviceJson(id);
+            if (json == null) {
+                // not exposed by tag, but still addressable by name
+                Item item = itemRegistry.getItem(id);
+                json = gson.toJson(HueDeviceIndex.itemToDevice(item, item.getState()));
+            }
             PrintWriter out = resp.getWriter();
-            out.write(gson.toJson(itemToDevice(item)));
+            out.write(json);
             out.close();
         } catch (ItemNotFoundException e) {
             logger.debug("Item not found: " + id);
@@ -363,7 +374,7 @@ public class HueEmulationServlet extends HttpServlet {
      */
     public void apiLights(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         PrintWriter out = resp.getWriter();
-        out.write(gson.toJson(getHueDeviceNames()));
+        out.write(deviceIndex.getDeviceNamesJson());
         out.close();
     }
 
@@ -376,7 +387,7 @@ public class HueEmulationServlet extends HttpServlet {
      */
     public void apiGroupZero(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         PrintWriter out = resp.getWriter();
-        String[] lights = getHueDeviceNames().keySet().toArray(new String[0]);
+        String[] lights = deviceIndex.getItemNames().toArray(new String[0]);
         HueState action = new HueState();
         out.write(gson.toJson(new HueGroup("0", lights, action)));
         out.close();
@@ -391,9 +402,10 @@ public class HueEmulationServlet extends HttpServlet {
      */
     public void apiDataStore(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         PrintWriter out = resp.getWriter();
-        HueDataStore ds = new HueDataStore();
-        ds.lights = getHueDevices();
-        out.write(gson.toJson(ds));
+        // same as serializing a HueDataStore, but built from the cached device JSON
+        out.write("{\"lights\":");
+        out.write(deviceIndex.getDevicesJson());
+        out.write("}");
     }
 
     /**
@@ -462,13 +474,7 @@ public class HueEmulationServlet extends HttpServlet {
             xmlDoc = IOUtils.toString(getClass().getClassLoader().getResourceAsStream("discovery.xml"), "UTF-8");
         }
 
-        InetAddress address = disco.getAddress();
-        if (address == null) {
-            return;
-        }
-
-        String formattedXML = String.format(xmlDoc, address.getHostAddress(),
-                System.getProperty("org.osgi.service.http.port"), getUDN());
+        String formattedXML = String.format(xmlDoc, getAdvertisedAddress(req), req.getLocalPort(), getUDN());
         resp.setContentType(APPLICATION_XML);
         PrintWriter out = resp.getWriter();
         out.write(formattedXML);
@@ -476,84 +482,26 @@ public class HueEmulationServlet extends HttpServlet {
     }
 
     /**
-     * Returns a map of all our items that have voice tags.
-     *
-     * @param username
-     * @return
-     *         Map <item name, HueDevice>
+     * @return the configured discovery IP the client reached us on, else the first configured discovery IP, which may
+     *         be the address of a NAT, or the local address of the request if none is configured
      */
-    private Map<String, HueDevice> getHueDevices() {
-        Collection<Item> items = getTaggedItems();
-        Map<String, HueDevice> devices = new HashMap<String, HueDevice>();
-        Iterator<Item> it = items.iterator();
-        while (it.hasNext()) {
-            Item item = it.next();
-            devices.put(item.getName(), itemToDevice(item));
+    private String getAdvertisedAddress(HttpServletRequest req) {
+        List<String> ips = discoveryIps;
+        String localAddr = req.getLocalAddr();
+        if (ips.isEmpty() || ips.contains(localAddr)) {
+            return localAddr;
         }
-        return devices;
+        return ips.get(0);
     }
 
     /**
      * Returns the item name and voice name of each item
      *
-     * @param username
      * @return
      *         Map<item name, item voice tag>
      */
     public Map<String, String> getHueDeviceNames() {
-        Collection<Item> items = getTaggedItems();
-        Map<String, String> devices = new HashMap<String, String>();
-        Iterator<Item> it = items.iterator();
-        while (it.hasNext()) {
-            Item item = it.next();
-            devices.put(item.getName(), item.getLabel());
-        }
-        return devices;
-    }
-
-    /**
-     * Converts an Item to a HueDevice
-     *
-     * @param item
-     * @return
-     *         HueDevice
-     */
-    private HueDevice itemToDevice(Item item) {
-        State itemState = item.getState();
-        HueState hueState;
-        if (itemState instanceof HSBType) {
-            HSBType color = (HSBType) itemState;
-            hueState = new HueState(color);
-        } else if (itemState instanceof DecimalType) {
-            short bri = (short) ((((DecimalType) itemState).intValue() * 255) / 100);
-            hueState = new HueState(bri);
-        } else if (itemState instanceof OnOffType) {
-            short bri = (short) (((OnOffType) itemState) == OnOffType.ON ? 255 : 0);
-            hueState = new HueState(bri);
-        } else {
-            hueState = new HueState((short) 0);
-        }
-
-        HueDevice d = new HueDevice(hueState, item.getLabel(), item.getName());
-        return d;
-    }
-
-    /**
-     * Gets all items that match our tag
-     *
-     * @return
-     */
-    private Collection<Item> getTaggedItems() {
-        Collection<Item> items = new LinkedList<Item>();
-        for (Item item : itemRegistry.getItems()) {
-            for (String tag : item.getTags()) {
-                if (ArrayUtils.contains(SUPPORTED_TAGS, tag)) {
-                    items.add(item);
-                    break;
-                }
-            }
-        }
-        return items;
+        return deviceIndex.getDeviceNames();
     }
 
     /**
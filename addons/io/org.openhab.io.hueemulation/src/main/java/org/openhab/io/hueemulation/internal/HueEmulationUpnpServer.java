@@ -9,15 +9,26 @@
 package org.openhab.io.hueemulation.internal;
 
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.MulticastSocket;
+import java.net.InterfaceAddress;
 import java.net.NetworkInterface;
-import java.net.SocketException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
@@ -26,6 +37,12 @@ import org.slf4j.LoggerFactory;
 /**
  * Advertises a Hue UPNP compatible bridge
  *
+ * The server joins the SSDP multicast group on the interfaces of the configured discovery IPs, or on all multicast
+ * capable interfaces if none is configured or a configured IP is not local, with one non-blocking channel. M-SEARCH
+ * requests are answered with a response prebuilt for the interface facing the requester, and the responses per
+ * requester are rate limited. A response advertises the configured IP of its interface, the first configured IP
+ * which is not local (like the address of a NAT or of a container port mapping), or else the interface address.
+ *
  * @author Dan Cunningham
  *
  */
@@ -35,16 +52,28 @@ public class HueEmulationUpnpServer extends Thread {
     // jUPNP shares port 1900, but since this is multicast, we can also bind to it
     static final private int UPNP_PORT_RECV = 1900;
     static final private String MULTI_ADDR = "239.255.255.250";
-    private boolean running;
+    // maximum number of responses sent to one requester within RATE_LIMIT_WINDOW
+    static final private int RATE_LIMIT_RESPONSES = 5;
+    static final private long RATE_LIMIT_WINDOW = 1000;
+    static final private int RATE_LIMIT_MAX_SOURCES = 1024;
+    static final private byte[] M_SEARCH = "M-SEARCH".getBytes(StandardCharsets.US_ASCII);
+    private volatile boolean running;
     private String discoPath;
     private String usn;
-    private InetAddress address;
-    private String discoveryIp;
+    private List<String> discoveryIps;
+    private volatile Selector selector;
 
     private String discoString = "HTTP/1.1 200 OK\r\n" + "CACHE-CONTROL: max-age=100\r\n" + "EXT:\r\n"
             + "LOCATION: %s\r\n" + "SERVER: FreeRTOS/7.4.2 UPnP/1.0 IpBridge/1.10.0\r\n"
             + "ST: urn:schemas-upnp-org:device:basic:1\r\n" + "USN: uuid:%s::urn:Belkin:device:**\r\n\r\n";
 
+    /**
+     * interface address -> prebuilt response advertising that address
+     */
+    private final Map<InterfaceAddress, ByteBuffer> responses = new LinkedHashMap<InterfaceAddress, ByteBuffer>();
+
+    private final Map<InetAddress, RateLimit> rateLimits = new HashMap<InetAddress, RateLimit>();
+
     /**
      * Server to send UDP packets onto the network when requested by a Hue API compatible device.
      *
@@ -52,14 +81,14 @@ public class HueEmulationUpnpServer extends Thread {
      *            The URI path where the discovery xml document can be retrieved
      * @param usn
      *            The unique USN id for this server
-     * @param discoveryIP
-     *            Optional IP to use advertise for UPNP, if null the first available non localhost IP will be used
+     * @param discoveryIps
+     *            The IPs to advertise for UPNP, if empty all available non localhost IPs will be used
      */
-    public HueEmulationUpnpServer(String discoPath, String usn, String discoveryIP) {
+    public HueEmulationUpnpServer(String discoPath, String usn, List<String> discoveryIps) {
         this.running = true;
         this.discoPath = discoPath;
         this.usn = usn;
-        this.discoveryIp = discoveryIP;
+        this.discoveryIps = discoveryIps;
     }
 
     /**
@@ -67,67 +96,64 @@ public class HueEmulationUpnpServer extends Thread {
      */
     public void shutdown() {
         this.running = false;
+        Selector s = selector;
+        if (s != null) {
+            s.wakeup();
+        }
     }
 
     @Override
     public void run() {
-        MulticastSocket recvSocket = null;
-        // since jupnp shares port 1900, lets use a different port to send UDP packets on just to be safe.
-        DatagramSocket sendSocket = null;
-        byte[] buf = new byte[1000];
-        DatagramPacket recv = new DatagramPacket(buf, buf.length);
+        ByteBuffer buf = ByteBuffer.allocate(1000);
         while (running) {
+            DatagramChannel recvChannel = null;
+            // since jupnp shares port 1900, lets use a different port to send UDP packets on just to be safe.
+            DatagramChannel sendChannel = null;
             try {
-                if (discoveryIp != null && discoveryIp.trim().length() > 0) {
-                    address = InetAddress.getByName(discoveryIp);
-                } else {
-                    Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
-                    while (interfaces.hasMoreElements()) {
-                        NetworkInterface ni = interfaces.nextElement();
-                        Enumeration<InetAddress> addresses = ni.getInetAddresses();
-                        while (addresses.hasMoreElements()) {
-                            InetAddress addr = addresses.nextElement();
-                            if (addr instanceof Inet4Address && !addr.isLoopbackAddress()) {
-                                address = addr;
-                                break;
-                            }
-                        }
+                List<NetworkInterface> interfaces = findInterfaces();
+                if (interfaces.isEmpty()) {
+                    throw new IOException("No network interface found for UPNP discovery");
+                }
+
+                selector = Selector.open();
+                recvChannel = DatagramChannel.open(StandardProtocolFamily.INET);
+                recvChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                recvChannel.bind(new InetSocketAddress(UPNP_PORT_RECV));
+                InetAddress group = InetAddress.getByName(MULTI_ADDR);
+                for (NetworkInterface ni : interfaces) {
+                    try {
+                        recvChannel.join(group, ni);
+                        logger.debug("Joined UPNP multicast group on {}", ni.getName());
+                    } catch (IOException e) {
+                        logger.warn("Could not join UPNP multicast group on {}: {}", ni.getName(), e.getMessage());
                     }
                 }
-                InetSocketAddress socketAddr = new InetSocketAddress(MULTI_ADDR, UPNP_PORT_RECV);
-                recvSocket = new MulticastSocket(UPNP_PORT_RECV);
-                recvSocket.joinGroup(socketAddr, NetworkInterface.getByInetAddress(address));
-                sendSocket = new DatagramSocket();
+                recvChannel.configureBlocking(false);
+                recvChannel.register(selector, SelectionKey.OP_READ);
+
+                sendChannel = DatagramChannel.open(StandardProtocolFamily.INET);
+                sendChannel.configureBlocking(false);
+
                 while (running) {
-                    recvSocket.receive(recv);
-                    if (recv.getLength() > 0) {
-                        String data = new String(recv.getData());
-                        logger.trace("Got SSDP Discovery packet from " + recv.getAddress().getHostAddress() + ":"
-                                + recv.getPort());
-                        if (data.startsWith("M-SEARCH")) {
-                            String msg = String
-                                    .format(discoString,
-                                            "http://" + address.getHostAddress().toString() + ":"
-                                                    + System.getProperty("org.osgi.service.http.port") + discoPath,
-                                            usn);
-                            DatagramPacket response = new DatagramPacket(msg.getBytes(), msg.length(),
-                                    recv.getAddress(), recv.getPort());
-                            try {
-                                logger.trace("Sending to " + recv.getAddress().getHostAddress() + " : " + msg);
-                                sendSocket.send(response);
-                            } catch (IOException e) {
-                                logger.error("Could not send UPNP response", e);
-                            }
-                        }
+                    if (selector.select() == 0) {
+                        continue;
+                    }
+                    selector.selectedKeys().clear();
+                    SocketAddress source;
+                    buf.clear();
+                    while ((source = recvChannel.receive(buf)) != null) {
+                        buf.flip();
+                        handlePacket(buf, (InetSocketAddress) source, sendChannel);
+                        buf.clear();
                     }
                 }
-            } catch (SocketException e) {
-                logger.error("Socket error with UPNP server", e);
             } catch (IOException e) {
                 logger.error("IO Error with UPNP server", e);
             } finally {
-                IOUtils.closeQuietly(recvSocket);
-                IOUtils.closeQuietly(sendSocket);
+                IOUtils.closeQuietly(recvChannel);
+                IOUtils.closeQuietly(sendChannel);
+                IOUtils.closeQuietly(selector);
+                selector = null;
                 if (running) {
                     try {
                         Thread.sleep(3000);
@@ -138,7 +164,151 @@ public class HueEmulationUpnpServer extends Thread {
         }
     }
 
-    public InetAddress getAddress() {
-        return address;
+    private void handlePacket(ByteBuffer packet, InetSocketAddress source, DatagramChannel sendChannel) {
+        logger.trace("Got SSDP Discovery packet from {}:{}", source.getAddress().getHostAddress(), source.getPort());
+        if (!startsWith(packet, M_SEARCH) || !allowResponse(source.getAddress())) {
+            return;
+        }
+        ByteBuffer response = getResponse(source.getAddress()).duplicate();
+        try {
+            if (sendChannel.send(response, source) == 0) {
+                logger.debug("UPNP response to {} dropped, send buffer full", source);
+            } else {
+                logger.trace("Sent UPNP response to {}", source);
+            }
+        } catch (IOException e) {
+            logger.error("Could not send UPNP response", e);
+        }
+    }
+
+    /**
+     * @return the prebuilt response for the interface address in the same subnet as the requester, or the response
+     *         of the first address
+     */
+    private ByteBuffer getResponse(InetAddress requester) {
+        byte[] requesterBytes = requester.getAddress();
+        for (Map.Entry<InterfaceAddress, ByteBuffer> entry : responses.entrySet()) {
+            if (sameSubnet(entry.getKey(), requesterBytes)) {
+                return entry.getValue();
+            }
+        }
+        return responses.values().iterator().next();
+    }
+
+    private boolean allowResponse(InetAddress source) {
+        long now = System.currentTimeMillis();
+        RateLimit limit = rateLimits.get(source);
+        if (limit == null || now - limit.windowStart > RATE_LIMIT_WINDOW) {
+            if (limit == null && rateLimits.size() >= RATE_LIMIT_MAX_SOURCES) {
+                purgeRateLimits(now);
+            }
+            limit = new RateLimit(now);
+            rateLimits.put(source, limit);
+        }
+        if (limit.count >= RATE_LIMIT_RESPONSES) {
+            logger.trace("Rate limiting UPNP responses to {}", source);
+            return false;
+        }
+        limit.count++;
+        return true;
+    }
+
+    private void purgeRateLimits(long now) {
+        Iterator<RateLimit> it = rateLimits.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().windowStart > RATE_LIMIT_WINDOW) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Finds the interfaces to listen on and prebuilds the responses for their addresses.
+     */
+    private List<NetworkInterface> findInterfaces() throws IOException {
+        responses.clear();
+        List<NetworkInterface> interfaces = new ArrayList<NetworkInterface>();
+        InetAddress externalAddress = null;
+        for (String ip : discoveryIps) {
+            InetAddress addr = InetAddress.getByName(ip);
+            NetworkInterface ni = NetworkInterface.getByInetAddress(addr);
+            if (ni != null) {
+                addInterface(interfaces, ni, addr, addr);
+            } else if (externalAddress == null) {
+                logger.debug("Discovery IP {} is not local, advertising it on all interfaces", ip);
+                externalAddress = addr;
+            }
+        }
+        if (discoveryIps.isEmpty() || externalAddress != null) {
+            Enumeration<NetworkInterface> all = NetworkInterface.getNetworkInterfaces();
+            while (all.hasMoreElements()) {
+                NetworkInterface ni = all.nextElement();
+                if (!ni.isUp() || ni.isLoopback() || !ni.supportsMulticast()) {
+                    continue;
+                }
+                addInterface(interfaces, ni, null, externalAddress);
+            }
+        }
+        return interfaces;
+    }
+
+    /**
+     * @param only the only address of the interface to listen on, null for all
+     * @param advertised the address to advertise, null for the address of the interface
+     */
+    private void addInterface(List<NetworkInterface> interfaces, NetworkInterface ni, InetAddress only,
+            InetAddress advertised) {
+        for (InterfaceAddress ia : ni.getInterfaceAddresses()) {
+            InetAddress addr = ia.getAddress();
+            if (addr instanceof Inet4Address && !addr.isLoopbackAddress() && (only == null || only.equals(addr))
+                    && !responses.containsKey(ia)) {
+                responses.put(ia, buildResponse(advertised != null ? advertised : addr));
+                if (!interfaces.contains(ni)) {
+                    interfaces.add(ni);
+                }
+            }
+        }
+    }
+
+    private ByteBuffer buildResponse(InetAddress addr) {
+        String msg = String.format(discoString, "http://" + addr.getHostAddress() + ":"
+                + System.getProperty("org.osgi.service.http.port") + discoPath, usn);
+        return ByteBuffer.wrap(msg.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+
+    private static boolean sameSubnet(InterfaceAddress ia, byte[] other) {
+        byte[] local = ia.getAddress().getAddress();
+        if (local.length != other.length) {
+            return false;
+        }
+        int prefix = ia.getNetworkPrefixLength();
+        for (int i = 0; i < local.length && prefix > 0; i++, prefix -= 8) {
+            int mask = prefix >= 8 ? 0xFF : (0xFF << (8 - prefix)) & 0xFF;
+            if ((local[i] & mask) != (other[i] & mask)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, byte[] prefix) {
+        if (buffer.remaining() < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(buffer.position() + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class RateLimit {
+        private final long windowStart;
+        private int count = 0;
+
+        private RateLimit(long windowStart) {
+            this.windowStart = windowStart;
+        }
     }
 }
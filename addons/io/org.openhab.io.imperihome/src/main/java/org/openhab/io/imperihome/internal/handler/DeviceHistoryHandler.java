@@ -8,38 +8,47 @@
  */
 package org.openhab.io.imperihome.internal.handler;
 
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URLDecoder;
 import java.util.Date;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.regex.Matcher;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.apache.commons.lang.StringUtils;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
 import org.eclipse.smarthome.core.persistence.HistoricItem;
 import org.eclipse.smarthome.core.persistence.PersistenceService;
 import org.eclipse.smarthome.core.persistence.PersistenceServiceRegistry;
 import org.eclipse.smarthome.core.persistence.QueryablePersistenceService;
 import org.eclipse.smarthome.core.types.State;
-import org.openhab.io.imperihome.internal.model.HistoryItem;
-import org.openhab.io.imperihome.internal.model.HistoryList;
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
 import org.openhab.io.imperihome.internal.processor.DeviceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.stream.JsonWriter;
+
 /**
- * Device history request handler.
+ * Device history request handler. The history is written as JSON while the persistence result is iterated, so the
+ * memory used per request does not depend on the size of the result.
+ * <p>
+ * By default the values are averaged into at most {@link #DEFAULT_MAX_POINTS} time buckets, about the number of
+ * points the app can display. The number of buckets can be set with the 'points' request parameter, 0 disables the
+ * aggregation.
  *
  * @author Pepijn de Geus - Initial contribution
  */
 public class DeviceHistoryHandler {
 
     private static final String CHARSET = "UTF-8";
+    private static final String PARAM_POINTS = "points";
+    private static final int DEFAULT_MAX_POINTS = 1000;
 
     private final Logger logger = LoggerFactory.getLogger(DeviceHistoryHandler.class);
 
@@ -51,14 +60,21 @@ public class DeviceHistoryHandler {
         this.persistenceServiceRegistry = persistenceServiceRegistry;
     }
 
-    public HistoryList handle(HttpServletRequest req, Matcher urlMatcher) {
+    /**
+     * Writes the history list JSON for the requested device to the given writer, or 'null' if the history can't be
+     * served.
+     */
+    public void handle(HttpServletRequest req, Matcher urlMatcher, Writer out) throws IOException {
         String deviceId, field;
         long start, end;
+        int maxPoints;
         try {
             deviceId = URLDecoder.decode(urlMatcher.group(1), CHARSET);
             field = URLDecoder.decode(urlMatcher.group(2), CHARSET);
             start = Long.parseLong(urlMatcher.group(3));
             end = Long.parseLong(urlMatcher.group(4));
+            String points = req.getParameter(PARAM_POINTS);
+            maxPoints = StringUtils.isBlank(points) ? DEFAULT_MAX_POINTS : Integer.parseInt(points.trim());
         } catch (UnsupportedEncodingException | NumberFormatException e) {
             throw new RuntimeException("Could not decode request params", e);
         }
@@ -68,52 +84,106 @@ public class DeviceHistoryHandler {
         AbstractDevice device = deviceRegistry.getDevice(deviceId);
         if (device == null) {
             logger.warn("Received history request for unknown device: {}", urlMatcher.group(0));
-            return null;
+            out.write("null");
+            return;
         }
 
         PersistenceService persistence = persistenceServiceRegistry.getDefault();
         if (persistence == null) {
             logger.warn("Could not retrieve default persistence service; can't serve history request");
-            return null;
+            out.write("null");
+            return;
         }
         if (!(persistence instanceof QueryablePersistenceService)) {
             logger.warn("Default persistence service is not queryable; can't serve history request");
-            return null;
+            out.write("null");
+            return;
         }
 
-        return serveHistory(device, (QueryablePersistenceService) persistence, start, end);
+        serveHistory(device, (QueryablePersistenceService) persistence, start, end, maxPoints, out);
     }
 
-    private HistoryList serveHistory(AbstractDevice device, QueryablePersistenceService persistence, long start,
-            long end) {
+    private void serveHistory(AbstractDevice device, QueryablePersistenceService persistence, long start, long end,
+            int maxPoints, Writer out) throws IOException {
         logger.info("Querying persistence for history of Item {}, from {} to {}", device.getItemName(), start, end);
 
         FilterCriteria criteria = new FilterCriteria().setItemName(device.getItemName()).setBeginDate(new Date(start))
-                .setEndDate(new Date(end));
+                .setEndDate(new Date(end)).setOrdering(Ordering.ASCENDING);
 
-        List<HistoryItem> resultItems = new LinkedList<>();
         Iterable<HistoricItem> historicItems = persistence.query(criteria);
 
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject();
+        writer.name("values");
+        writer.beginArray();
+
+        int written = 0;
         Iterator<HistoricItem> iterator = historicItems.iterator();
         if (!iterator.hasNext()) {
             logger.info("Persistence returned no results for history query");
         } else {
+            long bucketSize = maxPoints > 0 ? Math.max(1, (end - start + maxPoints - 1) / maxPoints) : 0;
+            Bucket bucket = new Bucket();
+            boolean foundDecimal = false;
             while (iterator.hasNext()) {
                 HistoricItem historicItem = iterator.next();
                 State state = historicItem.getState();
-                if (state instanceof DecimalType) {
-                    Number value = ((DecimalType) state).toBigDecimal();
-                    resultItems.add(new HistoryItem(historicItem.getTimestamp(), value));
+                if (!(state instanceof DecimalType)) {
+                    continue;
+                }
+                foundDecimal = true;
+                long date = historicItem.getTimestamp().getTime();
+                if (bucketSize == 0) {
+                    writeItem(writer, date, ((DecimalType) state).toBigDecimal());
+                    written++;
+                    continue;
+                }
+                long index = (date - start) / bucketSize;
+                if (bucket.count > 0 && index != bucket.index) {
+                    writeItem(writer, bucket.date, bucket.sum / bucket.count);
+                    written++;
+                    bucket.count = 0;
+                }
+                if (bucket.count == 0) {
+                    bucket.index = index;
+                    bucket.date = date;
+                    bucket.sum = 0;
                 }
+                bucket.sum += ((DecimalType) state).doubleValue();
+                bucket.count++;
+            }
+            if (bucket.count > 0) {
+                writeItem(writer, bucket.date, bucket.sum / bucket.count);
+                written++;
             }
 
-            if (resultItems.isEmpty()) {
+            if (!foundDecimal) {
                 logger.warn(
                         "Persistence returned results for history query, but could not be interpreted as DecimalTypes");
             }
         }
 
-        return new HistoryList(resultItems);
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+        logger.debug("Wrote {} history values for Item {}", written, device.getItemName());
+    }
+
+    private void writeItem(JsonWriter writer, long date, Number value) throws IOException {
+        writer.beginObject();
+        writer.name("date").value(date);
+        writer.name("value").value(value);
+        writer.endObject();
+    }
+
+    /**
+     * Running average of the values in one time bucket.
+     */
+    private static class Bucket {
+        private long index;
+        private long date;
+        private double sum;
+        private int count;
     }
 
 }
@@ -8,6 +8,7 @@
  */
 package org.openhab.io.imperihome.internal.handler;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
 import javax.servlet.http.HttpServletRequest;
@@ -18,8 +19,11 @@ import org.openhab.io.imperihome.internal.processor.DeviceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.Gson;
+
 /**
- * Device list request handler.
+ * Device list request handler. The serialized response is cached and only regenerated when the
+ * {@link DeviceRegistry} version changed.
  *
  * @author Pepijn de Geus - Initial contribution
  */
@@ -28,15 +32,29 @@ public class DevicesListHandler {
     private final Logger logger = LoggerFactory.getLogger(DevicesListHandler.class);
 
     private final DeviceRegistry deviceRegistry;
+    private final Gson gson;
+
+    private byte[] snapshot;
+    private long snapshotVersion = -1;
 
-    public DevicesListHandler(DeviceRegistry deviceRegistry) {
+    public DevicesListHandler(DeviceRegistry deviceRegistry, Gson gson) {
         this.deviceRegistry = deviceRegistry;
+        this.gson = gson;
     }
 
-    public DeviceList handle(HttpServletRequest req) {
+    /**
+     * @return the UTF-8 encoded JSON device list.
+     */
+    public synchronized byte[] handle(HttpServletRequest req) {
+        long version = deviceRegistry.getVersion();
+        if (snapshot != null && version == snapshotVersion) {
+            logger.trace("Serving cached device list, version {}", version);
+            return snapshot;
+        }
+
         DeviceList response = new DeviceList();
 
-        Collection<AbstractDevice> devices = deviceRegistry.getDevices().values();
+        Collection<AbstractDevice> devices = deviceRegistry.getDeviceValues();
         for (AbstractDevice device : devices) {
             device.updateParams();
         }
@@ -44,7 +62,10 @@ public class DevicesListHandler {
         response.setDevices(devices);
 
         logger.debug("Device list response: {}", response);
-        return response;
+        snapshot = gson.toJson(response).getBytes(StandardCharsets.UTF_8);
+        // updateParams() may have changed parameters of linked devices, those are picked up by the next request
+        snapshotVersion = version;
+        return snapshot;
     }
 
 }
@@ -125,7 +125,11 @@ public abstract class AbstractDevice implements StateChangeListener {
 
     public void addParam(DeviceParam param) {
         logger.trace("Setting param for device {}: {}", this, param);
+        boolean changed = !param.equals(params.get(param.getKey()));
         params.set(param);
+        if (changed && deviceRegistry != null) {
+            deviceRegistry.deviceChanged(this);
+        }
     }
 
     public Map<String, String> getLinks() {
@@ -8,29 +8,34 @@
  */
 package org.openhab.io.imperihome.internal.processor;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.openhab.io.imperihome.internal.model.Room;
 import org.openhab.io.imperihome.internal.model.device.AbstractDevice;
 
 /**
- * The device registry stores created devices by ID.
+ * The device registry stores created devices by ID. Rooms are tracked with the number of devices they contain, and
+ * a version number is increased on every device addition, removal or parameter change, so that responses derived
+ * from the registry can be cached until the version changes.
  *
  * @author Pepijn de Geus - Initial contribution
  */
 public class DeviceRegistry implements Iterable<AbstractDevice> {
 
     private final Map<String, AbstractDevice> devices;
-    private Set<Room> rooms;
+    private final Map<String, RoomEntry> rooms;
+    private final AtomicLong version = new AtomicLong();
 
     public DeviceRegistry() {
         devices = new ConcurrentHashMap<>();
+        rooms = new HashMap<>();
     }
 
     public AbstractDevice getDevice(String deviceId) {
@@ -41,8 +46,19 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
         return new HashMap<>(devices);
     }
 
-    public Collection<Room> getRooms() {
-        return new HashSet<>(rooms);
+    /**
+     * @return unmodifiable live view of all devices.
+     */
+    public Collection<AbstractDevice> getDeviceValues() {
+        return Collections.unmodifiableCollection(devices.values());
+    }
+
+    public synchronized Collection<Room> getRooms() {
+        Collection<Room> result = new ArrayList<>(rooms.size());
+        for (RoomEntry entry : rooms.values()) {
+            result.add(entry.room);
+        }
+        return result;
     }
 
     public boolean hasDevices() {
@@ -53,39 +69,76 @@ public class DeviceRegistry implements Iterable<AbstractDevice> {
         return devices.containsKey(deviceId);
     }
 
-    public void add(AbstractDevice device) {
-        devices.put(device.getId(), device);
-        updateRooms();
+    public synchronized void add(AbstractDevice device) {
+        AbstractDevice replaced = devices.put(device.getId(), device);
+        if (replaced != null) {
+            removeFromRoom(replaced);
+        }
+        addToRoom(device);
+        device.setDeviceRegistry(this);
+        version.incrementAndGet();
     }
 
-    public AbstractDevice remove(String deviceId) {
+    public synchronized AbstractDevice remove(String deviceId) {
         AbstractDevice removed = devices.remove(deviceId);
-        updateRooms();
+        if (removed != null) {
+            removeFromRoom(removed);
+            version.incrementAndGet();
+        }
         return removed;
     }
 
+    /**
+     * Called by devices when one of their parameters changed.
+     */
+    public void deviceChanged(AbstractDevice device) {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return number increased on every change of the registered devices.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
     @Override
     public Iterator<AbstractDevice> iterator() {
         return devices.values().iterator();
     }
 
-    public void clear() {
+    public synchronized void clear() {
         devices.clear();
-
-        if (rooms != null) {
-            rooms.clear();
-        }
+        rooms.clear();
+        version.incrementAndGet();
     }
 
-    private void updateRooms() {
-        Set<Room> newRooms = new HashSet<>();
-        for (AbstractDevice device : devices.values()) {
+    private void addToRoom(AbstractDevice device) {
+        RoomEntry entry = rooms.get(device.getRoom());
+        if (entry == null) {
             Room room = new Room();
             room.setId(device.getRoom());
             room.setName(device.getRoomName());
-            newRooms.add(room);
+            entry = new RoomEntry(room);
+            rooms.put(device.getRoom(), entry);
+        }
+        entry.devices++;
+    }
+
+    private void removeFromRoom(AbstractDevice device) {
+        RoomEntry entry = rooms.get(device.getRoom());
+        if (entry != null && --entry.devices <= 0) {
+            rooms.remove(device.getRoom());
+        }
+    }
+
+    private static class RoomEntry {
+        private final Room room;
+        private int devices;
+
+        private RoomEntry(Room room) {
+            this.room = room;
         }
-        rooms = newRooms;
     }
 
 }
@@ -13,27 +13,33 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Request.FailureListener;
 import org.eclipse.jetty.client.api.Response;
-import org.eclipse.jetty.client.api.Response.ContentListener;
+import org.eclipse.jetty.client.api.Response.AsyncContentListener;
 import org.eclipse.jetty.client.api.Response.HeadersListener;
 import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.json.JSONException;
@@ -47,6 +53,7 @@ import io.socket.client.Manager;
 import io.socket.client.Socket;
 import io.socket.emitter.Emitter;
 import io.socket.engineio.client.Transport;
+import io.socket.thread.EventThread;
 
 /**
  * This class provides communication between openHAB and the openHAB Cloud service.
@@ -77,6 +84,12 @@ public class CloudClient {
      */
     private static final int HTTP_CLIENT_TIMEOUT = 30000;
 
+    /*
+     * This constant defines the maximum size of the response content frames sent to the openHAB Cloud.
+     * Content of responses with a known length is collected up to this size before it is sent
+     */
+    private static final int RESPONSE_FRAME_SIZE = 64 * 1024;
+
     /*
      * This variable holds base URL for the openHAB Cloud connections
      */
@@ -103,9 +116,22 @@ public class CloudClient {
     private HttpClient jettyClient;
 
     /*
-     * This hashmap holds HTTP requests to local openHAB which are currently running
+     * This map holds HTTP requests to local openHAB which are currently running, it is accessed
+     * from the Socket.IO thread and from the Jetty threads completing the requests
+     */
+    private final ConcurrentMap<Integer, Request> runningRequests;
+
+    /*
+     * This variable holds the Socket.IO transport currently used for the connection to the openHAB Cloud.
+     * It is only accessed from the Socket.IO event thread
+     */
+    private Transport transport;
+
+    /*
+     * This list holds the callbacks of response content which has been emitted, but not yet been written
+     * by the transport. It is only accessed from the Socket.IO event thread
      */
-    private HashMap<Integer, Request> runningRequests;
+    private final List<ContentWrite> pendingContentWrites = new LinkedList<ContentWrite>();
 
     /*
      * This variable indicates if connection to the openHAB Cloud is currently in an established state
@@ -148,7 +174,7 @@ public class CloudClient {
         this.localBaseUrl = localBaseUrl;
         this.remoteAccessEnabled = remoteAccessEnabled;
         this.exposedItems = exposedItems;
-        runningRequests = new HashMap<Integer, Request>();
+        runningRequests = new ConcurrentHashMap<Integer, Request>();
         jettyClient = new HttpClient();
         jettyClient.setMaxConnectionsPerDestination(HTTP_CLIENT_MAX_CONNECTIONS_PER_DEST);
         jettyClient.setConnectTimeout(HTTP_CLIENT_TIMEOUT);
@@ -168,7 +194,14 @@ public class CloudClient {
             @Override
             public void call(Object... args) {
                 logger.trace("Manager.EVENT_TRANSPORT");
-                Transport transport = (Transport) args[0];
+                final Transport transport = (Transport) args[0];
+                onTransport(transport);
+                transport.on(Transport.EVENT_DRAIN, new Emitter.Listener() {
+                    @Override
+                    public void call(Object... args) {
+                        onTransportDrain(transport);
+                    }
+                });
                 transport.on(Transport.EVENT_REQUEST_HEADERS, new Emitter.Listener() {
                     @Override
                     public void call(Object... args) {
@@ -196,6 +229,9 @@ public class CloudClient {
             public void call(Object... args) {
                 logger.debug("Socket.IO disconnected");
                 isConnected = false;
+                // the running requests are aborted, so their content callbacks are not needed anymore
+                transport = null;
+                pendingContentWrites.clear();
                 onDisconnect();
             }
         }).on(Socket.EVENT_ERROR, new Emitter.Listener() {
@@ -238,6 +274,61 @@ public class CloudClient {
                 logger.error("Could not start Jetty client: {}", e.getMessage());
             }
         }
+        if (this.listener != null) {
+            this.listener.connected();
+        }
+    }
+
+    /**
+     * Called on the Socket.IO event thread when a new transport is used for the connection, e.g. after an
+     * upgrade from polling to WebSocket. The previous transport does not report its writes anymore, so the
+     * content waiting for them is released.
+     */
+    private void onTransport(Transport newTransport) {
+        transport = newTransport;
+        List<Callback> callbacks = new ArrayList<Callback>();
+        for (ContentWrite write : pendingContentWrites) {
+            callbacks.add(write.callback);
+        }
+        pendingContentWrites.clear();
+        completeContentWrites(callbacks);
+    }
+
+    /**
+     * Called on the Socket.IO event thread when the transport has written the packets it was sending, which
+     * completes the content that was sent with them.
+     */
+    private void onTransportDrain(Transport drained) {
+        if (drained != transport) {
+            return;
+        }
+        List<Callback> callbacks = new ArrayList<Callback>();
+        for (Iterator<ContentWrite> it = pendingContentWrites.iterator(); it.hasNext();) {
+            ContentWrite write = it.next();
+            if (--write.drains == 0) {
+                it.remove();
+                callbacks.add(write.callback);
+            }
+        }
+        completeContentWrites(callbacks);
+    }
+
+    /**
+     * Asks Jetty for more content of the given responses. Jetty may deliver the content right away, so this is
+     * not done on the Socket.IO event thread.
+     */
+    private void completeContentWrites(final List<Callback> callbacks) {
+        if (callbacks.isEmpty()) {
+            return;
+        }
+        jettyClient.getExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                for (Callback callback : callbacks) {
+                    callback.succeeded();
+                }
+            }
+        });
     }
 
     /**
@@ -257,9 +348,7 @@ public class CloudClient {
             }
         }
         // And clean up the list of running requests
-        if (runningRequests != null) {
-            runningRequests.clear();
-        }
+        runningRequests.clear();
     }
 
     /**
@@ -345,7 +434,8 @@ public class CloudClient {
                 return;
             }
             ResponseListener listener = new ResponseListener(requestId);
-            request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener).send(listener);
+            request.onResponseHeaders(listener).onResponseContentAsync(listener).onRequestFailure(listener)
+                    .send(listener);
             // If successfully submitted request to http client, add it to the list of currently
             // running requests to be able to cancel it if needed
             runningRequests.put(requestId, request);
@@ -382,10 +472,9 @@ public class CloudClient {
             int requestId = data.getInt("id");
             logger.debug("Received cancel for request {}", requestId);
             // Find and abort running request
-            if (runningRequests.containsKey(requestId)) {
-                Request request = runningRequests.get(requestId);
+            Request request = runningRequests.remove(requestId);
+            if (request != null) {
                 request.abort(new InterruptedException());
-                runningRequests.remove(requestId);
             }
         } catch (JSONException e) {
             logger.error(e.getMessage());
@@ -487,9 +576,10 @@ public class CloudClient {
      *
      * @param itemName the name of the item
      * @param itemState updated item state
+     * @return true if the update was sent
      *
      */
-    public void sendItemUpdate(String itemName, String itemState) {
+    public boolean sendItemUpdate(String itemName, String itemState) {
         if (isConnected()) {
             logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
             JSONObject itemUpdateMessage = new JSONObject();
@@ -497,12 +587,14 @@ public class CloudClient {
                 itemUpdateMessage.put("itemName", itemName);
                 itemUpdateMessage.put("itemStatus", itemState);
                 socket.emit("itemupdate", itemUpdateMessage);
+                return true;
             } catch (JSONException e) {
                 logger.error(e.getMessage());
             }
         } else {
             logger.debug("No connection, Item update is not sent");
         }
+        return false;
     }
 
     /**
@@ -538,19 +630,35 @@ public class CloudClient {
     }
 
     /*
-     * An internal class which forwards response headers and data back to the openHAB Cloud
+     * An internal class which forwards response headers and data back to the openHAB Cloud.
+     * Response content is copied once from the Jetty buffers into the frames sent to the openHAB Cloud.
+     * Jetty is only asked for more content once the Socket.IO transport has written a full frame to the
+     * connection, so a congested connection to the openHAB Cloud slows down the local request instead of
+     * queueing its content.
      */
     private class ResponseListener
-            implements Response.CompleteListener, HeadersListener, ContentListener, FailureListener {
+            implements Response.CompleteListener, HeadersListener, AsyncContentListener, FailureListener {
 
         private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
         private int mRequestId;
         private boolean mHeadersSent = false;
+        private long mContentLength = -1;
+        private long mFramedLength = 0;
+        private byte[] mFrame;
+        private int mFrameLength = 0;
 
         public ResponseListener(int requestId) {
             mRequestId = requestId;
         }
 
+        private long getContentLength(HttpFields httpFields) {
+            try {
+                return httpFields.getLongField(HttpHeader.CONTENT_LENGTH.asString());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
         private JSONObject getJSONHeaders(HttpFields httpFields) {
             JSONObject headersJSON = new JSONObject();
             try {
@@ -573,6 +681,12 @@ public class CloudClient {
                 logger.warn(result.getResponseFailure().getMessage());
             }
 
+            if (mFrameLength > 0) {
+                emitContent(Arrays.copyOf(mFrame, mFrameLength), null);
+                mFrame = null;
+                mFrameLength = 0;
+            }
+
             /**
              * What is this? In some cases where latency is very low the myopenhab service
              * can receive responseFinished before the headers or content are received and I
@@ -608,17 +722,77 @@ public class CloudClient {
         }
 
         @Override
-        public void onContent(Response response, ByteBuffer content) {
+        public void onContent(Response response, ByteBuffer content, Callback callback) {
             logger.debug("Jetty received response content of size " + String.valueOf(content.remaining()));
-            JSONObject responseJson = new JSONObject();
+            if (mContentLength <= 0) {
+                // unknown length, possibly a streaming response: send every chunk as it arrives
+                emitContent(BufferUtil.toArray(content), callback);
+                return;
+            }
+            boolean waiting = false;
+            while (content.hasRemaining()) {
+                if (mFrame == null) {
+                    long expected = mContentLength - mFramedLength;
+                    if (expected <= 0) {
+                        // the content is longer than announced, e.g. because Jetty decoded it
+                        expected = content.remaining();
+                    }
+                    mFrame = new byte[(int) Math.min(RESPONSE_FRAME_SIZE, expected)];
+                    mFrameLength = 0;
+                }
+                int length = Math.min(mFrame.length - mFrameLength, content.remaining());
+                content.get(mFrame, mFrameLength, length);
+                mFrameLength += length;
+                mFramedLength += length;
+                if (mFrameLength == mFrame.length) {
+                    // only the last frame of this chunk holds back further content
+                    boolean last = !content.hasRemaining();
+                    emitContent(mFrame, last ? callback : null);
+                    waiting = last;
+                    mFrame = null;
+                    mFrameLength = 0;
+                }
+            }
+            if (!waiting) {
+                callback.succeeded();
+            }
+        }
+
+        /**
+         * Sends a frame of response content to the openHAB Cloud. The callback is completed once
+         * the Socket.IO transport has written the frame to the connection.
+         */
+        private void emitContent(byte[] body, final Callback callback) {
+            final JSONObject responseJson = new JSONObject();
             try {
                 responseJson.put("id", mRequestId);
-                responseJson.put("body", BufferUtil.toArray(content));
-                socket.emit("responseContentBinary", responseJson);
-                logger.debug("Sent content to request {}", mRequestId);
+                responseJson.put("body", body);
             } catch (JSONException e) {
                 logger.error(e.getMessage());
             }
+            if (callback == null) {
+                socket.emit("responseContentBinary", responseJson);
+                logger.debug("Sent content to request {}", mRequestId);
+                return;
+            }
+            // the transport state must not change between the emit and the check, so both are done
+            // on the Socket.IO event thread, which also keeps the order of all messages emitted
+            EventThread.exec(new Runnable() {
+                @Override
+                public void run() {
+                    if (transport == null) {
+                        // not connected, Socket.IO buffers the frame until it is connected again
+                        socket.emit("responseContentBinary", responseJson);
+                        completeContentWrites(Collections.singletonList(callback));
+                        return;
+                    }
+                    // a busy transport writes the frame with its next write, not with the current one
+                    int drains = transport.writable ? 1 : 2;
+                    socket.emit("responseContentBinary", responseJson);
+                    pendingContentWrites.add(new ContentWrite(callback, drains));
+                    logger.debug("Sent content to request {}", mRequestId);
+                }
+            });
         }
 
         @Override
@@ -627,6 +801,7 @@ public class CloudClient {
                 logger.debug("Jetty finished receiving response header");
                 JSONObject responseJson = new JSONObject();
                 mHeadersSent = true;
+                mContentLength = getContentLength(response.getHeaders());
                 try {
                     responseJson.put("id", mRequestId);
                     responseJson.put("headers", getJSONHeaders(response.getHeaders()));
@@ -643,4 +818,17 @@ public class CloudClient {
             }
         }
     }
+
+    /*
+     * Response content which waits until it has been written by the Socket.IO transport
+     */
+    private static class ContentWrite {
+        private final Callback callback;
+        private int drains;
+
+        private ContentWrite(Callback callback, int drains) {
+            this.callback = callback;
+            this.drains = drains;
+        }
+    }
 }
@@ -25,4 +25,10 @@ public interface CloudClientListener {
      * @param command the {@link String} containing a command
      */
     public void sendCommand(String item, String command);
+
+    /**
+     * This method is called when the connection to the openHAB Cloud has been established or
+     * re-established
+     */
+    public void connected();
 }
@@ -60,13 +60,16 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     private static final String CFG_EXPOSE = "expose";
     private static final String CFG_BASE_URL = "baseURL";
     private static final String CFG_MODE = "mode";
+    private static final String CFG_UPDATE_INTERVAL = "updateInterval";
     private static final String SECRET_FILE_NAME = "openhabcloud" + File.separator + "secret";
     private static final String DEFAULT_URL = "https://myopenhab.org/";
+    private static final long DEFAULT_UPDATE_INTERVAL = 1000;
 
     private Logger logger = LoggerFactory.getLogger(CloudService.class);
 
     public static String clientVersion = null;
     private CloudClient cloudClient;
+    private final ItemUpdateCoalescer itemUpdateCoalescer = new ItemUpdateCoalescer();
     private String cloudBaseUrl = null;
     protected ItemRegistry itemRegistry = null;
     protected EventPublisher eventPublisher = null;
@@ -149,6 +152,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
 
     protected void deactivate() {
         logger.debug("openHAB Cloud connector deactivated");
+        itemUpdateCoalescer.stop();
         cloudClient.shutdown();
     }
 
@@ -182,8 +186,19 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
             exposedItems = null;
         }
 
+        long updateInterval = DEFAULT_UPDATE_INTERVAL;
+        Object intervalCfg = config.get(CFG_UPDATE_INTERVAL);
+        if (intervalCfg != null) {
+            try {
+                updateInterval = Long.parseLong(intervalCfg.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid update interval '{}', using {} ms", intervalCfg, DEFAULT_UPDATE_INTERVAL);
+            }
+        }
+
         logger.debug("UUID = " + InstanceUUID.get() + ", secret = " + getSecret());
 
+        itemUpdateCoalescer.stop();
         if (cloudClient != null) {
             cloudClient.shutdown();
         }
@@ -194,6 +209,7 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
         cloudClient.setOpenHABVersion(OpenHAB.getVersion());
         cloudClient.connect();
         cloudClient.setListener(this);
+        itemUpdateCoalescer.start(cloudClient, updateInterval);
         NotificationAction.cloudService = this;
     }
 
@@ -259,6 +275,12 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
         return newSecretString;
     }
 
+    @Override
+    public void connected() {
+        // the openHAB Cloud may have missed updates while the connection was down
+        itemUpdateCoalescer.clearSentStates();
+    }
+
     @Override
     public void sendCommand(String itemName, String commandString) {
         try {
@@ -332,8 +354,30 @@ public class CloudService implements ActionService, CloudClientListener, EventSu
     public void receive(Event event) {
         ItemStateEvent ise = (ItemStateEvent) event;
         if (exposedItems != null && exposedItems.contains(ise.getItemName())) {
-            cloudClient.sendItemUpdate(ise.getItemName(), ise.getItemState().toString());
+            itemUpdateCoalescer.update(ise.getItemName(), ise.getItemState().toString());
         }
     }
 
+    /**
+     * Returns the number of state updates of exposed items received from the event bus
+     */
+    public long getReceivedItemUpdateCount() {
+        return itemUpdateCoalescer.getReceivedCount();
+    }
+
+    /**
+     * Returns the number of state updates of exposed items which were not sent to the openHAB Cloud,
+     * because they did not change the state, were replaced by a newer update or there was no connection
+     */
+    public long getSuppressedItemUpdateCount() {
+        return itemUpdateCoalescer.getSuppressedCount();
+    }
+
+    /**
+     * Returns the number of state updates of exposed items sent to the openHAB Cloud
+     */
+    public long getSentItemUpdateCount() {
+        return itemUpdateCoalescer.getSentCount();
+    }
+
 }
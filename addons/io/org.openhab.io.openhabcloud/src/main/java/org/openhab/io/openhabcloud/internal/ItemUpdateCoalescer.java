@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.io.openhabcloud.internal;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class collects the state updates of exposed items and sends them to the openHAB Cloud
+ * once per update interval. Only the last state of an item within an interval is sent, and
+ * only if it differs from the state that was last sent for this item.
+ *
+ * @author agent - Initial contribution
+ */
+public class ItemUpdateCoalescer implements Runnable {
+
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+
+    private static Logger logger = LoggerFactory.getLogger(ItemUpdateCoalescer.class);
+
+    /*
+     * This map holds the states to be sent with the next flush, in the order the items were updated
+     */
+    private final Map<String, String> pendingStates = new LinkedHashMap<String, String>();
+
+    /*
+     * This map holds the states which were last sent to the openHAB Cloud
+     */
+    private final Map<String, String> sentStates = new HashMap<String, String>();
+
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong suppressedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+
+    private CloudClient cloudClient;
+    private long updateInterval;
+    private ScheduledFuture<?> flushJob;
+
+    /**
+     * Starts sending updates through the given client
+     *
+     * @param cloudClient the client connected to the openHAB Cloud
+     * @param updateInterval the interval in milliseconds in which updates are sent, 0 to send every change
+     *            immediately
+     */
+    public synchronized void start(CloudClient cloudClient, long updateInterval) {
+        stop();
+        this.cloudClient = cloudClient;
+        this.updateInterval = updateInterval;
+        sentStates.clear();
+    }
+
+    /**
+     * Stops sending updates, pending updates are discarded
+     */
+    public synchronized void stop() {
+        if (flushJob != null) {
+            flushJob.cancel(false);
+            flushJob = null;
+        }
+        suppressedCount.addAndGet(pendingStates.size());
+        pendingStates.clear();
+        cloudClient = null;
+    }
+
+    /**
+     * Forgets the states sent so far, so that the next update of each item is sent even if its
+     * state did not change. Must be called whenever the connection has been re-established.
+     */
+    public synchronized void clearSentStates() {
+        sentStates.clear();
+    }
+
+    /**
+     * Adds a state update of an exposed item
+     *
+     * @param itemName the name of the item
+     * @param itemState the new state of the item
+     */
+    public void update(String itemName, String itemState) {
+        receivedCount.incrementAndGet();
+        CloudClient client;
+        synchronized (this) {
+            if (cloudClient == null) {
+                suppressedCount.incrementAndGet();
+                return;
+            }
+            String sentState = sentStates.get(itemName);
+            if (pendingStates.containsKey(itemName)) {
+                // the pending state is replaced in any case
+                suppressedCount.incrementAndGet();
+                pendingStates.remove(itemName);
+            }
+            if (itemState.equals(sentState)) {
+                suppressedCount.incrementAndGet();
+                return;
+            }
+            if (updateInterval > 0) {
+                pendingStates.put(itemName, itemState);
+                if (flushJob == null) {
+                    flushJob = ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD).schedule(this,
+                            updateInterval, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            client = cloudClient;
+        }
+        send(client, itemName, itemState);
+    }
+
+    /**
+     * Sends all pending updates
+     */
+    @Override
+    public void run() {
+        Map<String, String> states;
+        CloudClient client;
+        synchronized (this) {
+            flushJob = null;
+            if (pendingStates.isEmpty() || cloudClient == null) {
+                return;
+            }
+            states = new LinkedHashMap<String, String>(pendingStates);
+            pendingStates.clear();
+            client = cloudClient;
+        }
+        logger.debug("Sending {} item updates", states.size());
+        for (Map.Entry<String, String> entry : states.entrySet()) {
+            send(client, entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void send(CloudClient client, String itemName, String itemState) {
+        if (client.sendItemUpdate(itemName, itemState)) {
+            sentCount.incrementAndGet();
+            synchronized (this) {
+                sentStates.put(itemName, itemState);
+            }
+        } else {
+            suppressedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of item updates received from the event bus
+     */
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    /**
+     * Returns the number of item updates which were not sent, because they did not change the
+     * state, were replaced by a newer update or there was no connection
+     */
+    public long getSuppressedCount() {
+        return suppressedCount.get();
+    }
+
+    /**
+     * Returns the number of item updates sent to the openHAB Cloud
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+}
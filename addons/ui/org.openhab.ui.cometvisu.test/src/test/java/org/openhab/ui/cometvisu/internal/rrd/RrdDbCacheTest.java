@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.rrd;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.Sample;
+
+/**
+ * Tests cases for {@link RrdDbCache}.
+ *
+ * @author agent
+ */
+public class RrdDbCacheTest {
+
+    private static final long STEP = 60;
+
+    private File file;
+    private RrdDbCache cache;
+    private long start;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("rrddbcache", ".rrd");
+        file.delete();
+        start = (System.currentTimeMillis() / 1000 / STEP - 100) * STEP;
+
+        RrdDef rrdDef = new RrdDef(file.getPath(), start, STEP);
+        rrdDef.addDatasource("state", DsType.GAUGE, STEP * 2, Double.NaN, Double.NaN);
+        rrdDef.addArchive(ConsolFun.AVERAGE, 0.5, 1, 200);
+        RrdDb rrdDb = new RrdDb(rrdDef);
+        rrdDb.close();
+        write(start + STEP, 1);
+
+        cache = new RrdDbCache(4);
+    }
+
+    @After
+    public void tearDown() {
+        cache.clear();
+        file.delete();
+    }
+
+    @Test
+    public void unchangedFileIsServedFromCache() throws IOException {
+        RrdDb first = cache.request(file.getPath());
+        cache.release(first);
+        RrdDb second = cache.request(file.getPath());
+        cache.release(second);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void writtenFileIsReopened() throws IOException {
+        RrdDb rrdDb = cache.request(file.getPath());
+        assertEquals(start + STEP, rrdDb.getLastUpdateTime());
+        assertEquals(1, rrdDb.getLastDatasourceValue("state"), 0);
+        cache.release(rrdDb);
+
+        write(start + 2 * STEP, 2);
+
+        rrdDb = cache.request(file.getPath());
+        assertEquals(start + 2 * STEP, rrdDb.getLastUpdateTime());
+        assertEquals(2, rrdDb.getLastDatasourceValue("state"), 0);
+        cache.release(rrdDb);
+    }
+
+    /**
+     * Writes a value the way the persistence service does and sets the modification time of the file to the time of
+     * the value, which lies in the past, so that the modification time is not ambiguous for the cache.
+     */
+    private void write(long time, double value) throws IOException {
+        RrdDb rrdDb = new RrdDb(file.getPath());
+        try {
+            Sample sample = rrdDb.createSample(time);
+            sample.setValue("state", value);
+            sample.update();
+        } finally {
+            rrdDb.close();
+        }
+        file.setLastModified(time * 1000);
+    }
+}
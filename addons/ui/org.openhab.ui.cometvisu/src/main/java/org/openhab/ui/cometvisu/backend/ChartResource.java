@@ -10,18 +10,14 @@ package org.openhab.ui.cometvisu.backend;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TreeMap;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -45,10 +41,13 @@ import org.eclipse.smarthome.core.persistence.PersistenceService;
 import org.eclipse.smarthome.core.persistence.QueryablePersistenceService;
 import org.eclipse.smarthome.io.rest.RESTResource;
 import org.openhab.ui.cometvisu.internal.Config;
+import org.openhab.ui.cometvisu.internal.chart.DownsamplingMode;
+import org.openhab.ui.cometvisu.internal.chart.SeriesDownsampler;
+import org.openhab.ui.cometvisu.internal.rrd.RrdDbCache;
+import org.openhab.ui.cometvisu.internal.rrd.RrdSeries;
+import org.openhab.ui.cometvisu.internal.rrd.RrdSeriesCache;
+import org.openhab.ui.cometvisu.internal.rrd.RrdSeriesOutput;
 import org.rrd4j.ConsolFun;
-import org.rrd4j.core.FetchData;
-import org.rrd4j.core.FetchRequest;
-import org.rrd4j.core.RrdDb;
 import org.rrd4j.core.Util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,19 +64,21 @@ import org.slf4j.LoggerFactory;
 public class ChartResource implements RESTResource {
     private static final Logger logger = LoggerFactory.getLogger(ChartResource.class);
 
-    // pattern RRDTool uses to format doubles in XML files
-    static final String PATTERN = "0.0000000000E00";
-
-    static final DecimalFormat df;
-
     protected final static String RRD_FOLDER = org.eclipse.smarthome.config.core.ConfigConstants.getUserDataFolder()
             + File.separator + "persistence" + File.separator + "rrd4j";
 
-    static {
-        df = (DecimalFormat) NumberFormat.getNumberInstance(Locale.ENGLISH);
-        df.applyPattern(PATTERN);
-        // df.setPositivePrefix("+");
-    }
+    // number of RRD files kept open
+    private static final int RRD_CACHE_SIZE = 64;
+
+    // time in milliseconds a fetched RRD series is reused
+    private static final long RRD_SERIES_TTL = 10000;
+
+    // maximum number of points returned for a series of a persistence service
+    private static final int MAX_PERSISTENCE_POINTS = 1000;
+
+    private final RrdDbCache rrdDbCache = new RrdDbCache(RRD_CACHE_SIZE);
+
+    private final RrdSeriesCache rrdSeriesCache = new RrdSeriesCache(rrdDbCache, RRD_SERIES_TTL);
 
     static protected Map<String, QueryablePersistenceService> persistenceServices = new HashMap<String, QueryablePersistenceService>();
 
@@ -100,6 +101,11 @@ public class ChartResource implements RESTResource {
         return persistenceServices;
     }
 
+    protected void deactivate() {
+        rrdSeriesCache.clear();
+        rrdDbCache.clear();
+    }
+
     protected void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
     }
@@ -161,7 +167,8 @@ public class ChartResource implements RESTResource {
             if (persistenceService.getId().equals("rrd4j")) {
                 data = getRrdSeries(persistenceService, item, consilidationFunction, startTime, endTime, resolution);
             } else {
-                data = getPersistenceSeries(persistenceService, item, startTime, endTime, resolution);
+                data = getPersistenceSeries(persistenceService, item, consilidationFunction, startTime, endTime,
+                        resolution);
             }
             return Response.ok(data, responseType).build();
         } catch (ItemNotFoundException e1) {
@@ -171,9 +178,24 @@ public class ChartResource implements RESTResource {
         return Response.serverError().build();
     }
 
-    public Object getPersistenceSeries(QueryablePersistenceService persistenceService, Item item, Date timeBegin,
-            Date timeEnd, long resolution) {
-        Map<Long, ArrayList<String>> data = new HashMap<Long, ArrayList<String>>();
+    /**
+     * returns the series of a persistence service, reduced to the requested resolution
+     * and at most {@link #MAX_PERSISTENCE_POINTS} points while it is read
+     *
+     * @param persistenceService
+     * @param item
+     * @param consilidationFunction
+     *            - selects how the points of one time bucket are reduced
+     * @param timeBegin
+     * @param timeEnd
+     * @param resolution
+     *            - resolution in seconds
+     * @return
+     */
+    public Object getPersistenceSeries(QueryablePersistenceService persistenceService, Item item,
+            ConsolFun consilidationFunction, Date timeBegin, Date timeEnd, long resolution) {
+        SeriesDownsampler downsampler = new SeriesDownsampler(DownsamplingMode.fromConsolFun(consilidationFunction),
+                timeBegin.getTime(), timeEnd.getTime(), resolution * 1000, MAX_PERSISTENCE_POINTS);
 
         // Define the data filter
         FilterCriteria filter = new FilterCriteria();
@@ -193,14 +215,14 @@ public class ChartResource implements RESTResource {
             HistoricItem historicItem = it.next();
             org.eclipse.smarthome.core.types.State state = historicItem.getState();
             if (state instanceof DecimalType) {
-                ArrayList<String> vals = new ArrayList<String>();
-                vals.add(formatDouble(((DecimalType) state).doubleValue(), "null", true));
-                data.put(historicItem.getTimestamp().getTime(), vals);
+                downsampler.add(historicItem.getTimestamp().getTime(), ((DecimalType) state).doubleValue());
             }
         }
-        logger.debug("'{}' querying item '{}' from '{}' to '{}' => '{}' results", persistenceService.getId(),
-                filter.getItemName(), filter.getBeginDate(), filter.getEndDate(), dataCounter);
-        return convertToRrd(data);
+        RrdSeries series = downsampler.finish();
+        logger.debug("'{}' querying item '{}' from '{}' to '{}' => '{}' results reduced to '{}'",
+                persistenceService.getId(), filter.getItemName(), filter.getBeginDate(), filter.getEndDate(),
+                dataCounter, series.getRowCount());
+        return new RrdSeriesOutput(Collections.singletonList(series));
     }
 
     /**
@@ -216,7 +238,7 @@ public class ChartResource implements RESTResource {
      */
     public Object getRrdSeries(QueryablePersistenceService persistenceService, Item item,
             ConsolFun consilidationFunction, Date timeBegin, Date timeEnd, long resolution) {
-        Map<Long, ArrayList<String>> data = new TreeMap<Long, ArrayList<String>>();
+        List<RrdSeries> series = new ArrayList<RrdSeries>();
         try {
             List<String> itemNames = new ArrayList<String>();
 
@@ -229,71 +251,21 @@ public class ChartResource implements RESTResource {
                 itemNames.add(item.getName());
             }
             for (String itemName : itemNames) {
-                addRrdData(data, itemName, consilidationFunction, timeBegin, timeEnd, resolution);
+                series.add(rrdSeriesCache.getSeries(RRD_FOLDER + File.separator + itemName + ".rrd",
+                        consilidationFunction, Util.getTimestamp(timeBegin), Util.getTimestamp(timeEnd),
+                        resolution));
             }
 
         } catch (FileNotFoundException e) {
             // rrd file does not exist, fallback to generic persistance service
             logger.debug("no rrd file found '{}'", (RRD_FOLDER + File.separator + item.getName() + ".rrd"));
-            return getPersistenceSeries(persistenceService, item, timeBegin, timeEnd, resolution);
+            return getPersistenceSeries(persistenceService, item, consilidationFunction, timeBegin, timeEnd,
+                    resolution);
         } catch (Exception e) {
             logger.error(e.getLocalizedMessage() + ": fallback to generic persistance service");
-            return getPersistenceSeries(persistenceService, item, timeBegin, timeEnd, resolution);
-        }
-        return convertToRrd(data);
-    }
-
-    private ArrayList<Object> convertToRrd(Map<Long, ArrayList<String>> data) {
-        // sort data by key
-        Map<Long, ArrayList<String>> treeMap = new TreeMap<Long, ArrayList<String>>(data);
-        ArrayList<Object> rrd = new ArrayList<Object>();
-        for (Long time : treeMap.keySet()) {
-            Object[] entry = new Object[2];
-            entry[0] = time;
-            entry[1] = data.get(time);
-            rrd.add(entry);
-        }
-        return rrd;
-    }
-
-    private Map<Long, ArrayList<String>> addRrdData(Map<Long, ArrayList<String>> data, String itemName,
-            ConsolFun consilidationFunction, Date timeBegin, Date timeEnd, long resolution) throws IOException {
-        RrdDb rrdDb = new RrdDb(RRD_FOLDER + File.separator + itemName + ".rrd");
-        FetchRequest fetchRequest = rrdDb.createFetchRequest(consilidationFunction, Util.getTimestamp(timeBegin),
-                Util.getTimestamp(timeEnd), resolution);
-        FetchData fetchData = fetchRequest.fetchData();
-        // logger.info(fetchData.toString());
-        long[] timestamps = fetchData.getTimestamps();
-        double[][] values = fetchData.getValues();
-
-        logger.debug("RRD fetch returned '{}' rows and '{}' columns", fetchData.getRowCount(),
-                fetchData.getColumnCount());
-
-        for (int row = 0; row < fetchData.getRowCount(); row++) {
-            // change to microseconds
-            long time = timestamps[row] * 1000;
-
-            if (!data.containsKey(time)) {
-                data.put(time, new ArrayList<String>());
-            }
-            ArrayList<String> vals = data.get(time);
-            int indexOffset = vals.size();
-            for (int dsIndex = 0; dsIndex < fetchData.getColumnCount(); dsIndex++) {
-                vals.add(dsIndex + indexOffset, formatDouble(values[dsIndex][row], "null", true));
-            }
-        }
-        rrdDb.close();
-
-        return data;
-    }
-
-    static String formatDouble(double x, String nanString, boolean forceExponents) {
-        if (Double.isNaN(x)) {
-            return nanString;
-        }
-        if (forceExponents) {
-            return df.format(x);
+            return getPersistenceSeries(persistenceService, item, consilidationFunction, timeBegin, timeEnd,
+                    resolution);
         }
-        return "" + x;
+        return new RrdSeriesOutput(series);
     }
 }
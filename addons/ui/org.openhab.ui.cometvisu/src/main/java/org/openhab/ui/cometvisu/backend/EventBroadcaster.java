@@ -8,10 +8,7 @@
  */
 package org.openhab.ui.cometvisu.backend;
 
-import java.util.Map;
-
 import org.eclipse.smarthome.core.items.Item;
-import org.eclipse.smarthome.core.types.State;
 
 /**
  * Broadcast state change events of items to listening clients
@@ -21,15 +18,14 @@ import org.eclipse.smarthome.core.types.State;
  */
 public interface EventBroadcaster {
     /**
-     * Broadcasts an event described by the given parameters to all currently
-     * listening clients.
+     * Sends the current state of the given item to all clients which have subscribed to it.
      *
      * @param item
-     *            - the item that should be broadcasted
-     * @param eventObject
-     *            - bean that can be converted to a JSON object.
+     *            - the item which has changed
+     * @param typedOnly
+     *            - only notify the client addresses with a type transformation (e.g. number:Item)
      */
-    public void broadcastEvent(final Object eventObject);
+    public void broadcastItemState(Item item, boolean typedOnly);
 
     /**
      * listens to state changes of the given item, if it is part of the
@@ -53,14 +49,4 @@ public interface EventBroadcaster {
      * listen for state changes from the requested items
      */
     public void registerItems();
-
-    /**
-     * lists all client item names and the associated type which must be notified
-     * when the item changes
-     *
-     * @param item
-     *            - the item that is listened to
-     * @return
-     */
-    public Map<String, Class<? extends State>> getClientItems(Item item);
 }
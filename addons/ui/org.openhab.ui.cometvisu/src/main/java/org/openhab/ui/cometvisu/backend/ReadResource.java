@@ -14,9 +14,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -35,12 +34,13 @@ import org.eclipse.smarthome.core.items.ItemRegistry;
 import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.io.rest.RESTResource;
 import org.glassfish.jersey.media.sse.EventOutput;
-import org.glassfish.jersey.media.sse.SseBroadcaster;
 import org.glassfish.jersey.media.sse.SseFeature;
 import org.openhab.ui.cometvisu.backend.beans.StateBean;
 import org.openhab.ui.cometvisu.internal.Config;
 import org.openhab.ui.cometvisu.internal.listeners.StateEventListener;
-import org.openhab.ui.cometvisu.internal.util.SseUtil;
+import org.openhab.ui.cometvisu.internal.subscription.ClientSubscription;
+import org.openhab.ui.cometvisu.internal.subscription.StateEventCoalescer;
+import org.openhab.ui.cometvisu.internal.subscription.SubscriptionIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,17 +55,14 @@ import org.slf4j.LoggerFactory;
 public class ReadResource implements EventBroadcaster, RESTResource {
     private static final Logger logger = LoggerFactory.getLogger(ReadResource.class);
 
-    private SseBroadcaster broadcaster = new SseBroadcaster();
+    private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
 
-    private final ExecutorService executorService;
+    private final StateEventCoalescer coalescer;
 
     private ItemRegistry itemRegistry;
 
     private StateEventListener stateEventListener;
 
-    private List<String> itemNames = new ArrayList<String>();
-    private Map<Item, Map<String, Class<? extends State>>> items = new HashMap<Item, Map<String, Class<? extends State>>>();
-
     @Context
     private UriInfo uriInfo;
 
@@ -78,11 +75,16 @@ public class ReadResource implements EventBroadcaster, RESTResource {
     private Collection<ItemFactory> itemFactories = new CopyOnWriteArrayList<ItemFactory>();
 
     public ReadResource() {
-        this.executorService = Executors.newSingleThreadExecutor();
+        this.coalescer = new StateEventCoalescer(subscriptionIndex, Config.COMETVISU_BACKEND_EVENT_WINDOW,
+                Config.COMETVISU_BACKEND_HEARTBEAT_INTERVAL);
         this.stateEventListener = new StateEventListener();
         this.stateEventListener.setEventBroadcaster(this);
     }
 
+    protected void deactivate() {
+        coalescer.shutdown();
+    }
+
     protected void setItemRegistry(ItemRegistry itemRegistry) {
         this.itemRegistry = itemRegistry;
     }
@@ -100,10 +102,11 @@ public class ReadResource implements EventBroadcaster, RESTResource {
     }
 
     /**
-     * Subscribes the connecting client to the stream of events filtered by the
-     * given eventFilter.
+     * Subscribes the connecting client to the state changes of the requested
+     * addresses.
      *
-     * @param eventFilter
+     * @param itemNames
+     *            - the CometVisu addresses (item names with an optional type prefix)
      * @return {@link EventOutput} object associated with the incoming
      *         connection.
      * @throws IOException
@@ -113,59 +116,36 @@ public class ReadResource implements EventBroadcaster, RESTResource {
     @Produces(SseFeature.SERVER_SENT_EVENTS)
     public Object getStates(@QueryParam("a") List<String> itemNames, @QueryParam("i") long index,
             @QueryParam("t") long time) throws IOException, InterruptedException {
-        final EventOutput eventOutput = new EventOutput();
-
-        this.itemNames = itemNames;
+        ClientSubscription client = new ClientSubscription(itemNames);
+        subscriptionIndex.add(client);
 
-        broadcaster.add(eventOutput);
-
-        // get all requested items and send their states to the client
-        items = new HashMap<Item, Map<String, Class<? extends State>>>();
-        // send the current states of all items to the client
+        // send the current states of all requested items to the client
         if (this.itemRegistry != null) {
             List<StateBean> states = new ArrayList<StateBean>();
-            for (String cvItemName : itemNames) {
+            for (String ohItemName : client.getItemNames()) {
                 try {
-                    String[] parts = cvItemName.split(":");
-                    String ohItemName = cvItemName;
-                    Class<? extends State> stateClass = null;
-                    if (parts.length == 2) {
-                        String classPrefix = parts[0].toLowerCase();
-                        if (Config.itemTypeMapper.containsKey(classPrefix)) {
-                            stateClass = Config.itemTypeMapper.get(classPrefix);
-                            classPrefix += ":";
-                        } else {
-                            logger.debug("no type found for '{}'", classPrefix);
-                            classPrefix = "";
-                        }
-                        ohItemName = parts[1];
-                    }
                     Item item = this.itemRegistry.getItem(ohItemName);
-                    if (!items.containsKey(item)) {
-                        items.put(item, new HashMap<String, Class<? extends State>>());
-                    }
-                    items.get(item).put(cvItemName, stateClass);
-                    StateBean itemState = new StateBean();
-                    itemState.name = cvItemName;
-
-                    if (stateClass != null) {
-                        itemState.state = item.getStateAs(stateClass).toString();
-                        logger.trace("get state of '{}' as '{}' == '{}'", item, stateClass, itemState.state);
-                    } else {
-                        itemState.state = item.getState().toString();
+                    for (Map.Entry<String, Class<? extends State>> address : client.getAddresses(ohItemName)
+                            .entrySet()) {
+                        StateBean itemState = new StateBean();
+                        itemState.name = address.getKey();
+                        itemState.state = getStateString(item, address.getValue());
+                        logger.trace("get state of '{}' as '{}' == '{}'", item, address.getValue(), itemState.state);
+                        states.add(itemState);
                     }
-                    states.add(itemState);
+                    // listen to state changes of the requested item
+                    registerItem(item);
                 } catch (ItemNotFoundException e) {
                     logger.error(e.getLocalizedMessage());
                 }
             }
-            logger.debug("initially broadcasting " + states.size() + "/" + itemNames.size() + " item states");
-            broadcaster.broadcast(SseUtil.buildEvent(states));
+            logger.debug("initially sending " + states.size() + "/" + itemNames.size() + " item states");
+            if (!client.write(states)) {
+                subscriptionIndex.remove(client);
+            }
         }
-        // listen to state changes of the requested items
-        registerItems();
 
-        return eventOutput;
+        return client.getEventOutput();
     }
 
     /**
@@ -173,9 +153,14 @@ public class ReadResource implements EventBroadcaster, RESTResource {
      */
     @Override
     public void registerItems() {
-        for (Item item : items.keySet()) {
-            if (item instanceof GenericItem) {
-                ((GenericItem) item).addStateChangeListener(stateEventListener);
+        if (itemRegistry == null) {
+            return;
+        }
+        for (String itemName : subscriptionIndex.getItemNames()) {
+            try {
+                registerItem(itemRegistry.getItem(itemName));
+            } catch (ItemNotFoundException e) {
+                logger.debug("subscribed item '{}' does not exist", itemName);
             }
         }
     }
@@ -189,52 +174,70 @@ public class ReadResource implements EventBroadcaster, RESTResource {
      */
     @Override
     public void registerItem(Item item) {
-        if (item == null || items.containsKey(item) || !itemNames.contains(item.getName()))
+        if (item == null || !subscriptionIndex.isSubscribed(item.getName())) {
             return;
+        }
         if (item instanceof GenericItem) {
             ((GenericItem) item).addStateChangeListener(stateEventListener);
         }
     }
 
     /**
-     * listens to state changes of the given item, if it is part of the
-     * requested items
+     * stops listening to state changes of the given item
      *
      * @param item
-     *            - the new item, that should be listened to
+     *            - the item, that should not be listened to anymore
      */
     @Override
     public void unregisterItem(Item item) {
-        if (item == null || items.containsKey(item) || !itemNames.contains(item.getName()))
-            return;
         if (item instanceof GenericItem) {
             ((GenericItem) item).removeStateChangeListener(stateEventListener);
-            items.remove(item);
         }
     }
 
     /**
-     * Broadcasts an event described by the given parameters to all currently
-     * listening clients.
+     * Queues the current state of the given item for every client which
+     * subscribed to it, the state is converted only once per requested type.
      *
      * @param item
      *            - the item which has changed
-     * @param eventObject
-     *            - bean that can be converted to a JSON object.
+     * @param typedOnly
+     *            - only notify the client addresses with a type transformation
      */
     @Override
-    public void broadcastEvent(final Object eventObject) {
-        executorService.execute(new Runnable() {
-
-            @Override
-            public void run() {
-                broadcaster.broadcast(SseUtil.buildEvent(eventObject));
+    public void broadcastItemState(Item item, boolean typedOnly) {
+        Set<ClientSubscription> clients = subscriptionIndex.getSubscribers(item.getName());
+        if (clients.isEmpty()) {
+            return;
+        }
+        Map<Class<? extends State>, String> states = new HashMap<Class<? extends State>, String>();
+        for (ClientSubscription client : clients) {
+            if (client.isClosed()) {
+                subscriptionIndex.remove(client);
+                continue;
+            }
+            for (Map.Entry<String, Class<? extends State>> address : client.getAddresses(item.getName()).entrySet()) {
+                Class<? extends State> stateClass = address.getValue();
+                if (typedOnly && stateClass == null) {
+                    continue;
+                }
+                String state = states.get(stateClass);
+                if (state == null) {
+                    state = getStateString(item, stateClass);
+                    states.put(stateClass, state);
+                }
+                coalescer.enqueue(client, address.getKey(), state);
             }
-        });
+        }
     }
 
-    @Override
-    public Map<String, Class<? extends State>> getClientItems(Item item) {
-        return items.get(item);
+    private String getStateString(Item item, Class<? extends State> stateClass) {
+        if (stateClass != null) {
+            State state = item.getStateAs(stateClass);
+            if (state != null) {
+                return state.toString();
+            }
+        }
+        return item.getState().toString();
     }
 }
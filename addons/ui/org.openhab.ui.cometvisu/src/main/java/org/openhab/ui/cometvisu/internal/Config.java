@@ -56,6 +56,17 @@ public class Config {
     public static final String COMETVISU_BACKEND_WRITE_ALIAS = "w";
     public static final String COMETVISU_BACKEND_CHART_ALIAS = "rrdfetch";
 
+    /**
+     * time window in milliseconds in which state changes are collected before they are sent to a client as one
+     * event
+     */
+    public static final long COMETVISU_BACKEND_EVENT_WINDOW = 50;
+
+    /**
+     * interval in seconds in which idle SSE connections are checked, closed connections are unsubscribed
+     */
+    public static final long COMETVISU_BACKEND_HEARTBEAT_INTERVAL = 30;
+
     public static Hashtable<String, Object> iconConfig = new Hashtable<String, Object>();
     public static Hashtable<String, Object> iconMappings = new Hashtable<String, Object>();
 
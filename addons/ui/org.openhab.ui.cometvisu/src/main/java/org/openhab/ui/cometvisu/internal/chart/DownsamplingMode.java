@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.chart;
+
+import org.rrd4j.ConsolFun;
+
+/**
+ * Algorithms the {@link SeriesDownsampler} uses to reduce the points of one bucket.
+ *
+ * @author agent
+ * @since 2.0.0
+ */
+public enum DownsamplingMode {
+    /**
+     * largest-triangle-three-buckets: keeps the point of a bucket which forms the largest triangle with the
+     * previously kept point and the average of the next bucket
+     */
+    LTTB,
+    /** minimum value of a bucket */
+    MIN,
+    /** maximum value of a bucket */
+    MAX,
+    /** average value of a bucket */
+    AVERAGE;
+
+    /**
+     * @return the mode matching the RRD consolidation function requested by the client
+     */
+    public static DownsamplingMode fromConsolFun(ConsolFun consolidationFunction) {
+        if (consolidationFunction == ConsolFun.MIN) {
+            return MIN;
+        } else if (consolidationFunction == ConsolFun.MAX) {
+            return MAX;
+        } else if (consolidationFunction == ConsolFun.AVERAGE) {
+            return AVERAGE;
+        }
+        return LTTB;
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.chart;
+
+import java.util.Arrays;
+
+import org.openhab.ui.cometvisu.internal.rrd.RrdSeries;
+
+/**
+ * Reduces a time series while it is read, the points are grouped into buckets of a fixed time span and each bucket
+ * is reduced to one point according to the {@link DownsamplingMode}.
+ *
+ * Points have to be added in ascending time order. The memory used is bounded by the number of buckets and the points
+ * of the two buckets currently processed.
+ *
+ * @author agent
+ * @since 2.0.0
+ */
+public class SeriesDownsampler {
+
+    private final DownsamplingMode mode;
+
+    private final long start;
+
+    private final long bucketSize;
+
+    private final Points result;
+
+    // LTTB: points of the bucket the next point is selected from and of the bucket following it
+    private Points pending = new Points(16);
+    private Points current = new Points(16);
+    private long lastTime;
+    private double lastValue;
+    private boolean first = true;
+
+    // MIN, MAX, AVERAGE: aggregate of the current bucket
+    private long bucketTime;
+    private double bucketValue;
+    private double bucketSum;
+    private int bucketCount = 0;
+
+    private long currentBucket = -1;
+
+    /**
+     * @param mode
+     *            - the reduction applied to each bucket
+     * @param start
+     *            - start of the series in milliseconds
+     * @param end
+     *            - end of the series in milliseconds
+     * @param resolution
+     *            - requested resolution in milliseconds, 0 if not set
+     * @param maxPoints
+     *            - maximum number of points the series is reduced to
+     */
+    public SeriesDownsampler(DownsamplingMode mode, long start, long end, long resolution, int maxPoints) {
+        this.mode = mode;
+        this.start = start;
+        long minBucketSize = (end - start + maxPoints - 1) / maxPoints;
+        this.bucketSize = Math.max(1, Math.max(resolution, minBucketSize));
+        this.result = new Points((int) Math.min(maxPoints + 2, (end - start) / bucketSize + 3));
+    }
+
+    public void add(long time, double value) {
+        long bucket = (time - start) / bucketSize;
+        if (mode == DownsamplingMode.LTTB) {
+            addLttb(bucket, time, value);
+        } else {
+            addAggregate(bucket, time, value);
+        }
+    }
+
+    /**
+     * Completes the last buckets.
+     *
+     * @return the reduced series
+     */
+    public RrdSeries finish() {
+        if (mode == DownsamplingMode.LTTB) {
+            if (pending.size > 0) {
+                selectLttb();
+            }
+            if (current.size > 0) {
+                // the last point is always kept
+                result.add(current.times[current.size - 1], current.values[current.size - 1]);
+            }
+            pending.clear();
+            current.clear();
+        } else if (bucketCount > 0) {
+            flushAggregate();
+        }
+        return new RrdSeries(Arrays.copyOf(result.times, result.size),
+                new double[][] { Arrays.copyOf(result.values, result.size) });
+    }
+
+    private void addLttb(long bucket, long time, double value) {
+        if (first) {
+            // the first point is always kept
+            first = false;
+            lastTime = time;
+            lastValue = value;
+            result.add(time, value);
+            currentBucket = bucket;
+            return;
+        }
+        if (bucket != currentBucket && current.size > 0) {
+            if (pending.size > 0) {
+                selectLttb();
+            }
+            Points swap = pending;
+            pending = current;
+            current = swap;
+            current.clear();
+        }
+        currentBucket = bucket;
+        current.add(time, value);
+    }
+
+    /**
+     * selects the point of the pending bucket forming the largest triangle with the last selected point and the
+     * average of the current bucket
+     */
+    private void selectLttb() {
+        double avgTime;
+        double avgValue;
+        if (current.size > 0) {
+            avgTime = 0;
+            avgValue = 0;
+            for (int i = 0; i < current.size; i++) {
+                avgTime += current.times[i];
+                avgValue += current.values[i];
+            }
+            avgTime /= current.size;
+            avgValue /= current.size;
+        } else {
+            avgTime = pending.times[pending.size - 1];
+            avgValue = pending.values[pending.size - 1];
+        }
+
+        int selected = 0;
+        double maxArea = -1;
+        for (int i = 0; i < pending.size; i++) {
+            double area = Math.abs((lastTime - avgTime) * (pending.values[i] - lastValue)
+                    - (lastTime - pending.times[i]) * (avgValue - lastValue));
+            if (area > maxArea) {
+                maxArea = area;
+                selected = i;
+            }
+        }
+        lastTime = pending.times[selected];
+        lastValue = pending.values[selected];
+        result.add(lastTime, lastValue);
+        pending.clear();
+    }
+
+    private void addAggregate(long bucket, long time, double value) {
+        if (bucket != currentBucket && bucketCount > 0) {
+            flushAggregate();
+        }
+        currentBucket = bucket;
+        if (bucketCount == 0) {
+            bucketTime = time;
+            bucketValue = value;
+            bucketSum = value;
+        } else {
+            bucketSum += value;
+            if ((mode == DownsamplingMode.MIN && value < bucketValue)
+                    || (mode == DownsamplingMode.MAX && value > bucketValue)) {
+                bucketTime = time;
+                bucketValue = value;
+            }
+        }
+        bucketCount++;
+    }
+
+    private void flushAggregate() {
+        if (mode == DownsamplingMode.AVERAGE) {
+            result.add(start + currentBucket * bucketSize, bucketSum / bucketCount);
+        } else {
+            result.add(bucketTime, bucketValue);
+        }
+        bucketCount = 0;
+    }
+
+    /**
+     * growable primitive point buffer
+     */
+    private static class Points {
+        private long[] times;
+        private double[] values;
+        private int size = 0;
+
+        private Points(int capacity) {
+            times = new long[Math.max(capacity, 1)];
+            values = new double[Math.max(capacity, 1)];
+        }
+
+        private void add(long time, double value) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            times[size] = time;
+            values[size] = value;
+            size++;
+        }
+
+        private void clear() {
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.rrd;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.rrd4j.core.RrdBackendFactory;
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the most recently used RRD files open (read-only and memory mapped), so that chart requests do not have to
+ * open and parse the RRD file on every request.
+ *
+ * A file is only closed when it has been evicted and is not used by a running fetch anymore. rrd4j keeps values like
+ * the last update time and the archive pointers in memory once they are read, so a file is reopened whenever it has
+ * been written by the persistence service since it was opened.
+ *
+ * @author agent
+ * @since 2.0.0
+ */
+public class RrdDbCache {
+    private static final Logger logger = LoggerFactory.getLogger(RrdDbCache.class);
+
+    private static final String BACKEND_FACTORY = "NIO";
+
+    /**
+     * the modification time of a file is not more precise than this on every file system, a file opened within this
+     * time after its last modification may have been written again without a change of its modification time
+     */
+    private static final long MODIFICATION_TIME_RESOLUTION = 2000;
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * all open files, including evicted ones which are still in use
+     */
+    private final Map<RrdDb, Entry> openEntries = new IdentityHashMap<RrdDb, Entry>();
+
+    private final int capacity;
+
+    public RrdDbCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, Entry>(capacity, 0.75f, true);
+    }
+
+    /**
+     * Returns the opened RRD file, it must be given back with {@link #release(RrdDb)} after usage.
+     *
+     * @param path
+     *            - path of the RRD file
+     * @throws FileNotFoundException
+     *             if the RRD file does not exist
+     */
+    public RrdDb request(String path) throws IOException {
+        File file = new File(path);
+        if (!file.exists()) {
+            throw new FileNotFoundException(path);
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(path);
+            if (entry != null && !entry.isUpToDate(file.lastModified())) {
+                // file has been written in the meantime
+                entries.remove(path);
+                entry.evicted = true;
+                closeIfUnused(entry);
+                entry = null;
+            }
+            if (entry == null) {
+                long lastModified = file.lastModified();
+                entry = new Entry(new RrdDb(path, true, RrdBackendFactory.getFactory(BACKEND_FACTORY)), lastModified,
+                        System.currentTimeMillis());
+                entries.put(path, entry);
+                openEntries.put(entry.rrdDb, entry);
+                evict();
+            }
+            entry.users++;
+            return entry.rrdDb;
+        }
+    }
+
+    /**
+     * Gives back a RRD file requested by {@link #request(String)}.
+     */
+    public void release(RrdDb rrdDb) {
+        synchronized (entries) {
+            Entry entry = openEntries.get(rrdDb);
+            if (entry != null) {
+                entry.users--;
+                closeIfUnused(entry);
+            }
+        }
+    }
+
+    /**
+     * Closes all unused files.
+     */
+    public void clear() {
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                entry.evicted = true;
+                closeIfUnused(entry);
+            }
+            entries.clear();
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            Entry entry = it.next();
+            it.remove();
+            entry.evicted = true;
+            closeIfUnused(entry);
+        }
+    }
+
+    private void closeIfUnused(Entry entry) {
+        if (entry.evicted && entry.users <= 0) {
+            openEntries.remove(entry.rrdDb);
+            close(entry.rrdDb);
+        }
+    }
+
+    private void close(RrdDb rrdDb) {
+        try {
+            rrdDb.close();
+        } catch (IOException e) {
+            logger.debug("error closing RRD file '{}': {}", rrdDb.getPath(), e.getMessage());
+        }
+    }
+
+    private static class Entry {
+        private final RrdDb rrdDb;
+        private final long lastModified;
+        private final long openedAt;
+        private int users = 0;
+        private boolean evicted = false;
+
+        private Entry(RrdDb rrdDb, long lastModified, long openedAt) {
+            this.rrdDb = rrdDb;
+            this.lastModified = lastModified;
+            this.openedAt = openedAt;
+        }
+
+        /**
+         * @return true if the file has not been written since it was opened
+         */
+        private boolean isUpToDate(long fileLastModified) {
+            return fileLastModified == lastModified && openedAt - lastModified >= MODIFICATION_TIME_RESOLUTION;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.rrd;
+
+import org.rrd4j.core.FetchData;
+
+/**
+ * Columnar series data of one RRD file: one timestamp array and one value array per datasource.
+ *
+ * @author agent
+ * @since 2.0.0
+ */
+public class RrdSeries {
+
+    private final long[] timestamps;
+
+    private final double[][] values;
+
+    /**
+     * @param timestamps
+     *            - timestamps in milliseconds, ascending
+     * @param values
+     *            - values indexed by [datasource][row]
+     */
+    public RrdSeries(long[] timestamps, double[][] values) {
+        this.timestamps = timestamps;
+        this.values = values;
+    }
+
+    public static RrdSeries fromFetchData(FetchData fetchData) {
+        long[] rrdTimestamps = fetchData.getTimestamps();
+        long[] timestamps = new long[rrdTimestamps.length];
+        for (int row = 0; row < rrdTimestamps.length; row++) {
+            timestamps[row] = rrdTimestamps[row] * 1000;
+        }
+        return new RrdSeries(timestamps, fetchData.getValues());
+    }
+
+    public int getRowCount() {
+        return timestamps.length;
+    }
+
+    public int getColumnCount() {
+        return values.length;
+    }
+
+    public long getTimestamp(int row) {
+        return timestamps[row];
+    }
+
+    public double getValue(int column, int row) {
+        return values[column][row];
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.rrd;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.rrd4j.ConsolFun;
+import org.rrd4j.core.FetchData;
+import org.rrd4j.core.FetchRequest;
+import org.rrd4j.core.RrdDb;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches series from RRD files through a {@link RrdDbCache} and keeps the results for a short time, so that
+ * repeated refreshes of the same diagram are served from memory.
+ *
+ * Requests are keyed by item, consolidation function, resolution and start/end time rounded to the resolution.
+ *
+ * @author agent
+ * @since 2.0.0
+ */
+public class RrdSeriesCache {
+    private static final Logger logger = LoggerFactory.getLogger(RrdSeriesCache.class);
+
+    /**
+     * bucket size in seconds used for requests without resolution
+     */
+    private static final long DEFAULT_BUCKET = 60;
+
+    private static final int MAX_ENTRIES = 500;
+
+    private final ConcurrentMap<String, CachedSeries> series = new ConcurrentHashMap<String, CachedSeries>();
+
+    private final RrdDbCache rrdDbCache;
+
+    private final long ttl;
+
+    /**
+     * @param rrdDbCache
+     *            - cache of the opened RRD files
+     * @param ttl
+     *            - time in milliseconds a fetched series is reused
+     */
+    public RrdSeriesCache(RrdDbCache rrdDbCache, long ttl) {
+        this.rrdDbCache = rrdDbCache;
+        this.ttl = ttl;
+    }
+
+    /**
+     * @param path
+     *            - path of the RRD file
+     * @param consolidationFunction
+     * @param start
+     *            - start time in seconds
+     * @param end
+     *            - end time in seconds
+     * @param resolution
+     *            - requested resolution in seconds
+     * @return the series of all datasources of the RRD file
+     * @throws IOException
+     */
+    public RrdSeries getSeries(String path, ConsolFun consolidationFunction, long start, long end, long resolution)
+            throws IOException {
+        long bucket = resolution > 0 ? resolution : DEFAULT_BUCKET;
+        String key = path + "|" + consolidationFunction + "|" + (start / bucket) + "|" + (end / bucket) + "|"
+                + resolution;
+        long now = System.currentTimeMillis();
+        CachedSeries cached = series.get(key);
+        if (cached != null && cached.expires > now) {
+            return cached.series;
+        }
+
+        RrdDb rrdDb = rrdDbCache.request(path);
+        RrdSeries result;
+        try {
+            FetchRequest fetchRequest = rrdDb.createFetchRequest(consolidationFunction, start, end, resolution);
+            FetchData fetchData = fetchRequest.fetchData();
+            logger.debug("RRD fetch returned '{}' rows and '{}' columns", fetchData.getRowCount(),
+                    fetchData.getColumnCount());
+            result = RrdSeries.fromFetchData(fetchData);
+        } finally {
+            rrdDbCache.release(rrdDb);
+        }
+
+        if (series.size() >= MAX_ENTRIES) {
+            purge(now);
+        }
+        series.put(key, new CachedSeries(result, now + ttl));
+        return result;
+    }
+
+    public void clear() {
+        series.clear();
+    }
+
+    private void purge(long now) {
+        Iterator<CachedSeries> it = series.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expires <= now) {
+                it.remove();
+            }
+        }
+        if (series.size() >= MAX_ENTRIES) {
+            series.clear();
+        }
+    }
+
+    private static class CachedSeries {
+        private final RrdSeries series;
+        private final long expires;
+
+        private CachedSeries(RrdSeries series, long expires) {
+            this.series = series;
+            this.expires = expires;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.rrd;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.util.List;
+import java.util.Locale;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.StreamingOutput;
+
+/**
+ * Writes RRD series directly as CometVisu chart JSON ([[timestamp,[value1,value2,...]],...]) to the response.
+ *
+ * The series of several items (e.g. members of a group) are merged by timestamp, the values of all series having a
+ * row for a timestamp are written in the order of the series.
+ *
+ * @author agent
+ * @since 2.0.0
+ */
+public class RrdSeriesOutput implements StreamingOutput {
+
+    // pattern RRDTool uses to format doubles in XML files
+    private static final String PATTERN = "0.0000000000E00";
+
+    private static final String NAN_STRING = "null";
+
+    private static final ThreadLocal<DecimalFormat> FORMAT = new ThreadLocal<DecimalFormat>() {
+        @Override
+        protected DecimalFormat initialValue() {
+            DecimalFormat df = (DecimalFormat) NumberFormat.getNumberInstance(Locale.ENGLISH);
+            df.applyPattern(PATTERN);
+            return df;
+        }
+    };
+
+    private final List<RrdSeries> series;
+
+    public RrdSeriesOutput(List<RrdSeries> series) {
+        this.series = series;
+    }
+
+    /**
+     * Formats a double the way RRDTool does in its XML files.
+     */
+    public static String formatDouble(double x) {
+        if (Double.isNaN(x)) {
+            return NAN_STRING;
+        }
+        return FORMAT.get().format(x);
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException, WebApplicationException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        DecimalFormat df = FORMAT.get();
+        StringBuffer buffer = new StringBuffer(16);
+        FieldPosition fieldPosition = new FieldPosition(0);
+
+        int[] rows = new int[series.size()];
+        boolean firstRow = true;
+        writer.write('[');
+        while (true) {
+            // find the next timestamp of all series
+            long time = Long.MAX_VALUE;
+            for (int i = 0; i < rows.length; i++) {
+                RrdSeries s = series.get(i);
+                if (rows[i] < s.getRowCount() && s.getTimestamp(rows[i]) < time) {
+                    time = s.getTimestamp(rows[i]);
+                }
+            }
+            if (time == Long.MAX_VALUE) {
+                break;
+            }
+            if (!firstRow) {
+                writer.write(',');
+            }
+            firstRow = false;
+            writer.write('[');
+            writer.write(Long.toString(time));
+            writer.write(",[");
+            boolean firstValue = true;
+            for (int i = 0; i < rows.length; i++) {
+                RrdSeries s = series.get(i);
+                if (rows[i] >= s.getRowCount() || s.getTimestamp(rows[i]) != time) {
+                    continue;
+                }
+                for (int column = 0; column < s.getColumnCount(); column++) {
+                    if (!firstValue) {
+                        writer.write(',');
+                    }
+                    firstValue = false;
+                    writer.write('"');
+                    double value = s.getValue(column, rows[i]);
+                    if (Double.isNaN(value)) {
+                        writer.write(NAN_STRING);
+                    } else {
+                        buffer.setLength(0);
+                        df.format(value, buffer, fieldPosition);
+                        writer.append(buffer);
+                    }
+                    writer.write('"');
+                }
+                rows[i]++;
+            }
+            writer.write("]]");
+        }
+        writer.write(']');
+        writer.flush();
+    }
+}
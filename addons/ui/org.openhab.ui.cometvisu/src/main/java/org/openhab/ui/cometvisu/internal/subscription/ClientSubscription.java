@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.subscription;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.smarthome.core.types.State;
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.openhab.ui.cometvisu.backend.beans.StateBean;
+import org.openhab.ui.cometvisu.internal.Config;
+import org.openhab.ui.cometvisu.internal.util.SseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the addresses one CometVisu client (one SSE connection) has subscribed to and collects the state changes
+ * for this client until they are flushed as one event.
+ *
+ * @author agent
+ * @since 2.0.0
+ */
+public class ClientSubscription {
+    private static final Logger logger = LoggerFactory.getLogger(ClientSubscription.class);
+
+    private final EventOutput eventOutput;
+
+    /**
+     * openHAB item name -> CometVisu address -> state class the address is transformed to (null if untyped)
+     */
+    private final Map<String, Map<String, Class<? extends State>>> addresses = new HashMap<String, Map<String, Class<? extends State>>>();
+
+    private final Map<String, String> pendingStates = new LinkedHashMap<String, String>();
+
+    private boolean flushScheduled = false;
+
+    private volatile SubscriptionIndex index;
+
+    public ClientSubscription(List<String> cvAddresses) {
+        this.eventOutput = new EventOutput() {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                unsubscribe();
+            }
+        };
+        for (String cvAddress : cvAddresses) {
+            String[] parts = cvAddress.split(":");
+            String ohItemName = cvAddress;
+            Class<? extends State> stateClass = null;
+            if (parts.length == 2) {
+                String classPrefix = parts[0].toLowerCase();
+                if (Config.itemTypeMapper.containsKey(classPrefix)) {
+                    stateClass = Config.itemTypeMapper.get(classPrefix);
+                } else {
+                    logger.debug("no type found for '{}'", classPrefix);
+                }
+                ohItemName = parts[1];
+            }
+            Map<String, Class<? extends State>> itemAddresses = addresses.get(ohItemName);
+            if (itemAddresses == null) {
+                itemAddresses = new HashMap<String, Class<? extends State>>();
+                addresses.put(ohItemName, itemAddresses);
+            }
+            itemAddresses.put(cvAddress, stateClass);
+        }
+    }
+
+    public EventOutput getEventOutput() {
+        return eventOutput;
+    }
+
+    /**
+     * @return the openHAB item names this client is interested in
+     */
+    public Set<String> getItemNames() {
+        return Collections.unmodifiableSet(addresses.keySet());
+    }
+
+    /**
+     * @param itemName
+     *            - the openHAB item name
+     * @return the CometVisu addresses (with their state class) subscribed for the item, never null
+     */
+    public Map<String, Class<? extends State>> getAddresses(String itemName) {
+        Map<String, Class<? extends State>> itemAddresses = addresses.get(itemName);
+        if (itemAddresses == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(itemAddresses);
+    }
+
+    public boolean isClosed() {
+        return eventOutput.isClosed();
+    }
+
+    /**
+     * Sets the index this client is subscribed in, the client removes itself when its connection is closed.
+     */
+    void setIndex(SubscriptionIndex index) {
+        this.index = index;
+    }
+
+    private void unsubscribe() {
+        SubscriptionIndex subscriptionIndex = index;
+        if (subscriptionIndex != null) {
+            subscriptionIndex.remove(this);
+        }
+    }
+
+    /**
+     * Adds a state to the pending event, a newer state for the same address replaces the older one.
+     *
+     * @return true if a flush has to be scheduled for this client
+     */
+    synchronized boolean enqueue(String cvAddress, String state) {
+        pendingStates.put(cvAddress, state);
+        if (flushScheduled) {
+            return false;
+        }
+        flushScheduled = true;
+        return true;
+    }
+
+    /**
+     * Sends all pending states as one event to the client.
+     *
+     * @return false if the client could not be reached anymore
+     */
+    boolean flush() {
+        List<StateBean> states;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pendingStates.isEmpty()) {
+                return true;
+            }
+            states = new ArrayList<StateBean>(pendingStates.size());
+            for (Map.Entry<String, String> entry : pendingStates.entrySet()) {
+                StateBean stateBean = new StateBean();
+                stateBean.name = entry.getKey();
+                stateBean.state = entry.getValue();
+                states.add(stateBean);
+            }
+            pendingStates.clear();
+        }
+        return write(states);
+    }
+
+    /**
+     * Writes the given states directly to the client, bypassing the pending event.
+     *
+     * @return false if the client could not be reached anymore
+     */
+    public boolean write(Object eventObject) {
+        if (isClosed()) {
+            return false;
+        }
+        try {
+            eventOutput.write(SseUtil.buildEvent(eventObject));
+            return true;
+        } catch (IOException e) {
+            logger.debug("closing SSE connection: {}", e.getMessage());
+            close();
+            return false;
+        }
+    }
+
+    /**
+     * Sends an SSE comment, which is ignored by the client, to detect connections which have been closed by the
+     * client.
+     *
+     * @return false if the client could not be reached anymore
+     */
+    boolean ping() {
+        if (isClosed()) {
+            unsubscribe();
+            return false;
+        }
+        try {
+            eventOutput.write(new OutboundEvent.Builder().comment("ping").build());
+            return true;
+        } catch (IOException e) {
+            logger.debug("closing SSE connection: {}", e.getMessage());
+            close();
+            return false;
+        }
+    }
+
+    public void close() {
+        try {
+            eventOutput.close();
+        } catch (IOException e) {
+            logger.debug("error closing SSE connection: {}", e.getMessage());
+        }
+    }
+}
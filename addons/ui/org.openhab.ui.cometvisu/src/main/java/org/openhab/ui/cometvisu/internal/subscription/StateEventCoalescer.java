@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.subscription;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the state changes of each client within a short time window and sends them as one SSE event, so that
+ * bursts of state changes result in one frame per client instead of one frame per change.
+ *
+ * @author agent
+ * @since 2.0.0
+ */
+public class StateEventCoalescer {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final SubscriptionIndex index;
+
+    private final long window;
+
+    /**
+     * @param index
+     *            - the index clients are removed from when they are not reachable anymore
+     * @param window
+     *            - time in milliseconds state changes are collected before they are sent
+     * @param heartbeatInterval
+     *            - time in seconds between the checks whether the clients are still connected
+     */
+    public StateEventCoalescer(SubscriptionIndex index, long window, long heartbeatInterval) {
+        this.index = index;
+        this.window = window;
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                pingClients();
+            }
+        }, heartbeatInterval, heartbeatInterval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Pings all clients, clients whose connection has been closed are removed from the index.
+     */
+    private void pingClients() {
+        for (ClientSubscription client : index.getClients()) {
+            if (!client.ping()) {
+                index.remove(client);
+            }
+        }
+    }
+
+    /**
+     * Queues a state for the given client address, it is sent with the next flush of the client.
+     */
+    public void enqueue(final ClientSubscription client, String cvAddress, String state) {
+        if (client.enqueue(cvAddress, state)) {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!client.flush()) {
+                        index.remove(client);
+                    }
+                }
+            }, window, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
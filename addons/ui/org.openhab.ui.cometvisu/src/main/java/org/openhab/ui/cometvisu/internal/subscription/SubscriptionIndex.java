@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2014-2016 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.ui.cometvisu.internal.subscription;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Index of all connected CometVisu clients by the openHAB item names they have subscribed to.
+ *
+ * @author agent
+ * @since 2.0.0
+ */
+public class SubscriptionIndex {
+
+    private final ConcurrentMap<String, Set<ClientSubscription>> subscribers = new ConcurrentHashMap<String, Set<ClientSubscription>>();
+
+    private final Set<ClientSubscription> clients = new CopyOnWriteArraySet<ClientSubscription>();
+
+    /**
+     * Changes of the subscriber sets are done under this lock, lookups are done without locking.
+     */
+    private final Object lock = new Object();
+
+    public void add(ClientSubscription client) {
+        synchronized (lock) {
+            clients.add(client);
+            for (String itemName : client.getItemNames()) {
+                Set<ClientSubscription> itemClients = subscribers.get(itemName);
+                if (itemClients == null) {
+                    itemClients = new CopyOnWriteArraySet<ClientSubscription>();
+                    subscribers.put(itemName, itemClients);
+                }
+                itemClients.add(client);
+            }
+        }
+        client.setIndex(this);
+    }
+
+    public void remove(ClientSubscription client) {
+        synchronized (lock) {
+            if (!clients.remove(client)) {
+                return;
+            }
+            for (String itemName : client.getItemNames()) {
+                Set<ClientSubscription> itemClients = subscribers.get(itemName);
+                if (itemClients != null) {
+                    itemClients.remove(client);
+                    if (itemClients.isEmpty()) {
+                        subscribers.remove(itemName);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a copy of all subscribed clients
+     */
+    public Set<ClientSubscription> getClients() {
+        return new HashSet<ClientSubscription>(clients);
+    }
+
+    /**
+     * @param itemName
+     *            - the openHAB item name
+     * @return all clients which have subscribed to the item, never null
+     */
+    public Set<ClientSubscription> getSubscribers(String itemName) {
+        Set<ClientSubscription> clients = subscribers.get(itemName);
+        if (clients == null) {
+            return Collections.emptySet();
+        }
+        return clients;
+    }
+
+    /**
+     * @return all item names at least one client has subscribed to
+     */
+    public Set<String> getItemNames() {
+        return Collections.unmodifiableSet(subscribers.keySet());
+    }
+
+    public boolean isSubscribed(String itemName) {
+        return subscribers.containsKey(itemName);
+    }
+}